@@ -21,7 +21,7 @@ package xdevs.core.examples.devstone;
 
 import xdevs.core.modeling.Component;
 import xdevs.core.modeling.Coupled;
-import xdevs.core.modeling.Port;
+import xdevs.core.modeling.IntPort;
 
 /**
  * Coupled model to study the performance using DEVStone.
@@ -30,11 +30,11 @@ public abstract class DevStone extends Coupled {
     /**
      * DEVStone input port
      */
-    public Port<Integer> iIn = new Port<>("in");
+    public IntPort iIn = new IntPort("in");
     /**
      * DEVStone output port
      */
-    public Port<Integer> oOut = new Port<>("out");
+    public IntPort oOut = new IntPort("out");
 
     /**
      * Constructor
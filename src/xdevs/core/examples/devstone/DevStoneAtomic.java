@@ -24,7 +24,7 @@ import org.w3c.dom.Element;
 
 import xdevs.core.modeling.Atomic;
 import xdevs.core.modeling.Component;
-import xdevs.core.modeling.Port;
+import xdevs.core.modeling.IntPort;
 
 /**
  * DEVStone atomic model
@@ -34,11 +34,11 @@ public class DevStoneAtomic extends Atomic {
     /**
      * Input port
      */
-    public Port<Integer> iIn = new Port<>("in");
+    public IntPort iIn = new IntPort("in");
     /**
      * Output port
      */
-    public Port<Integer> oOut = new Port<>("out");
+    public IntPort oOut = new IntPort("out");
 
     /**
      * Dhrystone benchmark. This benchmark is executed while the atomic model is in delay mode.
@@ -129,7 +129,7 @@ public class DevStoneAtomic extends Atomic {
         numDeltExts++;
         Dhrystone.execute(extDelayTime);
         if (!iIn.isEmpty()) {
-            numOfEvents += iIn.getValues().size();
+            numOfEvents += iIn.size();
         }
         super.holdIn("active", preparationTime);
     }
@@ -139,6 +139,20 @@ public class DevStoneAtomic extends Atomic {
         oOut.addValue(0);
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[] { super.saveState(), numDeltInts, numDeltExts, numOfEvents };
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] values = (Object[]) state;
+        super.restoreState(values[0]);
+        numDeltInts = (Long) values[1];
+        numDeltExts = (Long) values[2];
+        numOfEvents = (Long) values[3];
+    }
+
     /**
      * Get the preparation time
      * @return preparation time
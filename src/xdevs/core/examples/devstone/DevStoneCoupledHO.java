@@ -23,7 +23,7 @@ import java.util.logging.Logger;
 import org.apache.commons.math3.distribution.RealDistribution;
 
 import xdevs.core.modeling.Coupled;
-import xdevs.core.modeling.Port;
+import xdevs.core.modeling.IntPort;
 import xdevs.core.simulation.Coordinator;
 import xdevs.core.util.DevsLogger;
 
@@ -37,11 +37,11 @@ public class DevStoneCoupledHO extends DevStone {
     /**
      * Additional input port
      */
-    public Port<Integer> iInAux = new Port<>("inAux");
+    public IntPort iInAux = new IntPort("inAux");
     /**
      * Additional output port
      */
-    public Port<Integer> oOutAux = new Port<>("outAux");
+    public IntPort oOutAux = new IntPort("outAux");
 
     /**
      * Constructor
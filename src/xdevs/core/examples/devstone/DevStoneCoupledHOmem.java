@@ -22,7 +22,7 @@ package xdevs.core.examples.devstone;
 import java.util.ArrayList;
 
 import org.apache.commons.math3.distribution.RealDistribution;
-import xdevs.core.modeling.Port;
+import xdevs.core.modeling.IntPort;
 
 /**
  * Coupled model to study the performance HOmem DEVStone models
@@ -35,7 +35,7 @@ public class DevStoneCoupledHOmem extends DevStone {
     /**
      * Additional input port
      */
-    public Port<Integer> iInAux = new Port<>("inAux");
+    public IntPort iInAux = new IntPort("inAux");
 
     /**
      * Constructor
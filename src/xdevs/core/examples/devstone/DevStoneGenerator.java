@@ -23,7 +23,7 @@ import org.w3c.dom.Element;
 
 import xdevs.core.modeling.Atomic;
 import xdevs.core.modeling.Component;
-import xdevs.core.modeling.Port;
+import xdevs.core.modeling.IntPort;
 
 /**
  * Events generator for the DEVStone benchmark
@@ -33,7 +33,7 @@ public class DevStoneGenerator extends Atomic {
     /**
      * Output port
      */
-    public Port<Integer> oOut = new Port<>("out");
+    public IntPort oOut = new IntPort("out");
     /**
      * Preparation time. Time to prepare the atomic model before the execution of the output and internal transition functions.
      */
@@ -111,6 +111,18 @@ public class DevStoneGenerator extends Atomic {
         oOut.addValue(counter);
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[] { super.saveState(), counter };
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] values = (Object[]) state;
+        super.restoreState(values[0]);
+        counter = (Integer) values[1];
+    }
+
     /**
      * Get the period
      * @return period
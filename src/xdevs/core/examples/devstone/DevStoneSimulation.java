@@ -18,11 +18,20 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
+import xdevs.core.modeling.Component;
 import xdevs.core.modeling.Coupled;
 import xdevs.core.simulation.Coordinator;
+import xdevs.core.simulation.parallel.CoordinatorAdaptive;
+import xdevs.core.simulation.parallel.CoordinatorForkJoin;
+import xdevs.core.simulation.parallel.CoordinatorOptimistic;
 import xdevs.core.simulation.parallel.CoordinatorParallel;
+import xdevs.core.simulation.parallel.CoordinatorPartitioned;
+import xdevs.core.simulation.partition.GraphPartitioner;
 import xdevs.core.simulation.profile.CoordinatorProfile;
+import xdevs.core.simulation.replication.ReplicationFactory;
+import xdevs.core.simulation.replication.ReplicationRunner;
 import xdevs.core.util.DevsLogger;
+import xdevs.core.util.StreamingStatistics;
 
 /**
  * Class to perform DEVStone simulations
@@ -73,6 +82,14 @@ public class DevStoneSimulation {
      * If the model is flattened
      */
     protected Boolean flattened = Boolean.FALSE;
+    /**
+     * If the coordinator runs in activity-driven mode
+     */
+    protected Boolean activityDriven = Boolean.FALSE;
+    /**
+     * If the simulators are distributed among threads by the graph partitioner
+     */
+    protected Boolean graphPartitioner = Boolean.FALSE;
     /**
      * Path to load an XML file with the model defined
      */
@@ -85,6 +102,10 @@ public class DevStoneSimulation {
      * Path where the logger will be saved
      */
     protected String logPath = null;
+    /**
+     * Number of independent replications, or null to run a single simulation
+     */
+    protected Integer replications = null;
 
     /**
      * Distribution used to compute transition delays
@@ -112,6 +133,13 @@ public class DevStoneSimulation {
         simulation.initDistribution();
         simulation.initLogger();
 
+        // REPLICATIONS
+        // ===============================================================================
+        if (simulation.replications != null) {
+            simulation.runReplications();
+            return;
+        }
+
         // MODEL CREATION
         // ===========================================================================
         long modelStart = System.currentTimeMillis();
@@ -134,7 +162,7 @@ public class DevStoneSimulation {
 
     public static void printUsage() {
         System.err.println(
-                "Usage: DevStone --model=model --width=width --depth=depth [--delay-distribution=distribution] [--seed=seed] [--coordinator=coordinator] [--num-threads=n] [--flattened] [--load-xml=path] [--save-xml=path] [--loger-path=path]");
+                "Usage: DevStone --model=model --width=width --depth=depth [--delay-distribution=distribution] [--seed=seed] [--coordinator=coordinator] [--num-threads=n] [--flattened] [--activity-driven] [--graph-partitioner] [--replications=n] [--load-xml=path] [--save-xml=path] [--loger-path=path]");
         System.err.println("    --model: DEVStone model (LI, HI, HO, or HOmod)");
         System.err.println("    --width: DEVStone model's width (it must be an integer)");
         System.err.println("    --depth: DEVStone model's depth (it must be an integer)");
@@ -142,10 +170,16 @@ public class DevStoneSimulation {
                 "    --delay-distribution: Distribution used to compute transition delays. Possible values are Constant-V, which is a Constant distribution with fixed value V. ChiSquaredDistribution-V, with parameter V, and UniformRealDistribution-L-U that is a value between L and U. Default is Constant-0.");
         System.err.println("    --seed: Seed for the distribution (Long), f.i. 1234");
         System.err.println(
-                "    --coordinator: Coordinator used for the simulation. Possible values are CoordinatorProfile, Coordinator, and CoordinatorParallel.");
+                "    --coordinator: Coordinator used for the simulation. Possible values are CoordinatorProfile, Coordinator, CoordinatorParallel, CoordinatorForkJoin, CoordinatorPartitioned, CoordinatorAdaptive (which switches between sequential and parallel execution in each step, and is always activity-driven), and CoordinatorOptimistic (Time Warp).");
         System.err.println(
                 "    --num-threads: Number of threads used in the parallel coordinator. By default, the value is equal to the number of cores.");
         System.err.println("    --flattened: if present, flattens the model.");
+        System.err.println(
+                "    --activity-driven: if present, the coordinator only visits imminent and influenced simulators in each step.");
+        System.err.println(
+                "    --graph-partitioner: if present, CoordinatorPartitioned and CoordinatorOptimistic split the atomic models minimizing the couplings between threads.");
+        System.err.println(
+                "    --replications: runs n independent replications in parallel, each one with a sequential coordinator, using --num-threads threads and seeds derived from --seed. Only the statistics of the replications are reported.");
         System.err.println("    --save-xml: saves an XML file with the model defined.");
         System.err.println("    --logger-path: path where the logger will be saved.");
     }
@@ -249,12 +283,19 @@ public class DevStoneSimulation {
                 numThreads = Integer.parseInt(parts[1]);
             } else if (arg.startsWith("--flattened")) {
                 flattened = Boolean.TRUE;
+            } else if (arg.startsWith("--activity-driven")) {
+                activityDriven = Boolean.TRUE;
+            } else if (arg.startsWith("--graph-partitioner")) {
+                graphPartitioner = Boolean.TRUE;
             } else if (arg.startsWith("--load-xml=")) {
                 String[] parts = arg.split("=");
                 loadXml = parts[1];
             } else if (arg.startsWith("--save-xml=")) {
                 String[] parts = arg.split("=");
                 saveXml = parts[1];
+            } else if (arg.startsWith("--replications=")) {
+                String[] parts = arg.split("=");
+                replications = Integer.parseInt(parts[1]);
             } else if (arg.startsWith("--logger-path=")) {
                 String[] parts = arg.split("=");
                 logPath = parts[1];
@@ -308,7 +349,38 @@ public class DevStoneSimulation {
             } else {
                 coordinator = new CoordinatorParallel(framework);
             }
+        } else if (coordinatorAsString.equals("CoordinatorForkJoin")) {
+            if (numThreads != null) {
+                coordinator = new CoordinatorForkJoin(framework, numThreads);
+            } else {
+                coordinator = new CoordinatorForkJoin(framework);
+            }
+        } else if (coordinatorAsString.equals("CoordinatorPartitioned")) {
+            if (numThreads != null) {
+                coordinator = new CoordinatorPartitioned(framework, numThreads);
+            } else {
+                coordinator = new CoordinatorPartitioned(framework);
+            }
+            if (graphPartitioner) {
+                ((CoordinatorPartitioned) coordinator).setPartitioner(new GraphPartitioner());
+            }
+        } else if (coordinatorAsString.equals("CoordinatorAdaptive")) {
+            if (numThreads != null) {
+                coordinator = new CoordinatorAdaptive(framework, numThreads);
+            } else {
+                coordinator = new CoordinatorAdaptive(framework);
+            }
+        } else if (coordinatorAsString.equals("CoordinatorOptimistic")) {
+            if (numThreads != null) {
+                coordinator = new CoordinatorOptimistic(framework, numThreads);
+            } else {
+                coordinator = new CoordinatorOptimistic(framework);
+            }
+            if (graphPartitioner) {
+                ((CoordinatorOptimistic) coordinator).setPartitioner(new GraphPartitioner());
+            }
         }
+        coordinator.setActivityDriven(activityDriven);
         coordinator.initialize();
         long coordStop = System.currentTimeMillis();
         double engineSetupTime = ((coordStop - coordStart) / 1e3);
@@ -359,6 +431,60 @@ public class DevStoneSimulation {
         System.out.println("Simulation time (s): " + simulationTime);
     }
 
+    private void runReplications() {
+        ReplicationFactory factory = new ReplicationFactory() {
+            @Override
+            public Coupled createModel(int replication, long replicationSeed) {
+                DevStoneSimulation simulation = new DevStoneSimulation();
+                simulation.model = model;
+                simulation.width = width;
+                simulation.depth = depth;
+                simulation.delayDistribution = delayDistribution;
+                simulation.flattened = flattened;
+                simulation.loadXml = loadXml;
+                simulation.seed = replicationSeed;
+                simulation.initDistribution();
+                simulation.buildFramework();
+                simulation.flatten();
+                return simulation.framework;
+            }
+
+            @Override
+            public String[] getMetricNames() {
+                return new String[] { "NUM_DELT_INTS", "NUM_DELT_EXTS", "NUM_OF_EVENTS" };
+            }
+
+            @Override
+            public double[] getMetrics(Coupled coupled, Coordinator coordinator) {
+                double[] counters = new double[3];
+                countTransitions(coupled, counters);
+                return counters;
+            }
+        };
+        ReplicationRunner runner = (numThreads != null) ? new ReplicationRunner(factory, numThreads)
+                : new ReplicationRunner(factory);
+        StreamingStatistics[] statistics = runner.run(replications, (seed != null) ? seed : 0, Long.MAX_VALUE);
+        for (StreamingStatistics metric : statistics) {
+            LOGGER.info(metric.toString());
+        }
+        if (runner.getNumFailures() > 0) {
+            LOGGER.severe("ERROR: " + runner.getNumFailures() + " replications failed");
+        }
+    }
+
+    private static void countTransitions(Coupled coupled, double[] counters) {
+        for (Component component : coupled.getComponents()) {
+            if (component instanceof DevStoneAtomic) {
+                DevStoneAtomic atomic = (DevStoneAtomic) component;
+                counters[0] += atomic.numDeltInts;
+                counters[1] += atomic.numDeltExts;
+                counters[2] += atomic.numOfEvents;
+            } else if (component instanceof Coupled) {
+                countTransitions((Coupled) component, counters);
+            }
+        }
+    }
+
     private void saveXml() {
         if (saveXml == null)
             return;
@@ -29,6 +29,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
+import xdevs.core.modeling.Component;
 import xdevs.core.simulation.distributed.CoordinatorDistributed;
 import xdevs.core.simulation.distributed.SimulatorDistributed;
 import xdevs.core.modeling.distributed.CoupledDistributed;
@@ -38,12 +39,12 @@ import xdevs.core.util.DevsLogger;
  * Node class to run a distributed simulation.
  * 
  * The first argument is always the file name of the complete XML model.
- * If there is a second argument, it is the name of the atomic model to simulate. Node is executed as a stand-alone DEVS simulator.
+ * If there is a second argument, it is the name of the component (atomic or coupled) to simulate. Node is executed as a stand-alone DEVS simulator.
  * On the other hand, if there is only one argument, the coordinator is executed.
  * 
  * The coordinator is responsible for initializing the simulation and running it until the end. 
  * The coordinator is also responsible for the finalization of the simulation.
- * The simulator is responsible for running a single atomic model.
+ * The simulator is responsible for running a single component of the model.
  * 
  * All the simulation is orchestrated by passing messages between the coordinator and the simulators.
  * 
@@ -52,6 +53,16 @@ import xdevs.core.util.DevsLogger;
  * $ java -cp xdevs.jar xdevs.core.examples.distributed.gpt.RunDistributedSimulation gpt.xml Generator
  * $ java -cp xdevs.jar xdevs.core.examples.distributed.gpt.RunDistributedSimulation gpt.xml Processor
  * $ java -cp xdevs.jar xdevs.core.examples.distributed.gpt.RunDistributedSimulation gpt.xml Transducer
+ * 
+ * The same commands with gptDecentralized.xml run the simulation in the decentralized
+ * mode, where the nodes exchange null messages computed from the lookahead of the
+ * connections, and the coordinator only starts the simulation and detects its end.
+ * 
+ * With gptLoopback.xml, which uses the in-memory transport, the coordinator also
+ * creates all the nodes in its own process, so only the first command is needed.
+ * 
+ * Since all the nodes of gpt.xml are in the same host, the processes communicate
+ * through shared memory. Add transport="tcp" to the root element to use sockets.
  */
 public class RunDistributedSimulation {
     
@@ -77,6 +88,12 @@ public class RunDistributedSimulation {
             }else if(args.length==1){ // Coordinator
                 LOGGER.info("Run Coordinator .....");
                 CoupledDistributed gpt = new CoupledDistributed(xmlCoupled);
+                if (gpt.getTransport().equals("loopback")) {
+                    // Each node builds its own instance of the model
+                    for (Component component : gpt.getComponents()) {
+                        new SimulatorDistributed(new CoupledDistributed(xmlCoupled), component.getName());
+                    }
+                }
                 CoordinatorDistributed coordinator = new CoordinatorDistributed(gpt);
                 long start = System.currentTimeMillis();
                 coordinator.initialize();
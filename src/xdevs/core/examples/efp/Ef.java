@@ -21,6 +21,8 @@
  */
 package xdevs.core.examples.efp;
 
+import org.w3c.dom.Element;
+
 import xdevs.core.modeling.Coupled;
 import xdevs.core.modeling.Port;
 
@@ -60,4 +62,14 @@ public class Ef extends Coupled {
     super.addCoupling(generator.oOut, transducer.iArrived);
     super.addCoupling(transducer.oOut, generator.iStop);
   }
+
+  /**
+   * Constructor from XML
+   * @param xmlCoupled XML element
+   */
+  public Ef(Element xmlCoupled) {
+    this(xmlCoupled.getAttribute("name"),
+         Double.parseDouble(((Element) (xmlCoupled.getElementsByTagName("constructor-arg").item(0))).getAttribute("value")),
+         Double.parseDouble(((Element) (xmlCoupled.getElementsByTagName("constructor-arg").item(1))).getAttribute("value")));
+  }
 }
@@ -48,7 +48,8 @@ public class Efp extends Coupled {
         super.addComponent(processor);
 
         super.addCoupling(ef.oOut, processor.iIn);
-        super.addCoupling(processor.oOut, ef.iIn);
+        // The processor takes processorPeriod to send a job back since it starts processing it
+        super.addCoupling(processor.oOut, ef.iIn, processorPeriod);
     }
 
     public static void main(String args[]) {
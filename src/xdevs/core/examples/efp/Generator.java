@@ -80,8 +80,21 @@ public class Generator extends Atomic {
         super.passivate();
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[] { super.saveState(), jobCounter };
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] values = (Object[]) state;
+        super.restoreState(values[0]);
+        jobCounter = (Integer) values[1];
+    }
+
     @Override
     public void lambda() {
+        // Jobs are not taken from a MessagePool: other models may keep them after the port is cleared
         Job job = new Job("" + jobCounter + "");
         oOut.addValue(job);
     }
@@ -42,7 +42,9 @@ public class Processor extends Atomic {
      */
     protected Port<Job> oOut = new Port<>("out");
     /**
-     * Current job being processed.
+     * Current job being processed. It is a copy of the received job, with the time
+     * in which its processing started, since received values are shared with other
+     * models and must not be modified.
      */
     protected Job currentJob = null;
     /**
@@ -97,12 +99,25 @@ public class Processor extends Atomic {
         super.resume(e);
         clock += e;
         if (super.phaseIs("passive")) {
-            currentJob = iIn.getSingleValue();
+            currentJob = new Job(iIn.getSingleValue().id);
+            currentJob.setTime(clock);
             super.holdIn("active", processingTime);
-            currentJob.time = clock;
         }
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[] { super.saveState(), clock, currentJob };
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] values = (Object[]) state;
+        super.restoreState(values[0]);
+        clock = (Double) values[1];
+        currentJob = (Job) values[2];
+    }
+
     @Override
     public void lambda() {
         oOut.addValue(currentJob);
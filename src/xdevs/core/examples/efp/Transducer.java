@@ -21,11 +21,11 @@
  */
 package xdevs.core.examples.efp;
 
-import java.util.LinkedList;
 import java.util.logging.Logger;
 import org.w3c.dom.Element;
 
 import xdevs.core.modeling.Atomic;
+import xdevs.core.modeling.MessagePool;
 import xdevs.core.modeling.Port;
 
 /**
@@ -51,13 +51,18 @@ public class Transducer extends Atomic {
      */
     public Port<Job> oOut = new Port<>("oOut");
     /**
-     * Jobs arrived.
+     * Pool of the jobs sent to finish the simulation. The receiver does not keep them,
+     * so they are recycled when the output port is cleared.
      */
-    protected LinkedList<Job> jobsArrived = new LinkedList<>();
+    protected MessagePool<Job> stopJobs = new MessagePool<>(() -> new Job("null"));
     /**
-     * Jobs processed.
+     * Number of jobs arrived.
      */
-    protected LinkedList<Job> jobsSolved = new LinkedList<>();
+    protected long numJobsArrived = 0;
+    /**
+     * Number of jobs processed.
+     */
+    protected long numJobsSolved = 0;
     /**
      * Observation time before finishing the simulation.
      */
@@ -81,6 +86,7 @@ public class Transducer extends Atomic {
         super.addInPort(iArrived);
         super.addInPort(iSolved);
         super.addOutPort(oOut);
+        oOut.setMessagePool(stopJobs);
         totalTa = 0;
         clock = 0;
         this.observationTime = observationTime;
@@ -97,35 +103,45 @@ public class Transducer extends Atomic {
 
     @Override
     public void initialize() {
+        clock = 0;
+        totalTa = 0;
+        numJobsArrived = 0;
+        numJobsSolved = 0;
         super.holdIn("active", observationTime);
     }
 
+    /**
+     * Reports the statistics. They are reported here and not in the transition that
+     * finishes the observation, because coordinators such as
+     * {@link xdevs.core.simulation.parallel.CoordinatorOptimistic} may execute that
+     * transition speculatively and undo it.
+     */
     @Override
     public void exit() {
+        double throughput;
+        double avgTaTime;
+        if (numJobsSolved > 0) {
+            avgTaTime = totalTa / numJobsSolved;
+            if (clock > 0.0) {
+                throughput = numJobsSolved / clock;
+            } else {
+                throughput = 0.0;
+            }
+        } else {
+            avgTaTime = 0.0;
+            throughput = 0.0;
+        }
+        LOGGER.info("End time: " + clock);
+        LOGGER.info("Jobs arrived : " + numJobsArrived);
+        LOGGER.info("Jobs solved : " + numJobsSolved);
+        LOGGER.info("Average TA = " + avgTaTime);
+        LOGGER.info("Throughput = " + throughput);
     }
 
     @Override
     public void deltint() {
         clock = clock + getSigma();
-        double throughput;
-        double avgTaTime;
         if (phaseIs("active")) {
-            if (!jobsSolved.isEmpty()) {
-                avgTaTime = totalTa / jobsSolved.size();
-                if (clock > 0.0) {
-                    throughput = jobsSolved.size() / clock;
-                } else {
-                    throughput = 0.0;
-                }
-            } else {
-                avgTaTime = 0.0;
-                throughput = 0.0;
-            }
-            LOGGER.info("End time: " + clock);
-            LOGGER.info("Jobs arrived : " + jobsArrived.size());
-            LOGGER.info("Jobs solved : " + jobsSolved.size());
-            LOGGER.info("Average TA = " + avgTaTime);
-            LOGGER.info("Throughput = " + throughput);
             holdIn("done", 0);
         } else {
             passivate();
@@ -141,25 +157,38 @@ public class Transducer extends Atomic {
             if (!iArrived.isEmpty()) {
                 Job job = iArrived.getSingleValue();
                 LOGGER.fine("Start job " + job.id + " @ t = " + clock);
-                job.time = clock;
-                jobsArrived.add(job);
+                numJobsArrived++;
             }
             if (!iSolved.isEmpty()) {
                 for(Job job : iSolved.getValues()) {
                     totalTa += (clock - job.time);
                     LOGGER.fine("Finish job " + job.id + " @ t = " + clock);
-                    job.time = clock;
-                    jobsSolved.add(job);
+                    numJobsSolved++;
                 }
             }
         }
         //logger.info("###Deltext: "+showState());
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[] { super.saveState(), clock, totalTa, numJobsArrived, numJobsSolved };
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] values = (Object[]) state;
+        super.restoreState(values[0]);
+        clock = (Double) values[1];
+        totalTa = (Double) values[2];
+        numJobsArrived = (Long) values[3];
+        numJobsSolved = (Long) values[4];
+    }
+
     @Override
     public void lambda() {
         if (phaseIs("done")) {
-            Job job = new Job("null");
+            Job job = stopJobs.borrow();
             oOut.addValue(job);
         }
     }
@@ -197,6 +197,31 @@ public abstract class Atomic extends Component {
         return sb.toString();
     }
 
+    /**
+     * Saves the state of the model, so it can be restored later with
+     * {@link #restoreState(Object)}. Optimistic simulators save the state before each
+     * transition and restore it when the transition must be undone.
+     * 
+     * The default implementation saves the phase and sigma. Models with more state
+     * variables must override both methods, calling the implementation of the
+     * superclass. Values received through the ports are shared with other models, so
+     * they must not be modified by the transition functions.
+     * @return An object with the state of the model.
+     */
+    public Object saveState() {
+        return new Object[] { phase, sigma };
+    }
+
+    /**
+     * Restores a state previously saved with {@link #saveState()}.
+     * @param state The state to restore.
+     */
+    public void restoreState(Object state) {
+        Object[] values = (Object[]) state;
+        phase = (String) values[0];
+        sigma = (Double) values[1];
+    }
+
     /**
      * Method to get the XML representation of the model.
      * @return The XML representation of the model.
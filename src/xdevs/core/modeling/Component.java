@@ -128,7 +128,12 @@ public abstract class Component {
      * otherwise.
      */
     public boolean isInputEmpty() {
-        return inPorts.stream().noneMatch((port) -> (!port.isEmpty()));
+        for (int i = 0; i < inPorts.size(); ++i) {
+            if (!inPorts.get(i).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
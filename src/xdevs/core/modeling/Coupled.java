@@ -247,6 +247,18 @@ public class Coupled extends Component {
      * @param pTo   Port at the end of the connection
      */
     public void addCoupling(Port<?> pFrom, Port<?> pTo) {
+        addCoupling(pFrom, pTo, 0);
+    }
+
+    /**
+     * This member adds a connection between ports pFrom and pTo, declaring its
+     * lookahead (see {@link Coupling#getLookahead()}).
+     *
+     * @param pFrom     Port at the beginning of the connection
+     * @param pTo       Port at the end of the connection
+     * @param lookahead Lookahead of the connection
+     */
+    public void addCoupling(Port<?> pFrom, Port<?> pTo, double lookahead) {
         if (pFrom.getParent() == null) {
             LOGGER.severe("Port " + pFrom.getName()
                     + " does not have a parent component. Maybe the port was not added to the component?");
@@ -257,7 +269,7 @@ public class Coupled extends Component {
                     + " does not have a parent component. Maybe the port was not added to the component?");
             return;
         }
-        Coupling coupling = new Coupling(pFrom, pTo);
+        Coupling coupling = new Coupling(pFrom, pTo, lookahead);
         // Add to connections
         if (pFrom.getParent() == this) {
             eic.add(coupling);
@@ -356,11 +368,11 @@ public class Coupled extends Component {
 
         // Process if parent ...
         // First, we store all the parent ports connected to input ports
-        HashMap<Port<?>, LinkedList<Port<?>>> leftBridgeEIC = createLeftBrige(((Coupled) parent).getEIC());
-        HashMap<Port<?>, LinkedList<Port<?>>> leftBridgeIC = createLeftBrige(((Coupled) parent).getIC());
+        HashMap<Port<?>, LinkedList<Coupling<?>>> leftBridgeEIC = createLeftBrige(((Coupled) parent).getEIC());
+        HashMap<Port<?>, LinkedList<Coupling<?>>> leftBridgeIC = createLeftBrige(((Coupled) parent).getIC());
         // The same with the output ports
-        HashMap<Port<?>, LinkedList<Port<?>>> rightBridgeEOC = createRightBrige(((Coupled) parent).getEOC());
-        HashMap<Port<?>, LinkedList<Port<?>>> rightBridgeIC = createRightBrige(((Coupled) parent).getIC());
+        HashMap<Port<?>, LinkedList<Coupling<?>>> rightBridgeEOC = createRightBrige(((Coupled) parent).getEOC());
+        HashMap<Port<?>, LinkedList<Coupling<?>>> rightBridgeIC = createRightBrige(((Coupled) parent).getIC());
 
         completeLeftBridge(eic, leftBridgeEIC, ((Coupled) parent).getEIC());
         completeLeftBridge(eic, leftBridgeIC, ((Coupled) parent).getIC());
@@ -384,13 +396,14 @@ public class Coupled extends Component {
      * @param pCouplings The couplings of the parent
      */
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    private void completeLeftBridge(LinkedList<Coupling<?>> couplings, HashMap<Port<?>, LinkedList<Port<?>>> leftBridge,
+    private void completeLeftBridge(LinkedList<Coupling<?>> couplings, HashMap<Port<?>, LinkedList<Coupling<?>>> leftBridge,
             LinkedList<Coupling<?>> pCouplings) {
         for (Coupling<?> c : couplings) {
-            LinkedList<Port<?>> list = leftBridge.get(c.portFrom);
+            LinkedList<Coupling<?>> list = leftBridge.get(c.portFrom);
             if (list != null) {
-                for (Port<?> port : list) {
-                    pCouplings.add(new Coupling(port, c.portTo));
+                for (Coupling<?> pc : list) {
+                    // Every coupling of the path is a valid promise, so the largest one is kept
+                    pCouplings.add(new Coupling(pc.portFrom, c.portTo, Math.max(pc.lookahead, c.lookahead)));
                 }
             }
         }
@@ -404,12 +417,12 @@ public class Coupled extends Component {
      */
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private void completeRightBridge(LinkedList<Coupling<?>> couplings,
-            HashMap<Port<?>, LinkedList<Port<?>>> rightBridge, LinkedList<Coupling<?>> pCouplings) {
+            HashMap<Port<?>, LinkedList<Coupling<?>>> rightBridge, LinkedList<Coupling<?>> pCouplings) {
         for (Coupling<?> c : couplings) {
-            LinkedList<Port<?>> list = rightBridge.get(c.portTo);
+            LinkedList<Coupling<?>> list = rightBridge.get(c.portTo);
             if (list != null) {
-                for (Port<?> port : list) {
-                    pCouplings.add(new Coupling(c.portFrom, port));
+                for (Coupling<?> pc : list) {
+                    pCouplings.add(new Coupling(c.portFrom, pc.portTo, Math.max(pc.lookahead, c.lookahead)));
                 }
             }
         }
@@ -420,17 +433,17 @@ public class Coupled extends Component {
      * @param couplings The couplings to process
      * @return The left bridge
      */
-    private HashMap<Port<?>, LinkedList<Port<?>>> createLeftBrige(LinkedList<Coupling<?>> couplings) {
-        HashMap<Port<?>, LinkedList<Port<?>>> leftBridge = new HashMap<>();
+    private HashMap<Port<?>, LinkedList<Coupling<?>>> createLeftBrige(LinkedList<Coupling<?>> couplings) {
+        HashMap<Port<?>, LinkedList<Coupling<?>>> leftBridge = new HashMap<>();
         for (Port<?> iPort : this.inPorts) {
             for (Coupling<?> c : couplings) {
                 if (c.portTo == iPort) {
-                    LinkedList<Port<?>> list = leftBridge.get(iPort);
+                    LinkedList<Coupling<?>> list = leftBridge.get(iPort);
                     if (list == null) {
                         list = new LinkedList<>();
                         leftBridge.put(iPort, list);
                     }
-                    list.add(c.portFrom);
+                    list.add(c);
                 }
             }
         }
@@ -442,17 +455,17 @@ public class Coupled extends Component {
      * @param couplings The couplings to process
      * @return The right bridge
      */
-    private HashMap<Port<?>, LinkedList<Port<?>>> createRightBrige(LinkedList<Coupling<?>> couplings) {
-        HashMap<Port<?>, LinkedList<Port<?>>> rightBridge = new HashMap<>();
+    private HashMap<Port<?>, LinkedList<Coupling<?>>> createRightBrige(LinkedList<Coupling<?>> couplings) {
+        HashMap<Port<?>, LinkedList<Coupling<?>>> rightBridge = new HashMap<>();
         for (Port<?> oPort : this.outPorts) {
             for (Coupling<?> c : couplings) {
                 if (c.portFrom == oPort) {
-                    LinkedList<Port<?>> list = rightBridge.get(oPort);
+                    LinkedList<Coupling<?>> list = rightBridge.get(oPort);
                     if (list == null) {
                         list = new LinkedList<>();
                         rightBridge.put(oPort, list);
                     }
-                    list.add(c.portTo);
+                    list.add(c);
                 }
             }
         }
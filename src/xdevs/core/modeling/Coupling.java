@@ -39,6 +39,10 @@ public class Coupling<E> {
      * The destination port of the coupling.
      */
     protected Port<E> portTo;
+    /**
+     * The lookahead of the coupling.
+     */
+    protected double lookahead = 0;
 
     /**
      * Constructor of the coupling.
@@ -50,6 +54,17 @@ public class Coupling<E> {
         this.portTo = portTo;
     }
 
+    /**
+     * Constructor of the coupling with a lookahead.
+     * @param portFrom The source port of the coupling.
+     * @param portTo The destination port of the coupling.
+     * @param lookahead The lookahead of the coupling (see {@link #getLookahead()}).
+     */
+    public Coupling(Port<E> portFrom, Port<E> portTo, double lookahead) {
+        this(portFrom, portTo);
+        this.lookahead = lookahead;
+    }
+
     /**
      * Returns the string representation of the coupling.
      */
@@ -62,7 +77,7 @@ public class Coupling<E> {
      * Propagates the values from the source port to the destination port.
      */
     public void propagateValues() {
-        portTo.addValues(portFrom.getValues());
+        portTo.addValues(portFrom);
     }
 
     /**
@@ -80,4 +95,29 @@ public class Coupling<E> {
     public Port<E> getPortTo() {
         return portTo;
     }
+
+    /**
+     * Returns the lookahead of the coupling.
+     * 
+     * The lookahead is a promise of the source component: when it executes a
+     * transition at time t, the next value sent through this coupling will not be
+     * sent before t + lookahead, unless that output was already scheduled before the
+     * transition. For instance, a processor that takes a fixed time to process a job
+     * and ignores the jobs received while it is busy can declare that time as the
+     * lookahead of its output couplings. Conservative parallel simulators use it to
+     * let the destination advance without waiting for the source. The default value,
+     * 0, makes no promise.
+     * @return The lookahead of the coupling.
+     */
+    public double getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * Sets the lookahead of the coupling.
+     * @param lookahead The lookahead of the coupling (see {@link #getLookahead()}).
+     */
+    public void setLookahead(double lookahead) {
+        this.lookahead = lookahead;
+    }
 }
@@ -0,0 +1,95 @@
+/*
+* File: DirtyPortList.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.modeling;
+
+import java.util.Arrays;
+
+/**
+ * List of the ports that have received values in the current simulation step.
+ *
+ * A port registers itself in its list when it goes from empty to non-empty. At the
+ * end of the step, the simulator clears only the registered ports instead of
+ * walking all the ports of the model hierarchy.
+ *
+ * Ports may register themselves from different threads (for instance, in the
+ * parallel execution of the output functions), so the list is synchronized.
+ */
+public class DirtyPortList {
+
+    /**
+     * The ports registered in the current step.
+     */
+    protected Port<?>[] ports = new Port<?>[16];
+    /**
+     * Number of ports registered in the current step.
+     */
+    protected int size = 0;
+
+    /**
+     * Registers a port that has received values.
+     * @param port The port to register.
+     */
+    public synchronized void add(Port<?> port) {
+        if (size == ports.length) {
+            ports = Arrays.copyOf(ports, 2 * size);
+        }
+        ports[size++] = port;
+    }
+
+    /**
+     * Gets the number of ports registered in the current step.
+     * @return The number of ports registered.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets a port registered in the current step.
+     * @param index The position of the port, in order of registration.
+     * @return The port at the given position.
+     */
+    public synchronized Port<?> get(int index) {
+        return ports[index];
+    }
+
+    /**
+     * Gets the array of registered ports, to read several positions without taking the
+     * lock of the list for each one. Only the first {@link #size()} positions are
+     * valid. Registering more ports may replace the array, but the positions already
+     * registered do not change until the list is cleared.
+     * @return The array of registered ports.
+     */
+    public synchronized Port<?>[] getPorts() {
+        return ports;
+    }
+
+    /**
+     * Empties all the registered ports and the list itself.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < size; ++i) {
+            ports[i].clear();
+            ports[i] = null;
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+* File: DoublePort.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.modeling;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+/**
+ * Port specialized in <code>double</code> values.
+ *
+ * Values are stored in a growable <code>double</code> array, so adding values and
+ * propagating them to other <code>DoublePort</code> ports through couplings does not
+ * box them. Use {@link #addValue(double)} and {@link #getDouble(int)} to avoid boxing in
+ * the models. The methods inherited from {@link Port} are still available, so this
+ * port can be coupled with generic <code>Port&lt;Double&gt;</code> ports.
+ */
+public class DoublePort extends Port<Double> {
+
+    /**
+     * The values stored in the port.
+     */
+    protected double[] doubles = new double[4];
+
+    /**
+     * Constructor of the port.
+     * @param name The name of the port.
+     */
+    public DoublePort(String name) {
+        super(name);
+    }
+
+    /**
+     * Constructor of the port.
+     */
+    public DoublePort() {
+        this(DoublePort.class.getSimpleName());
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    protected boolean canShareValues() {
+        return false;
+    }
+
+    /**
+     * Returns a value stored in the port.
+     * @param index The position of the value.
+     * @return The value at the given position.
+     */
+    public double getDouble(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return doubles[index];
+    }
+
+    /**
+     * Returns the first value stored in the port.
+     * @return The first value stored in the port.
+     */
+    public double getSingleDouble() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return doubles[0];
+    }
+
+    @Override
+    public Double getSingleValue() {
+        return getSingleDouble();
+    }
+
+    @Override
+    public Double getValue(int index) {
+        return getDouble(index);
+    }
+
+    /**
+     * Adds a value to the port.
+     * @param value The value to add to the port.
+     */
+    public void addValue(double value) {
+        if (size == 0 && dirtyPorts != null) {
+            dirtyPorts.add(this);
+        }
+        if (size == doubles.length) {
+            doubles = Arrays.copyOf(doubles, 2 * size);
+        }
+        doubles[size++] = value;
+    }
+
+    @Override
+    public void addValue(Double value) {
+        addValue(value.doubleValue());
+    }
+
+    @Override
+    public void addValues(Collection<Double> valuesPort) {
+        for (Double value : valuesPort) {
+            addValue(value.doubleValue());
+        }
+    }
+
+    /**
+     * Adds the values stored in another port to this port. If the other port is also
+     * a <code>DoublePort</code>, the values are copied without boxing. Unlike generic
+     * ports, primitive values are always copied instead of shared, since copying a
+     * primitive array is as cheap as referencing it.
+     * @param port The port whose values are added to this port.
+     */
+    @Override
+    public void addValues(Port<Double> port) {
+        if (!(port instanceof DoublePort)) {
+            for (int i = 0; i < port.size(); ++i) {
+                addValue(port.getValue(i).doubleValue());
+            }
+            return;
+        }
+        DoublePort doublePort = (DoublePort) port;
+        if (doublePort.size == 0) {
+            return;
+        }
+        if (size == 0 && dirtyPorts != null) {
+            dirtyPorts.add(this);
+        }
+        if (size + doublePort.size > doubles.length) {
+            doubles = Arrays.copyOf(doubles, Math.max(2 * doubles.length, size + doublePort.size));
+        }
+        System.arraycopy(doublePort.doubles, 0, doubles, size, doublePort.size);
+        size += doublePort.size;
+    }
+}
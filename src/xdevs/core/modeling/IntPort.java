@@ -0,0 +1,155 @@
+/*
+* File: IntPort.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.modeling;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+/**
+ * Port specialized in <code>int</code> values.
+ *
+ * Values are stored in a growable <code>int</code> array, so adding values and
+ * propagating them to other <code>IntPort</code> ports through couplings does not
+ * box them. Use {@link #addValue(int)} and {@link #getInt(int)} to avoid boxing in
+ * the models. The methods inherited from {@link Port} are still available, so this
+ * port can be coupled with generic <code>Port&lt;Integer&gt;</code> ports.
+ */
+public class IntPort extends Port<Integer> {
+
+    /**
+     * The values stored in the port.
+     */
+    protected int[] ints = new int[4];
+
+    /**
+     * Constructor of the port.
+     * @param name The name of the port.
+     */
+    public IntPort(String name) {
+        super(name);
+    }
+
+    /**
+     * Constructor of the port.
+     */
+    public IntPort() {
+        this(IntPort.class.getSimpleName());
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    protected boolean canShareValues() {
+        return false;
+    }
+
+    /**
+     * Returns a value stored in the port.
+     * @param index The position of the value.
+     * @return The value at the given position.
+     */
+    public int getInt(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return ints[index];
+    }
+
+    /**
+     * Returns the first value stored in the port.
+     * @return The first value stored in the port.
+     */
+    public int getSingleInt() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return ints[0];
+    }
+
+    @Override
+    public Integer getSingleValue() {
+        return getSingleInt();
+    }
+
+    @Override
+    public Integer getValue(int index) {
+        return getInt(index);
+    }
+
+    /**
+     * Adds a value to the port.
+     * @param value The value to add to the port.
+     */
+    public void addValue(int value) {
+        if (size == 0 && dirtyPorts != null) {
+            dirtyPorts.add(this);
+        }
+        if (size == ints.length) {
+            ints = Arrays.copyOf(ints, 2 * size);
+        }
+        ints[size++] = value;
+    }
+
+    @Override
+    public void addValue(Integer value) {
+        addValue(value.intValue());
+    }
+
+    @Override
+    public void addValues(Collection<Integer> valuesPort) {
+        for (Integer value : valuesPort) {
+            addValue(value.intValue());
+        }
+    }
+
+    /**
+     * Adds the values stored in another port to this port. If the other port is also
+     * an <code>IntPort</code>, the values are copied without boxing. Unlike generic
+     * ports, primitive values are always copied instead of shared, since copying a
+     * primitive array is as cheap as referencing it.
+     * @param port The port whose values are added to this port.
+     */
+    @Override
+    public void addValues(Port<Integer> port) {
+        if (!(port instanceof IntPort)) {
+            for (int i = 0; i < port.size(); ++i) {
+                addValue(port.getValue(i).intValue());
+            }
+            return;
+        }
+        IntPort intPort = (IntPort) port;
+        if (intPort.size == 0) {
+            return;
+        }
+        if (size == 0 && dirtyPorts != null) {
+            dirtyPorts.add(this);
+        }
+        if (size + intPort.size > ints.length) {
+            ints = Arrays.copyOf(ints, Math.max(2 * ints.length, size + intPort.size));
+        }
+        System.arraycopy(intPort.ints, 0, ints, size, intPort.size);
+        size += intPort.size;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+* File: LongPort.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.modeling;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+/**
+ * Port specialized in <code>long</code> values.
+ *
+ * Values are stored in a growable <code>long</code> array, so adding values and
+ * propagating them to other <code>LongPort</code> ports through couplings does not
+ * box them. Use {@link #addValue(long)} and {@link #getLong(int)} to avoid boxing in
+ * the models. The methods inherited from {@link Port} are still available, so this
+ * port can be coupled with generic <code>Port&lt;Long&gt;</code> ports.
+ */
+public class LongPort extends Port<Long> {
+
+    /**
+     * The values stored in the port.
+     */
+    protected long[] longs = new long[4];
+
+    /**
+     * Constructor of the port.
+     * @param name The name of the port.
+     */
+    public LongPort(String name) {
+        super(name);
+    }
+
+    /**
+     * Constructor of the port.
+     */
+    public LongPort() {
+        this(LongPort.class.getSimpleName());
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    protected boolean canShareValues() {
+        return false;
+    }
+
+    /**
+     * Returns a value stored in the port.
+     * @param index The position of the value.
+     * @return The value at the given position.
+     */
+    public long getLong(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return longs[index];
+    }
+
+    /**
+     * Returns the first value stored in the port.
+     * @return The first value stored in the port.
+     */
+    public long getSingleLong() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return longs[0];
+    }
+
+    @Override
+    public Long getSingleValue() {
+        return getSingleLong();
+    }
+
+    @Override
+    public Long getValue(int index) {
+        return getLong(index);
+    }
+
+    /**
+     * Adds a value to the port.
+     * @param value The value to add to the port.
+     */
+    public void addValue(long value) {
+        if (size == 0 && dirtyPorts != null) {
+            dirtyPorts.add(this);
+        }
+        if (size == longs.length) {
+            longs = Arrays.copyOf(longs, 2 * size);
+        }
+        longs[size++] = value;
+    }
+
+    @Override
+    public void addValue(Long value) {
+        addValue(value.longValue());
+    }
+
+    @Override
+    public void addValues(Collection<Long> valuesPort) {
+        for (Long value : valuesPort) {
+            addValue(value.longValue());
+        }
+    }
+
+    /**
+     * Adds the values stored in another port to this port. If the other port is also
+     * a <code>LongPort</code>, the values are copied without boxing. Unlike generic
+     * ports, primitive values are always copied instead of shared, since copying a
+     * primitive array is as cheap as referencing it.
+     * @param port The port whose values are added to this port.
+     */
+    @Override
+    public void addValues(Port<Long> port) {
+        if (!(port instanceof LongPort)) {
+            for (int i = 0; i < port.size(); ++i) {
+                addValue(port.getValue(i).longValue());
+            }
+            return;
+        }
+        LongPort longPort = (LongPort) port;
+        if (longPort.size == 0) {
+            return;
+        }
+        if (size == 0 && dirtyPorts != null) {
+            dirtyPorts.add(this);
+        }
+        if (size + longPort.size > longs.length) {
+            longs = Arrays.copyOf(longs, Math.max(2 * longs.length, size + longPort.size));
+        }
+        System.arraycopy(longPort.longs, 0, longs, size, longPort.size);
+        size += longPort.size;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+* File: MessagePool.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.modeling;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Pool of reusable messages of a given type.
+ *
+ * An atomic model borrows messages from the pool in its output function and sends
+ * them through an output port attached to the pool (see
+ * {@link Port#setMessagePool(MessagePool)}). When the simulator clears that port at
+ * the end of the simulation step, the messages are returned to the pool, so they can
+ * be borrowed again in the next steps without allocating new objects.
+ *
+ * Pooling is opt-in: the models that receive pooled messages must not keep
+ * references to them after their transition functions, since the messages will be
+ * reused. Copy the message if it must be stored.
+ *
+ * The pool is synchronized, so it can be shared by several models executed in
+ * parallel (for instance, with <code>CoordinatorParallel</code>), although one pool
+ * per model avoids any contention.
+ *
+ * @param <T> Type of the messages.
+ */
+public class MessagePool<T> {
+
+    /**
+     * Creates new messages when the pool is empty.
+     */
+    protected Supplier<T> factory;
+    /**
+     * Maximum number of messages kept in the pool.
+     */
+    protected int capacity;
+    /**
+     * The messages available in the pool.
+     */
+    protected Object[] messages = new Object[16];
+    /**
+     * Number of messages available in the pool.
+     */
+    protected int size = 0;
+
+    /**
+     * Creates a new pool.
+     * @param factory Creates new messages when the pool is empty.
+     * @param capacity Maximum number of messages kept in the pool. Messages recycled
+     *                 when the pool is full are discarded.
+     */
+    public MessagePool(Supplier<T> factory, int capacity) {
+        this.factory = factory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a new pool without limit of capacity.
+     * @param factory Creates new messages when the pool is empty.
+     */
+    public MessagePool(Supplier<T> factory) {
+        this(factory, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Borrows a message from the pool, or creates a new one if the pool is empty.
+     * The content of the message is the one it had when it was recycled.
+     * @return A message.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T borrow() {
+        if (size == 0) {
+            return factory.get();
+        }
+        T message = (T) messages[--size];
+        messages[size] = null;
+        return message;
+    }
+
+    /**
+     * Returns a message to the pool.
+     * @param message The message to return.
+     */
+    public synchronized void recycle(T message) {
+        if (message == null || size >= capacity) {
+            return;
+        }
+        if (size == messages.length) {
+            messages = Arrays.copyOf(messages, 2 * size);
+        }
+        messages[size++] = message;
+    }
+
+    /**
+     * Gets the number of messages available in the pool.
+     * @return The number of messages available.
+     */
+    public synchronized int available() {
+        return size;
+    }
+}
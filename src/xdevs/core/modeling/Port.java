@@ -22,8 +22,11 @@
  */
 package xdevs.core.modeling;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 
 /** 
  * Class for the ports of the components in the DEVS formalism.
@@ -43,9 +46,40 @@ public class Port<E> {
      */
     protected String name;
     /**
-     * The values stored in the port.
+     * The first value stored in the port. Most ports carry a single value per step,
+     * so it is stored inline, without allocating the array of values.
      */
-    protected LinkedList<E> values = new LinkedList<>();
+    protected E firstValue = null;
+    /**
+     * The rest of values stored in the port. The array is reused across steps.
+     */
+    protected Object[] otherValues = new Object[0];
+    /**
+     * The number of values stored in the port.
+     */
+    protected int size = 0;
+    /**
+     * True if the array of values is shared with other ports. See
+     * {@link #addValues(Port)}.
+     */
+    protected boolean sharedValues = false;
+    /**
+     * The pool where the values are returned when the port is cleared, if any.
+     */
+    protected MessagePool<E> messagePool = null;
+    /**
+     * Read-only view of the values, created the first time it is requested.
+     */
+    protected Collection<E> valuesView = null;
+    /**
+     * The list where the port registers itself when it receives values, if any.
+     */
+    protected DirtyPortList dirtyPorts = null;
+    /**
+     * Index of the route of the port in the routing table of the simulator, or -1 if
+     * the port is not the source of any route.
+     */
+    protected int routeIndex = -1;
 
     /**
      * Constructor of the port.
@@ -71,10 +105,26 @@ public class Port<E> {
     }
 
     /**
-     * Empties the values stored in the port.
+     * Empties the values stored in the port. If the port has a pool of messages, the
+     * values are returned to the pool.
      */
     public void clear() {
-        values.clear();
+        if (messagePool != null) {
+            for (int i = 0; i < size; ++i) {
+                messagePool.recycle(getValue(i));
+            }
+        }
+        firstValue = null;
+        if (sharedValues) {
+            // Other ports may still reference the array, so it is released instead
+            otherValues = new Object[0];
+            sharedValues = false;
+        } else {
+            for (int i = 0; i < size - 1; ++i) {
+                otherValues[i] = null;
+            }
+        }
+        size = 0;
     }
 
     /**
@@ -82,7 +132,15 @@ public class Port<E> {
      * @return True if the port is empty.
      */
     public boolean isEmpty() {
-        return values.isEmpty();
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of values stored in the port.
+     * @return The number of values stored in the port.
+     */
+    public int size() {
+        return size;
     }
 
     /**
@@ -90,15 +148,35 @@ public class Port<E> {
      * @return The first value stored in the port.
      */
     public E getSingleValue() {
-        return values.element();
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return firstValue;
+    }
+
+    /**
+     * Returns a value stored in the port.
+     * @param index The position of the value.
+     * @return The value at the given position.
+     */
+    @SuppressWarnings("unchecked")
+    public E getValue(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (index == 0) ? firstValue : (E) otherValues[index - 1];
     }
 
     /**
-     * Returns the values stored in the port.
+     * Returns a read-only view of the values stored in the port. The view is reused,
+     * so it does not allocate memory, and it reflects the changes of the port.
      * @return The values stored in the port.
      */
     public Collection<E> getValues() {
-        return values;
+        if (valuesView == null) {
+            valuesView = new ValuesView();
+        }
+        return valuesView;
     }
 
     /**
@@ -106,7 +184,20 @@ public class Port<E> {
      * @param value The value to add to the port.
      */
     public void addValue(E value) {
-        values.add(value);
+        if (size == 0) {
+            if (dirtyPorts != null) {
+                dirtyPorts.add(this);
+            }
+            firstValue = value;
+        } else {
+            if (sharedValues || size > otherValues.length) {
+                // Copy-on-write if the array is shared
+                otherValues = Arrays.copyOf(otherValues, Math.max(4, 2 * otherValues.length));
+                sharedValues = false;
+            }
+            otherValues[size - 1] = value;
+        }
+        size++;
     }
 
     /**
@@ -114,7 +205,91 @@ public class Port<E> {
      * @param valuesPort The collection of values to add to the port.
      */
     public void addValues(Collection<E> valuesPort) {
-        this.values.addAll(valuesPort);
+        for (E value : valuesPort) {
+            addValue(value);
+        }
+    }
+
+    /**
+     * Adds the values stored in another port to this port.
+     * 
+     * If this port is empty, the values are not copied: both ports share the same
+     * array of values, which behaves as an immutable bag of messages for the rest of
+     * the simulation step. The array is copied only if one of the ports adds more
+     * values (copy-on-write), and it is released instead of reused when the ports are
+     * cleared. Therefore, an output port that feeds several couplings is not copied,
+     * whatever its fan-out.
+     * 
+     * @param port The port whose values are added to this port.
+     */
+    public void addValues(Port<E> port) {
+        int n = port.size();
+        if (n == 0) {
+            return;
+        }
+        if (size == 0 && canShareValues() && port.canShareValues()) {
+            if (dirtyPorts != null) {
+                dirtyPorts.add(this);
+            }
+            firstValue = port.firstValue;
+            if (n > 1) {
+                otherValues = port.otherValues;
+                sharedValues = true;
+                port.sharedValues = true;
+            }
+            size = n;
+            return;
+        }
+        for (int i = 0; i < n; ++i) {
+            addValue(port.getValue(i));
+        }
+    }
+
+    /**
+     * Checks if the values of the port are kept in the storage of this class, so they
+     * can be shared with other ports. Ports with a specialized storage must return
+     * false.
+     * @return true if the values can be shared.
+     */
+    protected boolean canShareValues() {
+        return true;
+    }
+
+    /**
+     * Sets the list where the port registers itself each time it goes from empty to
+     * non-empty, so the simulator only clears the ports that received values.
+     * @param dirtyPorts The list of dirty ports, or null to disable the tracking.
+     */
+    public void setDirtyPortList(DirtyPortList dirtyPorts) {
+        this.dirtyPorts = dirtyPorts;
+    }
+
+    /**
+     * Gets the index of the route of the port in the routing table of the simulator.
+     * @return The index of the route, or -1 if the port is not the source of any route.
+     */
+    public int getRouteIndex() {
+        return routeIndex;
+    }
+
+    /**
+     * Sets the index of the route of the port. It is set by the simulator when it
+     * compiles its routing table.
+     * @param routeIndex The index of the route, or -1 if the port is not the source of
+     * any route.
+     */
+    public void setRouteIndex(int routeIndex) {
+        this.routeIndex = routeIndex;
+    }
+
+    /**
+     * Attaches a pool of messages to the port. Every time the port is cleared, its
+     * values are returned to the pool. It is intended for the output ports of atomic
+     * models that borrow their messages from the pool in the output function.
+     * @param messagePool The pool of messages, or null to detach the current one.
+     */
+    public void setMessagePool(MessagePool<E> messagePool) {
+        this.messagePool = messagePool;
     }
 
     /**
@@ -141,4 +316,20 @@ public class Port<E> {
         }
         return sb.toString();
     }
+
+    /**
+     * Read-only list backed by the values of the port.
+     */
+    private class ValuesView extends AbstractList<E> implements RandomAccess {
+
+        @Override
+        public E get(int index) {
+            return getValue(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
@@ -34,8 +34,9 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
-import xdevs.core.modeling.Atomic;
+import xdevs.core.modeling.Component;
 import xdevs.core.modeling.Coupled;
+import xdevs.core.modeling.Port;
 import xdevs.core.simulation.distributed.CoordinatorDistributed;
 import xdevs.core.util.DevsLogger;
 
@@ -64,7 +65,39 @@ import xdevs.core.util.DevsLogger;
  * </pre>
  * 
  * The model is composed of atomic components and connections between them.
- * The model is executed by a distributed coordinator class.
+ * The model is executed by a distributed coordinator class. The hosts and ports can
+ * be assigned automatically with {@link DeploymentGenerator}.
+ * 
+ * A component can also be a whole coupled model, built from its XML element like the
+ * atomic ones, so a single node simulates the subtree with a local coordinator:
+ * <pre>
+ * {@code
+ * <coupled name="ef" class="xdevs.core.examples.efp.Ef" host="192.168.1.5" mainPort="5002" auxPort="6002" threads="2">
+ * 	<constructor-arg value="1.0"/>
+ * 	<constructor-arg value="100.0"/>
+ * </coupled>
+ * }
+ * </pre>
+ * The couplings inside the subtree stay in the memory of the node, only the
+ * connections between components of this model go through the network. The optional
+ * threads attribute sets the number of threads of the local coordinator.
+ * 
+ * Connections can declare their lookahead (see
+ * {@link xdevs.core.modeling.Coupling#getLookahead()}):
+ * <pre>
+ * {@code
+ * <connection componentFrom="processor" portFrom="oOut" componentTo="transducer" portTo="iSolved" lookahead="3.0"/>
+ * }
+ * </pre>
+ * If the root element has the attribute decentralized="true", the nodes synchronize
+ * themselves with null messages computed from these lookaheads, and the coordinator
+ * only starts the simulation, detects its end and finishes it (see
+ * {@link CoordinatorDistributed#setDecentralized(boolean)}).
+ * 
+ * The transport attribute of the root element selects how the messages are sent (see
+ * {@link xdevs.core.simulation.distributed.Transport}): auto, the default one, which
+ * uses shared memory between the nodes of the same host and TCP otherwise, tcp, or
+ * loopback, which runs the coordinator and all the nodes in the same process.
  */
 public class CoupledDistributed extends Coupled {
 
@@ -86,6 +119,18 @@ public class CoupledDistributed extends Coupled {
      * Auxiliary ports of the components.
      */
     protected HashMap<String, Integer> auxPorts = new HashMap<>();
+    /**
+     * Number of threads of the coupled components.
+     */
+    protected HashMap<String, Integer> threads = new HashMap<>();
+    /**
+     * If true, the model is simulated without a central barrier.
+     */
+    protected boolean decentralized = false;
+    /**
+     * Name of the transport of the messages.
+     */
+    protected String transport;
 
     /**
      * Constructor of the class.
@@ -97,6 +142,8 @@ public class CoupledDistributed extends Coupled {
         hosts.put(xmlCoupled.getAttribute("name"), xmlCoupled.getAttribute("host"));
         mainPorts.put(xmlCoupled.getAttribute("name"), Integer.parseInt(xmlCoupled.getAttribute("mainPort")));
         auxPorts.put(xmlCoupled.getAttribute("name"), Integer.parseInt(xmlCoupled.getAttribute("auxPort")));
+        decentralized = Boolean.parseBoolean(xmlCoupled.getAttribute("decentralized"));
+        transport = xmlCoupled.getAttribute("transport");
         // Creamos los distintos elementos
         NodeList xmlChildList = xmlCoupled.getChildNodes();
         for (int i = 0; i < xmlChildList.getLength(); ++i) {
@@ -104,12 +151,16 @@ public class CoupledDistributed extends Coupled {
             String nodeName = xmlNode.getNodeName();
             switch (nodeName) {
                 case "atomic":
+                case "coupled":
                     try {
                     Element xmlChild = (Element) xmlNode;
-                    Class<?> atomicClass = Class.forName(xmlChild.getAttribute("class"));
-                    Constructor<?> constructor = atomicClass.getConstructor(new Class[]{Class.forName("org.w3c.dom.Element")});
-                    Object atomicObject = constructor.newInstance(new Object[]{xmlChild});
-                    this.addComponent((Atomic) atomicObject);
+                    Class<?> componentClass = Class.forName(xmlChild.getAttribute("class"));
+                    Constructor<?> constructor = componentClass.getConstructor(new Class[]{Class.forName("org.w3c.dom.Element")});
+                    Object componentObject = constructor.newInstance(new Object[]{xmlChild});
+                    this.addComponent((Component) componentObject);
+                    if (xmlChild.hasAttribute("threads")) {
+                        threads.put(xmlChild.getAttribute("name"), Integer.parseInt(xmlChild.getAttribute("threads")));
+                    }
                     hosts.put(xmlChild.getAttribute("name"), xmlChild.getAttribute("host"));
                     mainPorts.put(xmlChild.getAttribute("name"), Integer.parseInt(xmlChild.getAttribute("mainPort")));
                     auxPorts.put(xmlChild.getAttribute("name"), Integer.parseInt(xmlChild.getAttribute("auxPort")));
@@ -123,7 +174,13 @@ public class CoupledDistributed extends Coupled {
                     String portFrom = xmlChild.getAttribute("portFrom");
                     String componentTo = xmlChild.getAttribute("componentTo");
                     String portTo = xmlChild.getAttribute("portTo");
-                    this.addCoupling(componentFrom, portFrom, componentTo, portTo);
+                    if (xmlChild.hasAttribute("lookahead")) {
+                        Port<?> pFrom = this.getComponentByName(componentFrom).getOutPort(portFrom);
+                        Port<?> pTo = this.getComponentByName(componentTo).getInPort(portTo);
+                        this.addCoupling(pFrom, pTo, Double.parseDouble(xmlChild.getAttribute("lookahead")));
+                    } else {
+                        this.addCoupling(componentFrom, portFrom, componentTo, portTo);
+                    }
                     break;
                 default:
                     break;
@@ -141,6 +198,32 @@ public class CoupledDistributed extends Coupled {
         return hosts.get(componentName);
     }
 
+    /**
+     * Get the number of threads of the local coordinator of a coupled component.
+     * @param componentName Name of the component.
+     * @return Number of threads, 1 by default.
+     */
+    public int getThreads(String componentName) {
+        return threads.getOrDefault(componentName, 1);
+    }
+
+    /**
+     * Tells if the model is simulated without a central barrier, exchanging null
+     * messages between the nodes.
+     * @return true if the simulation is decentralized.
+     */
+    public boolean isDecentralized() {
+        return decentralized;
+    }
+
+    /**
+     * Get the name of the transport of the messages.
+     * @return Name of the transport, empty for the default one.
+     */
+    public String getTransport() {
+        return transport;
+    }
+
     /**
      * Get the main port of a component.
      * @param componentName Name of the component.
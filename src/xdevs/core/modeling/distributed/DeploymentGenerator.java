@@ -0,0 +1,164 @@
+/*
+* File: DeploymentGenerator.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.modeling.distributed;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import xdevs.core.simulation.partition.GraphPartitioner;
+import xdevs.core.util.DevsLogger;
+
+/**
+ * Generates the deployment of a distributed coupled model.
+ *
+ * Given the XML definition of a model (see {@link CoupledDistributed}) and a list of
+ * hosts, the components are split among the hosts with a {@link GraphPartitioner},
+ * so the connections between different hosts are minimized, and the host, mainPort and
+ * auxPort attributes of the XML elements are rewritten. The coupled model is deployed
+ * in the first host with the base ports, and the components of each host take
+ * consecutive ports after them.
+ */
+public class DeploymentGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(DeploymentGenerator.class.getName());
+
+    protected String[] hosts;
+    protected int mainPort;
+    protected int auxPort;
+    protected GraphPartitioner partitioner = new GraphPartitioner();
+
+    /**
+     * Creates a new deployment generator.
+     * @param hosts Hosts where the model is deployed.
+     * @param mainPort Base main port.
+     * @param auxPort Base auxiliary port.
+     */
+    public DeploymentGenerator(String[] hosts, int mainPort, int auxPort) {
+        this.hosts = hosts;
+        this.mainPort = mainPort;
+        this.auxPort = auxPort;
+    }
+
+    /**
+     * Creates a new deployment generator with base ports 5000 and 6000.
+     * @param hosts Hosts where the model is deployed.
+     */
+    public DeploymentGenerator(String[] hosts) {
+        this(hosts, 5000, 6000);
+    }
+
+    public GraphPartitioner getPartitioner() {
+        return partitioner;
+    }
+
+    /**
+     * Sets the partitioner, for instance with the weights of a profiling run.
+     * @param partitioner The graph partitioner.
+     */
+    public void setPartitioner(GraphPartitioner partitioner) {
+        this.partitioner = partitioner;
+    }
+
+    /**
+     * Assigns a host and ports to the coupled model and its components.
+     * @param xmlCoupled XML element with the model definition, modified in place.
+     */
+    public void deploy(Element xmlCoupled) {
+        xmlCoupled.setAttribute("host", hosts[0]);
+        xmlCoupled.setAttribute("mainPort", String.valueOf(mainPort));
+        xmlCoupled.setAttribute("auxPort", String.valueOf(auxPort));
+        int[] parts = partitioner.partition(xmlCoupled, hosts.length);
+        ArrayList<Element> xmlComponents = new ArrayList<>();
+        NodeList xmlChildList = xmlCoupled.getChildNodes();
+        for (int i = 0; i < xmlChildList.getLength(); ++i) {
+            Node xmlNode = xmlChildList.item(i);
+            if (xmlNode.getNodeName().equals("atomic") || xmlNode.getNodeName().equals("coupled")) {
+                xmlComponents.add((Element) xmlNode);
+            }
+        }
+        int[] numComponents = new int[hosts.length];
+        for (int i = 0; i < xmlComponents.size(); ++i) {
+            Element xmlComponent = xmlComponents.get(i);
+            int host = parts[i];
+            numComponents[host]++;
+            xmlComponent.setAttribute("host", hosts[host]);
+            xmlComponent.setAttribute("mainPort", String.valueOf(mainPort + numComponents[host]));
+            xmlComponent.setAttribute("auxPort", String.valueOf(auxPort + numComponents[host]));
+            LOGGER.fine(xmlComponent.getAttribute("name") + " -> " + hosts[host]);
+        }
+    }
+
+    /**
+     * Rewrites the deployment of an XML model file.
+     * @param args input file, output file, and one or more hosts. Optionally,
+     * --weights=path with the output of a
+     * {@link xdevs.core.simulation.profile.CoordinatorProfile} run.
+     */
+    public static void main(String[] args) {
+        DevsLogger.setup(Level.INFO);
+        ArrayList<String> positional = new ArrayList<>();
+        String weights = null;
+        for (String arg : args) {
+            if (arg.startsWith("--weights=")) {
+                weights = arg.split("=")[1];
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() < 3) {
+            System.err.println("Usage: DeploymentGenerator input.xml output.xml host1 [host2 ...] [--weights=profile]");
+            return;
+        }
+        try {
+            Document xmlDocument = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(new File(positional.get(0)));
+            Element xmlCoupled = (Element) xmlDocument.getElementsByTagName("coupled").item(0);
+            String[] hosts = positional.subList(2, positional.size()).toArray(new String[0]);
+            DeploymentGenerator generator = new DeploymentGenerator(hosts);
+            if (weights != null) {
+                generator.getPartitioner().loadWeights(weights);
+            }
+            generator.deploy(xmlCoupled);
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.transform(new DOMSource(xmlDocument), new StreamResult(new File(positional.get(1))));
+            LOGGER.info("Deployment saved in " + positional.get(1));
+        } catch (IOException | ParserConfigurationException | SAXException | TransformerException ex) {
+            LOGGER.log(Level.SEVERE, null, ex);
+        }
+    }
+}
@@ -22,7 +22,9 @@
  */
 package xdevs.core.simulation;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -32,6 +34,7 @@ import xdevs.core.modeling.Atomic;
 import xdevs.core.modeling.Component;
 import xdevs.core.modeling.Coupled;
 import xdevs.core.modeling.Coupling;
+import xdevs.core.modeling.DirtyPortList;
 import xdevs.core.modeling.Port;
 import xdevs.core.util.Constants;
 import xdevs.core.util.DevsLogger;
@@ -54,7 +57,83 @@ public class Coordinator extends AbstractSimulator {
     /**
      * The simulators of the components of the model.
      */
-    protected LinkedList<AbstractSimulator> simulators = new LinkedList<>();
+    protected ArrayList<AbstractSimulator> simulators = new ArrayList<>();
+    /**
+     * The scheduler with the time of next event of each simulator. The handle of a
+     * simulator in the scheduler is its position in the list of simulators.
+     */
+    protected EventScheduler scheduler = new EventScheduler();
+    /**
+     * If true, only the imminent simulators and the simulators that receive input are
+     * visited in each simulation step. See {@link #setActivityDriven(boolean)}.
+     */
+    protected boolean activityDriven = false;
+    /**
+     * Handles of the simulators that are active (imminent or influenced) in the current
+     * simulation step, used in activity-driven mode.
+     */
+    protected int[] activeHandles = new int[0];
+    /**
+     * Number of valid entries in <code>activeHandles</code>.
+     */
+    protected int numActiveHandles = 0;
+    /**
+     * For each handle, true if the simulator is already in <code>activeHandles</code>.
+     */
+    protected boolean[] activeFlags = new boolean[0];
+    /**
+     * Auxiliary array to collect the imminent handles from the scheduler.
+     */
+    protected int[] imminentHandles = new int[0];
+    /**
+     * For each handle, the IC and EOC couplings that leave the associated component.
+     * Used in activity-driven mode.
+     */
+    protected Coupling<?>[][] outCouplings = new Coupling<?>[0][];
+    /**
+     * For each handle, the handles of the components reached by the couplings in
+     * <code>outCouplings</code>, or -1 for EOC couplings.
+     */
+    protected int[][] outTargets = new int[0][];
+    /**
+     * The EIC couplings of the model. Used in activity-driven mode.
+     */
+    protected Coupling<?>[] eicCouplings = new Coupling<?>[0];
+    /**
+     * The handles of the components reached by the couplings in <code>eicCouplings</code>.
+     */
+    protected int[] eicTargets = new int[0];
+    /**
+     * The ports that have received values in the current simulation step. The list is
+     * created by the root coordinator and shared with the rest of the hierarchy.
+     */
+    protected DirtyPortList dirtyPorts = null;
+    /**
+     * True if this coordinator created the list of dirty ports, and therefore it is
+     * in charge of clearing it at the end of each step.
+     */
+    protected boolean ownsDirtyPorts = false;
+    /**
+     * The parent coordinator, or null if this is the root coordinator.
+     */
+    protected Coordinator parent = null;
+    /**
+     * The handle of this coordinator in its parent coordinator.
+     */
+    protected int parentHandle = -1;
+    /**
+     * If true, values are propagated through a routing table compiled by the root
+     * coordinator. See {@link #setRoutingEnabled(boolean)}.
+     */
+    protected boolean routingEnabled = true;
+    /**
+     * The routing table of the hierarchy. Only the root coordinator has one.
+     */
+    protected RoutingTable routingTable = null;
+    /**
+     * Number of entries of the list of dirty ports already routed in the current step.
+     */
+    protected int routedPorts = 0;
     /**
      * The total number of iterations to simulate.
      */
@@ -125,10 +204,29 @@ public class Coordinator extends AbstractSimulator {
 
     @Override
     public void initialize() {
+        if (dirtyPorts == null) {
+            dirtyPorts = new DirtyPortList();
+            ownsDirtyPorts = true;
+        }
+        trackPorts(model);
         this.buildHierarchy();
-        simulators.forEach((simulator) -> {
+        for (int handle = 0; handle < simulators.size(); ++handle) {
+            AbstractSimulator simulator = simulators.get(handle);
+            attach(simulator);
+            if (simulator instanceof Coordinator) {
+                ((Coordinator) simulator).parent = this;
+                ((Coordinator) simulator).parentHandle = handle;
+            }
             simulator.initialize();
-        });
+        }
+        buildScheduler();
+        if (activityDriven) {
+            buildActivityIndex();
+        }
+        if (ownsDirtyPorts && routingEnabled) {
+            routingTable = new RoutingTable(this);
+            routedPorts = 0;
+        }
         tL = clock.getTime();
         tN = tL + ta();
     }
@@ -148,22 +246,205 @@ public class Coordinator extends AbstractSimulator {
         return simulators;
     }
 
-    @Override
-    public double ta() {
-        double tn = Constants.INFINITY;
-        for (AbstractSimulator simulator : simulators) {
-            if (simulator.getTN() < tn) {
-                tn = simulator.getTN();
+    /**
+     * Prepares a child simulator before its initialization. Child coordinators share
+     * the list of dirty ports and the execution mode of this coordinator, whereas the
+     * ports of the atomic models are registered in the list of dirty ports.
+     * 
+     * @param simulator the child simulator.
+     */
+    protected void attach(AbstractSimulator simulator) {
+        if (simulator instanceof Coordinator) {
+            Coordinator coordinator = (Coordinator) simulator;
+            coordinator.dirtyPorts = dirtyPorts;
+            coordinator.ownsDirtyPorts = false;
+            coordinator.setRoutingEnabled(routingEnabled);
+            coordinator.setActivityDriven(activityDriven);
+        } else {
+            trackPorts(simulator.getModel());
+        }
+    }
+
+    /**
+     * Registers the list of dirty ports of this coordinator in all the ports of a
+     * component.
+     * @param component the component.
+     */
+    protected void trackPorts(Component component) {
+        for (Port<?> port : component.getInPorts()) {
+            port.setDirtyPortList(dirtyPorts);
+        }
+        for (Port<?> port : component.getOutPorts()) {
+            port.setDirtyPortList(dirtyPorts);
+        }
+    }
+
+    /**
+     * Fills the scheduler with the time of next event of all the simulators. It must be
+     * called every time the list of simulators changes.
+     */
+    protected void buildScheduler() {
+        scheduler.clear();
+        for (int handle = 0; handle < simulators.size(); ++handle) {
+            scheduler.schedule(handle, simulators.get(handle).getTN());
+        }
+    }
+
+    /**
+     * Updates the scheduler with the current time of next event of all the simulators.
+     * Simulators whose time of next event did not change are not moved in the scheduler.
+     */
+    protected void updateScheduler() {
+        for (int handle = 0; handle < simulators.size(); ++handle) {
+            scheduler.schedule(handle, simulators.get(handle).getTN());
+        }
+    }
+
+    /**
+     * Enables or disables the activity-driven execution mode. It must be called before
+     * {@link #initialize()}, and it is inherited by the coordinators of the coupled
+     * components.
+     * 
+     * In activity-driven mode, each step only visits the imminent simulators (those
+     * whose time of next event is equal to the current time) and the simulators that
+     * receive input through the couplings. Coupled components without activity are
+     * skipped as a whole, so the cost of a step depends on the activity of the model
+     * instead of its size.
+     * 
+     * @param activityDriven true to enable the activity-driven mode.
+     */
+    public void setActivityDriven(boolean activityDriven) {
+        this.activityDriven = activityDriven;
+    }
+
+    /**
+     * Checks if the activity-driven execution mode is enabled.
+     * @return true if the activity-driven mode is enabled.
+     */
+    public boolean isActivityDriven() {
+        return activityDriven;
+    }
+
+    /**
+     * Enables or disables the precompiled routing of values. It must be called before
+     * {@link #initialize()}, and it is inherited by the coordinators of the coupled
+     * components. It is enabled by default.
+     * 
+     * When enabled, the root coordinator compiles all the couplings of the hierarchy
+     * into a {@link RoutingTable}, which sends the values of the atomic models directly
+     * to their final destinations. The ports of the intermediate coupled models remain
+     * empty during the simulation.
+     * 
+     * @param routingEnabled true to enable the routing table.
+     */
+    public void setRoutingEnabled(boolean routingEnabled) {
+        this.routingEnabled = routingEnabled;
+    }
+
+    /**
+     * Checks if the precompiled routing of values is enabled.
+     * @return true if the routing table is enabled.
+     */
+    public boolean isRoutingEnabled() {
+        return routingEnabled;
+    }
+
+    /**
+     * Builds the auxiliary structures used in activity-driven mode: the couplings that
+     * leave each component and the handles of the components they reach.
+     */
+    protected void buildActivityIndex() {
+        int numSimulators = simulators.size();
+        activeHandles = new int[numSimulators];
+        activeFlags = new boolean[numSimulators];
+        imminentHandles = new int[numSimulators];
+        numActiveHandles = 0;
+        HashMap<Component, Integer> handles = new HashMap<>();
+        for (int handle = 0; handle < numSimulators; ++handle) {
+            handles.put(simulators.get(handle).getModel(), handle);
+        }
+        ArrayList<ArrayList<Coupling<?>>> couplings = new ArrayList<>();
+        ArrayList<ArrayList<Integer>> targets = new ArrayList<>();
+        for (int handle = 0; handle < numSimulators; ++handle) {
+            couplings.add(new ArrayList<>());
+            targets.add(new ArrayList<>());
+        }
+        for (Coupling<?> c : model.getIC()) {
+            Integer from = handles.get(c.getPortFrom().getParent());
+            Integer to = handles.get(c.getPortTo().getParent());
+            if (from != null && to != null) {
+                couplings.get(from).add(c);
+                targets.get(from).add(to);
+            }
+        }
+        for (Coupling<?> c : model.getEOC()) {
+            Integer from = handles.get(c.getPortFrom().getParent());
+            if (from != null) {
+                couplings.get(from).add(c);
+                targets.get(from).add(-1);
             }
         }
-        return tn - clock.getTime();
+        outCouplings = new Coupling<?>[numSimulators][];
+        outTargets = new int[numSimulators][];
+        for (int handle = 0; handle < numSimulators; ++handle) {
+            outCouplings[handle] = couplings.get(handle).toArray(new Coupling<?>[0]);
+            outTargets[handle] = targets.get(handle).stream().mapToInt(Integer::intValue).toArray();
+        }
+        ArrayList<Coupling<?>> eic = new ArrayList<>();
+        ArrayList<Integer> eicTo = new ArrayList<>();
+        for (Coupling<?> c : model.getEIC()) {
+            Integer to = handles.get(c.getPortTo().getParent());
+            if (to != null) {
+                eic.add(c);
+                eicTo.add(to);
+            }
+        }
+        eicCouplings = eic.toArray(new Coupling<?>[0]);
+        eicTargets = eicTo.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Marks a simulator as active in the current step, in activity-driven mode.
+     * @param handle handle of the simulator.
+     */
+    protected void activate(int handle) {
+        if (!activeFlags[handle]) {
+            activeFlags[handle] = true;
+            activeHandles[numActiveHandles++] = handle;
+        }
+    }
+
+    /**
+     * Marks as active all the simulators whose time of next event is equal to the
+     * current time, in activity-driven mode.
+     */
+    protected void activateImminents() {
+        if (scheduler.nextTime() != clock.getTime()) {
+            return;
+        }
+        int numImminents = scheduler.imminents(clock.getTime(), imminentHandles);
+        for (int i = 0; i < numImminents; ++i) {
+            activate(imminentHandles[i]);
+        }
+    }
+
+    @Override
+    public double ta() {
+        return scheduler.nextTime() - clock.getTime();
     }
 
     @Override
     public void lambda() {
-        simulators.forEach((simulator) -> {
-            simulator.lambda();
-        });
+        if (activityDriven) {
+            activateImminents();
+            for (int i = 0; i < numActiveHandles; ++i) {
+                simulators.get(activeHandles[i]).lambda();
+            }
+        } else {
+            simulators.forEach((simulator) -> {
+                simulator.lambda();
+            });
+        }
         propagateOutput();
     }
 
@@ -175,6 +456,28 @@ public class Coordinator extends AbstractSimulator {
      * to the previuous output ports.
      */
     public void propagateOutput() {
+        if (routingEnabled) {
+            route();
+            return;
+        }
+        if (activityDriven) {
+            // Only the imminent simulators, activated in lambda, can have output values
+            int numImminents = numActiveHandles;
+            for (int i = 0; i < numImminents; ++i) {
+                int handle = activeHandles[i];
+                Coupling<?>[] couplings = outCouplings[handle];
+                int[] targets = outTargets[handle];
+                for (int j = 0; j < couplings.length; ++j) {
+                    if (!couplings[j].getPortFrom().isEmpty()) {
+                        couplings[j].propagateValues();
+                        if (targets[j] >= 0) {
+                            activate(targets[j]);
+                        }
+                    }
+                }
+            }
+            return;
+        }
         LinkedList<Coupling<?>> ic = model.getIC();
         ic.forEach((c) -> {
             c.propagateValues();
@@ -188,10 +491,26 @@ public class Coordinator extends AbstractSimulator {
 
     @Override
     public void deltfcn() {
+        if (activityDriven) {
+            // Imminents are activated again in case lambda was not called (input injection)
+            activateImminents();
+            propagateInput();
+            for (int i = 0; i < numActiveHandles; ++i) {
+                int handle = activeHandles[i];
+                AbstractSimulator simulator = simulators.get(handle);
+                simulator.deltfcn();
+                scheduler.schedule(handle, simulator.getTN());
+            }
+            tL = clock.getTime();
+            tN = tL + ta();
+            return;
+        }
         propagateInput();
-        simulators.forEach((simulator) -> {
+        for (int handle = 0; handle < simulators.size(); ++handle) {
+            AbstractSimulator simulator = simulators.get(handle);
             simulator.deltfcn();
-        });
+            scheduler.schedule(handle, simulator.getTN());
+        }
         tL = clock.getTime();
         tN = tL + ta();
     }
@@ -204,27 +523,67 @@ public class Coordinator extends AbstractSimulator {
      * to the previuous input ports.
      */
     public void propagateInput() {
+        if (routingEnabled) {
+            route();
+            return;
+        }
+        if (activityDriven) {
+            for (int i = 0; i < eicCouplings.length; ++i) {
+                if (!eicCouplings[i].getPortFrom().isEmpty()) {
+                    eicCouplings[i].propagateValues();
+                    activate(eicTargets[i]);
+                }
+            }
+            return;
+        }
         LinkedList<Coupling<?>> eic = model.getEIC();
         eic.forEach((c) -> {
             c.propagateValues();
         });
     }
 
+    /**
+     * Propagates the values of the ports filled since the last call through the
+     * routing table. Only the root coordinator routes values, the rest of coordinators
+     * have nothing to propagate.
+     */
+    protected void route() {
+        if (routingTable != null) {
+            routedPorts = routingTable.propagate(dirtyPorts, routedPorts, activityDriven);
+        }
+    }
+
+    /**
+     * Clears the ports that received values in the current step. Only the ports
+     * registered in the list of dirty ports are visited, so the cost depends on the
+     * number of messages instead of the size of the model. Child coordinators share
+     * the list of the root coordinator, which is the only one that empties it.
+     */
     @Override
     public void clear() {
-        simulators.forEach((simulator) -> {
-            simulator.clear();
-        });
-        Collection<Port<?>> inPorts;
-        inPorts = model.getInPorts();
-        inPorts.forEach((port) -> {
-            port.clear();
-        });
-        Collection<Port<?>> outPorts;
-        outPorts = model.getOutPorts();
-        outPorts.forEach((port) -> {
-            port.clear();
-        });
+        if (activityDriven) {
+            deactivate();
+        }
+        if (ownsDirtyPorts) {
+            dirtyPorts.clear();
+            routedPorts = 0;
+        }
+    }
+
+    /**
+     * Resets the set of active simulators of this coordinator and of its active child
+     * coordinators, in activity-driven mode.
+     */
+    protected void deactivate() {
+        for (int i = 0; i < numActiveHandles; ++i) {
+            int handle = activeHandles[i];
+            AbstractSimulator simulator = simulators.get(handle);
+            if (simulator instanceof Coordinator) {
+                ((Coordinator) simulator).deactivate();
+            }
+            activeFlags[handle] = false;
+        }
+        numActiveHandles = 0;
     }
 
     /**
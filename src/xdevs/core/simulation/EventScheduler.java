@@ -0,0 +1,276 @@
+/*
+* File: EventScheduler.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation;
+
+import java.util.Arrays;
+
+import xdevs.core.util.Constants;
+
+/**
+ * Indexed binary min-heap used to schedule the next event of a set of simulators.
+ *
+ * Each simulator is identified by an integer handle, usually its position in the
+ * list of simulators of the coordinator. The scheduler stores the time of next
+ * event of every handle, so the imminent time is obtained in O(1) and every
+ * change of a time of next event (increase or decrease) costs O(log n).
+ */
+public class EventScheduler {
+
+    /**
+     * Heap of handles, ordered by their time of next event.
+     */
+    protected int[] heap;
+    /**
+     * Position of each handle inside the heap, or -1 if the handle is not scheduled.
+     */
+    protected int[] positions;
+    /**
+     * Time of next event of each handle.
+     */
+    protected double[] keys;
+    /**
+     * Number of handles currently scheduled.
+     */
+    protected int size = 0;
+    /**
+     * Auxiliary stack used to traverse the heap when collecting imminent handles.
+     */
+    private int[] stack = new int[0];
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param capacity initial number of handles.
+     */
+    public EventScheduler(int capacity) {
+        capacity = Math.max(capacity, 1);
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Creates a new empty scheduler.
+     */
+    public EventScheduler() {
+        this(16);
+    }
+
+    /**
+     * Schedules a handle at the given time of next event. If the handle is already
+     * scheduled, its time is updated (increase or decrease key).
+     *
+     * @param handle handle of the simulator.
+     * @param tN time of next event of the simulator.
+     */
+    public void schedule(int handle, double tN) {
+        if (handle >= positions.length) {
+            grow(handle + 1);
+        }
+        int pos = positions[handle];
+        if (pos < 0) {
+            keys[handle] = tN;
+            heap[size] = handle;
+            positions[handle] = size;
+            siftUp(size++);
+        } else if (tN < keys[handle]) {
+            keys[handle] = tN;
+            siftUp(pos);
+        } else if (tN > keys[handle]) {
+            keys[handle] = tN;
+            siftDown(pos);
+        }
+    }
+
+    /**
+     * Removes a handle from the scheduler.
+     *
+     * @param handle handle of the simulator.
+     */
+    public void unschedule(int handle) {
+        if (handle >= positions.length || positions[handle] < 0) {
+            return;
+        }
+        int pos = positions[handle];
+        positions[handle] = -1;
+        size--;
+        if (pos == size) {
+            return;
+        }
+        int last = heap[size];
+        heap[pos] = last;
+        positions[last] = pos;
+        siftDown(pos);
+        siftUp(positions[last]);
+    }
+
+    /**
+     * Checks if a handle is scheduled.
+     *
+     * @param handle handle of the simulator.
+     * @return true if the handle is scheduled, false otherwise.
+     */
+    public boolean isScheduled(int handle) {
+        return handle < positions.length && positions[handle] >= 0;
+    }
+
+    /**
+     * Gets the time of next event stored for a handle.
+     *
+     * @param handle handle of the simulator.
+     * @return the time of next event of the handle, or infinity if it is not scheduled.
+     */
+    public double getTN(int handle) {
+        return isScheduled(handle) ? keys[handle] : Constants.INFINITY;
+    }
+
+    /**
+     * Gets the handle with the minimum time of next event.
+     *
+     * @return the imminent handle, or -1 if the scheduler is empty.
+     */
+    public int peek() {
+        return (size > 0) ? heap[0] : -1;
+    }
+
+    /**
+     * Gets the minimum time of next event.
+     *
+     * @return the minimum time of next event, or infinity if the scheduler is empty.
+     */
+    public double nextTime() {
+        return (size > 0) ? keys[heap[0]] : Constants.INFINITY;
+    }
+
+    /**
+     * Collects all the handles whose time of next event is lower or equal than the
+     * given time. Only the branches of the heap that contain such handles are
+     * visited, so the cost is proportional to the number of imminent handles.
+     *
+     * @param time the current simulation time.
+     * @param handles array where the imminent handles are stored. It must be able to
+     *                hold all the scheduled handles.
+     * @return the number of imminent handles stored in <code>handles</code>.
+     */
+    public int imminents(double time, int[] handles) {
+        if (size == 0 || keys[heap[0]] > time) {
+            return 0;
+        }
+        if (stack.length < size) {
+            stack = new int[heap.length];
+        }
+        int count = 0;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int pos = stack[--top];
+            handles[count++] = heap[pos];
+            int child = 2 * pos + 1;
+            if (child < size && keys[heap[child]] <= time) {
+                stack[top++] = child;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] <= time) {
+                stack[top++] = child + 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of scheduled handles.
+     *
+     * @return the number of scheduled handles.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the handles from the scheduler.
+     */
+    public void clear() {
+        for (int i = 0; i < size; ++i) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves up the handle at the given heap position until the heap is ordered.
+     * @param pos heap position.
+     */
+    private void siftUp(int pos) {
+        int handle = heap[pos];
+        double key = keys[handle];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentHandle = heap[parent];
+            if (keys[parentHandle] <= key) {
+                break;
+            }
+            heap[pos] = parentHandle;
+            positions[parentHandle] = pos;
+            pos = parent;
+        }
+        heap[pos] = handle;
+        positions[handle] = pos;
+    }
+
+    /**
+     * Moves down the handle at the given heap position until the heap is ordered.
+     * @param pos heap position.
+     */
+    private void siftDown(int pos) {
+        int handle = heap[pos];
+        double key = keys[handle];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int childHandle = heap[child];
+            if (key <= keys[childHandle]) {
+                break;
+            }
+            heap[pos] = childHandle;
+            positions[childHandle] = pos;
+            pos = child;
+        }
+        heap[pos] = handle;
+        positions[handle] = pos;
+    }
+
+    /**
+     * Enlarges the internal arrays to hold at least the given number of handles.
+     * @param minCapacity minimum number of handles.
+     */
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, 2 * positions.length);
+        int oldCapacity = positions.length;
+        heap = Arrays.copyOf(heap, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        Arrays.fill(positions, oldCapacity, capacity, -1);
+    }
+}
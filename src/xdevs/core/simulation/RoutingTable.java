@@ -0,0 +1,238 @@
+/*
+* File: RoutingTable.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+
+import xdevs.core.modeling.Component;
+import xdevs.core.modeling.Coupled;
+import xdevs.core.modeling.Coupling;
+import xdevs.core.modeling.DirtyPortList;
+import xdevs.core.modeling.Port;
+
+/**
+ * Precompiled routes between the ports of a model hierarchy.
+ *
+ * The IC, EIC and EOC couplings of all the coupled models are compiled into flat
+ * arrays that map every source port (output ports of the atomic models and input
+ * ports of the root model) to its final destinations (input ports of the atomic
+ * models and output ports of the root model). Values are therefore copied once per
+ * destination, and the intermediate ports of the coupled models are never used.
+ *
+ * If a destination is reached through several paths, it appears several times in
+ * the route, so it receives the values once per path as with the couplings.
+ *
+ * Each source port stores the index of its route (see {@link Port#getRouteIndex()}),
+ * so the ports registered in the list of dirty ports are routed without any lookup.
+ */
+public class RoutingTable {
+
+    /**
+     * The source ports.
+     */
+    protected Port<?>[] sources;
+    /**
+     * For each source port, the indexes of its destinations in <code>destinations</code>.
+     */
+    protected int[][] routes;
+    /**
+     * The destination ports.
+     */
+    protected Port<?>[] destinations;
+    /**
+     * For each destination, the coordinator of the atomic model that owns it, or null
+     * for the output ports of the root model.
+     */
+    protected Coordinator[] receivers;
+    /**
+     * For each destination, the handle of the simulator of its atomic model in the
+     * coordinator stored in <code>receivers</code>.
+     */
+    protected int[] receiverHandles;
+
+    /**
+     * Compiles the routes of the hierarchy of simulators of a root coordinator. It
+     * must be called once the hierarchy has been built.
+     *
+     * @param root the root coordinator.
+     */
+    public RoutingTable(Coordinator root) {
+        HashMap<Port<?>, ArrayList<Port<?>>> edges = new HashMap<>();
+        HashMap<Port<?>, Integer> destinationIndex = new HashMap<>();
+        ArrayList<Port<?>> destinationList = new ArrayList<>();
+        ArrayList<Coordinator> receiverList = new ArrayList<>();
+        ArrayList<Integer> receiverHandleList = new ArrayList<>();
+        ArrayList<Port<?>> sourceList = new ArrayList<>();
+        explore(root, edges, destinationIndex, destinationList, receiverList, receiverHandleList, sourceList);
+        // Inputs of the root model are sources, and its outputs are destinations
+        Coupled rootModel = root.getModel();
+        sourceList.addAll(rootModel.getInPorts());
+        for (Port<?> port : rootModel.getOutPorts()) {
+            destinationIndex.put(port, destinationList.size());
+            destinationList.add(port);
+            receiverList.add(null);
+            receiverHandleList.add(-1);
+        }
+
+        ArrayList<Port<?>> usedSources = new ArrayList<>();
+        ArrayList<int[]> routeList = new ArrayList<>();
+        ArrayDeque<Port<?>> pending = new ArrayDeque<>();
+        // Indexes left by a previous table of the same model
+        for (Port<?> destination : destinationList) {
+            destination.setRouteIndex(-1);
+        }
+        for (Port<?> source : sourceList) {
+            int[] route = resolve(source, edges, destinationIndex, pending);
+            source.setRouteIndex(-1);
+            if (route.length > 0) {
+                source.setRouteIndex(usedSources.size());
+                usedSources.add(source);
+                routeList.add(route);
+            }
+        }
+        sources = usedSources.toArray(new Port<?>[0]);
+        routes = routeList.toArray(new int[0][]);
+        destinations = destinationList.toArray(new Port<?>[0]);
+        receivers = receiverList.toArray(new Coordinator[0]);
+        receiverHandles = receiverHandleList.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Traverses the hierarchy of simulators, collecting the couplings of every coupled
+     * model, the output ports of the atomic models as sources, and their input ports
+     * as destinations.
+     */
+    private void explore(Coordinator coordinator, HashMap<Port<?>, ArrayList<Port<?>>> edges,
+            HashMap<Port<?>, Integer> destinationIndex, ArrayList<Port<?>> destinationList,
+            ArrayList<Coordinator> receiverList, ArrayList<Integer> receiverHandleList,
+            ArrayList<Port<?>> sourceList) {
+        Coupled model = coordinator.getModel();
+        addEdges(model.getIC(), edges);
+        addEdges(model.getEIC(), edges);
+        addEdges(model.getEOC(), edges);
+        for (int handle = 0; handle < coordinator.simulators.size(); ++handle) {
+            AbstractSimulator simulator = coordinator.simulators.get(handle);
+            if (simulator instanceof Coordinator) {
+                explore((Coordinator) simulator, edges, destinationIndex, destinationList, receiverList,
+                        receiverHandleList, sourceList);
+            } else {
+                Component component = simulator.getModel();
+                for (Port<?> port : component.getInPorts()) {
+                    destinationIndex.put(port, destinationList.size());
+                    destinationList.add(port);
+                    receiverList.add(coordinator);
+                    receiverHandleList.add(handle);
+                }
+                sourceList.addAll(component.getOutPorts());
+            }
+        }
+    }
+
+    /**
+     * Computes the final destinations reached from a port, following the couplings
+     * through the ports of the intermediate coupled models.
+     */
+    private int[] resolve(Port<?> source, HashMap<Port<?>, ArrayList<Port<?>>> edges,
+            HashMap<Port<?>, Integer> destinationIndex, ArrayDeque<Port<?>> pending) {
+        int[] route = new int[0];
+        int length = 0;
+        pending.push(source);
+        while (!pending.isEmpty()) {
+            ArrayList<Port<?>> next = edges.get(pending.pop());
+            if (next == null) {
+                continue;
+            }
+            for (Port<?> portTo : next) {
+                Integer index = destinationIndex.get(portTo);
+                if (index == null) {
+                    pending.push(portTo);
+                } else {
+                    if (length == route.length) {
+                        route = Arrays.copyOf(route, Math.max(4, 2 * length));
+                    }
+                    route[length++] = index;
+                }
+            }
+        }
+        return (length == route.length) ? route : Arrays.copyOf(route, length);
+    }
+
+    private void addEdges(LinkedList<Coupling<?>> couplings, HashMap<Port<?>, ArrayList<Port<?>>> edges) {
+        for (Coupling<?> c : couplings) {
+            edges.computeIfAbsent(c.getPortFrom(), k -> new ArrayList<>()).add(c.getPortTo());
+        }
+    }
+
+    /**
+     * Propagates the values of the source ports that have been registered in the list
+     * of dirty ports since the last call.
+     *
+     * @param dirtyPorts the list of dirty ports of the root coordinator.
+     * @param first the position of the first port in the list not yet routed.
+     * @param activate if true, the simulators that receive values are activated in
+     *                 their coordinators (activity-driven mode).
+     * @return the position of the first port in the list not yet routed.
+     */
+    public int propagate(DirtyPortList dirtyPorts, int first, boolean activate) {
+        int last = dirtyPorts.size();
+        // Ports registered while routing are after last, they are routed in the next call
+        Port<?>[] dirty = dirtyPorts.getPorts();
+        for (int i = first; i < last; ++i) {
+            int source = dirty[i].getRouteIndex();
+            if (source < 0) {
+                continue;
+            }
+            Port<?> portFrom = sources[source];
+            int[] route = routes[source];
+            for (int j = 0; j < route.length; ++j) {
+                transfer(portFrom, destinations[route[j]]);
+                if (activate) {
+                    activate(route[j]);
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Activates the simulator that owns a destination, and all its parent coordinators.
+     * @param destination index of the destination.
+     */
+    protected void activate(int destination) {
+        Coordinator coordinator = receivers[destination];
+        int handle = receiverHandles[destination];
+        // Parent coordinators of an active simulator are already active
+        while (coordinator != null && !coordinator.activeFlags[handle]) {
+            coordinator.activate(handle);
+            handle = coordinator.parentHandle;
+            coordinator = coordinator.parent;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> void transfer(Port<E> portFrom, Port<?> portTo) {
+        ((Port<E>) portTo).addValues(portFrom);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+* File: ConnectionPool.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool of the connections opened by a process, one per destination host and port.
+ * Connections are opened with the transport of the process, shared memory or TCP by
+ * default (see {@link SharedMemoryTransport}).
+ */
+public class ConnectionPool {
+
+    private static final ConcurrentHashMap<String, DistributedConnection> CONNECTIONS = new ConcurrentHashMap<>();
+    private static volatile Transport transport = Transport.forName("");
+
+    private ConnectionPool() {
+    }
+
+    /**
+     * Sets the transport used to open new connections.
+     * @param transport The transport
+     */
+    public static void setTransport(Transport transport) {
+        ConnectionPool.transport = transport;
+    }
+
+    public static Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Gets the connection to a node, opening it the first time.
+     * @param host Host of the node
+     * @param port Port of the node
+     * @return The connection
+     * @throws IOException If the connection cannot be opened
+     */
+    public static DistributedConnection getConnection(String host, int port) throws IOException {
+        String key = host + ":" + port;
+        DistributedConnection connection = CONNECTIONS.get(key);
+        if (connection == null) {
+            synchronized (CONNECTIONS) {
+                connection = CONNECTIONS.get(key);
+                if (connection == null) {
+                    connection = transport.connect(host, port);
+                    CONNECTIONS.put(key, connection);
+                }
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Closes and removes a connection, for instance after an error. The next request
+     * opens a new one.
+     * @param connection The connection
+     */
+    public static void discard(DistributedConnection connection) {
+        CONNECTIONS.values().remove(connection);
+        connection.close();
+    }
+
+    /**
+     * Closes all the connections.
+     */
+    public static void closeAll() {
+        CONNECTIONS.values().forEach(DistributedConnection::close);
+        CONNECTIONS.clear();
+    }
+}
@@ -22,9 +22,13 @@ package xdevs.core.simulation.distributed;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -40,6 +44,20 @@ import xdevs.core.util.Constants;
  * This class implements the coordinator for a distributed simulation. It
  * extends the Coordinator class and implements the methods to execute the
  * simulation in a distributed way.
+ *
+ * By default, the coordinator is a central barrier: it executes every simulation step
+ * in all the nodes. In the decentralized mode, the nodes synchronize themselves with
+ * the Chandy-Misra-Bryant algorithm, exchanging timestamped values and null messages
+ * through their peer connections (see {@link SimulatorDistributed}), and the
+ * coordinator only starts the simulation, detects its end and finishes it. The end is
+ * detected polling the state of the nodes: the simulation has finished when all of them
+ * are idle and have sent and received the same number of messages with values, in two
+ * consecutive polls.
+ *
+ * The decentralized mode needs a positive lookahead in some coupling of every cycle of
+ * nodes, otherwise the simulation deadlocks. As in
+ * {@link xdevs.core.simulation.parallel.CoordinatorConservative}, when the number of
+ * iterations is limited, each node counts its own steps.
  */
 public class CoordinatorDistributed extends Coordinator {
 
@@ -49,6 +67,31 @@ public class CoordinatorDistributed extends Coordinator {
      * Executor for the distributed simulation.
      */
     private ExecutorService executor;
+    /**
+     * Names of the components, in the order of the model.
+     */
+    protected String[] names;
+    /**
+     * Time of next event of each component, as answered by the nodes.
+     */
+    protected double[] tNs;
+    /**
+     * If true, each step is executed with a single command per node.
+     */
+    protected boolean fusedStep = true;
+    /**
+     * Number of iterations simulated and to simulate.
+     */
+    protected long numIterations = 0;
+    protected long maxIterations = 0;
+    /**
+     * If true, the nodes are synchronized with null messages instead of by the coordinator.
+     */
+    protected boolean decentralized = false;
+    /**
+     * Time between two polls of the state of the nodes in the decentralized mode, in milliseconds.
+     */
+    public static final long STATUS_PERIOD = 10;
 
     /**
      * Constructor for the distributed coordinator.
@@ -59,6 +102,10 @@ public class CoordinatorDistributed extends Coordinator {
     public CoordinatorDistributed(SimulationClock clock, CoupledDistributed model) {
         super(clock, model);
         this.executor = Executors.newFixedThreadPool(model.getComponents().size());
+        this.names = model.getComponents().stream().map(Component::getName).toArray(String[]::new);
+        this.tNs = new double[names.length];
+        this.decentralized = model.isDecentralized();
+        ConnectionPool.setTransport(Transport.forName(model.getTransport()));
         LOGGER.fine("I am: " + this.model.getName());
         LOGGER.fine("Workers: " + this.model.getComponents().toString());
     }
@@ -72,6 +119,33 @@ public class CoordinatorDistributed extends Coordinator {
         this(new SimulationClock(), model);
     }
 
+    /**
+     * Enables or disables the fused simulation step. When disabled, each phase of the
+     * step (lambda, propagation, transitions, clear and time advance) is a separate
+     * command sent to all the nodes.
+     * @param fusedStep true to enable the fused simulation step.
+     */
+    public void setFusedStep(boolean fusedStep) {
+        this.fusedStep = fusedStep;
+    }
+
+    public boolean isFusedStep() {
+        return fusedStep;
+    }
+
+    /**
+     * Enables or disables the decentralized mode, where the nodes synchronize
+     * themselves with null messages. By default, it is the value of the model.
+     * @param decentralized true to enable the decentralized mode.
+     */
+    public void setDecentralized(boolean decentralized) {
+        this.decentralized = decentralized;
+    }
+
+    public boolean isDecentralized() {
+        return decentralized;
+    }
+
     /**
      * Execute a list of tasks in the distributed simulation.
      *
@@ -79,26 +153,189 @@ public class CoordinatorDistributed extends Coordinator {
      * @return List of distributed tasks
      */
     public LinkedList<DistributedTask> executeTasksList(int command) {        
+        return executeTasksList(command, clock.getTime());
+    }
+
+    /**
+     * Execute a list of tasks in the distributed simulation.
+     *
+     * @param command Command to execute
+     * @param time Simulation time sent with the command
+     * @return List of distributed tasks
+     */
+    public LinkedList<DistributedTask> executeTasksList(int command, double time) {
         LinkedList<DistributedTask> distributedTasks = new LinkedList<>();
-        LOGGER.log(Level.FINE, "Sending task \" + command + \"[c:\" + String.valueOf(clock.getTime()) + \"]\"");
+        LOGGER.log(Level.FINE, "Sending task \" + command + \"[c:\" + String.valueOf(time) + \"]\"");
         model.getComponents().forEach(component -> {
             String host = ((CoupledDistributed) model).getHost(component.getName());
             Integer port = ((CoupledDistributed) model).getMainPort(component.getName());
-            distributedTasks.add(new DistributedTask(host, port, command, String.valueOf(clock.getTime())));
+            distributedTasks.add(new DistributedTask(host, port, command, time));
         });
 
         return distributedTasks;
     }
 
+    /**
+     * Sends a command to all the nodes and waits for their responses.
+     * @param tasks Tasks with the command
+     * @return The responses, in the order of the model
+     * @throws ExecutionException If a node does not respond
+     * @throws InterruptedException If interrupted while waiting
+     */
+    protected List<MessageDistributed> execute(List<DistributedTask> tasks) throws ExecutionException, InterruptedException {
+        ArrayList<MessageDistributed> responses = new ArrayList<>();
+        for (Future<MessageDistributed> response : executor.invokeAll(tasks)) {
+            responses.add(response.get());
+        }
+        return responses;
+    }
+
+    /**
+     * Sends a command to all the nodes and stores the times of next event they answer.
+     * 
+     * The responses are taken as they arrive: when a node fails, other nodes may be
+     * waiting for its outputs and never answer, so the simulation is finished without
+     * waiting for them.
+     * @param command Command to execute
+     * @param imminents Names of the imminent components, sent with the command
+     * @return The minimum time of next event, or infinity if a node has failed
+     */
+    protected double executeTasksTN(int command, List<String> imminents) {
+        LinkedList<DistributedTask> distributedTasks = executeTasksList(command);
+        ExecutorCompletionService<MessageDistributed> completion = new ExecutorCompletionService<>(executor);
+        HashMap<Future<MessageDistributed>, Integer> indices = new HashMap<>();
+        int i = 0;
+        for (DistributedTask task : distributedTasks) {
+            task.setValues(imminents);
+            indices.put(completion.submit(task), i++);
+        }
+        double tn = Constants.INFINITY;
+        try {
+            for (int j = 0; j < names.length; ++j) {
+                Future<MessageDistributed> response = completion.take();
+                i = indices.get(response);
+                tNs[i] = response.get().getTime();
+                tn = Math.min(tn, tNs[i]);
+            }
+        } catch (ExecutionException | InterruptedException e) {
+            LOGGER.severe("Simulation finished at t = " + clock.getTime() + ", command " + command + " failed: " + e.getLocalizedMessage());
+            // Releases the tasks waiting for the nodes blocked by the failure
+            ConnectionPool.closeAll();
+            Arrays.fill(tNs, Constants.INFINITY);
+            tn = Constants.INFINITY;
+        }
+        return tn;
+    }
+
     @Override
     public void initialize() {
+        tL = clock.getTime();
+        tN = executeTasksTN(Constants.DS_INITIALIZE, new ArrayList<>());
+    }
+
+    /**
+     * Executes a simulation step with a single command per node.
+     */
+    protected void step() {
+        ArrayList<String> imminents = new ArrayList<>();
+        for (int i = 0; i < names.length; ++i) {
+            if (tNs[i] == tN) {
+                imminents.add(names[i]);
+            }
+        }
+        clock.setTime(tN);
+        tL = tN;
+        tN = executeTasksTN(Constants.DS_STEP, imminents);
+    }
+
+    /**
+     * Runs a decentralized simulation until it finishes.
+     * @param finalTime Steps at this time or later are not executed.
+     * @param maxSteps Maximum number of steps of each node.
+     */
+    protected void runDecentralized(double finalTime, long maxSteps) {
         try {
-            executor.invokeAll(executeTasksList(Constants.DS_INITIALIZE));
-        } catch (InterruptedException e) {
+            // No message has a time lower than the minimum time of next event
+            LinkedList<DistributedTask> tasks = executeTasksList(Constants.DS_PREPARE, tN);
+            for (DistributedTask task : tasks) {
+                task.setValues(Arrays.asList(finalTime, maxSteps));
+            }
+            execute(tasks);
+            execute(executeTasksList(Constants.DS_RUN));
+            long[] lastCounters = null;
+            while (true) {
+                Thread.sleep(STATUS_PERIOD);
+                boolean allIdle = true;
+                long numSent = 0;
+                long numReceived = 0;
+                long[] counters = new long[2 * names.length];
+                List<MessageDistributed> responses = execute(executeTasksList(Constants.DS_STATUS));
+                for (int i = 0; i < names.length; ++i) {
+                    List<?> status = new ArrayList<>(responses.get(i).getValuesPort());
+                    allIdle &= (Boolean) status.get(0);
+                    counters[2 * i] = (Long) status.get(1);
+                    counters[2 * i + 1] = (Long) status.get(2);
+                    numSent += counters[2 * i];
+                    numReceived += counters[2 * i + 1];
+                }
+                if (allIdle && numSent == numReceived && Arrays.equals(counters, lastCounters)) {
+                    break;
+                }
+                lastCounters = allIdle ? counters : null;
+            }
+            List<MessageDistributed> responses = execute(executeTasksList(Constants.DS_STOP));
+            double lastTime = clock.getTime();
+            tN = Constants.INFINITY;
+            for (int i = 0; i < names.length; ++i) {
+                tNs[i] = responses.get(i).getTime();
+                tN = Math.min(tN, tNs[i]);
+                lastTime = Math.max(lastTime, (Double) responses.get(i).getValuesPort().iterator().next());
+            }
+            clock.setTime(lastTime);
+            tL = lastTime;
+        } catch (ExecutionException | InterruptedException e) {
             LOGGER.severe(e.getLocalizedMessage());
         }
-        tL = clock.getTime();
-        tN = tL + ta();
+    }
+
+    @Override
+    public void simulate(long numIterations) {
+        if (decentralized) {
+            LOGGER.fine("START SIMULATION");
+            runDecentralized(Constants.INFINITY, numIterations);
+            return;
+        }
+        if (!fusedStep) {
+            super.simulate(numIterations);
+            return;
+        }
+        LOGGER.fine("START SIMULATION");
+        maxIterations += numIterations;
+        while (this.numIterations < maxIterations && tN < Constants.INFINITY) {
+            step();
+            this.numIterations++;
+        }
+    }
+
+    @Override
+    public void simulate(double timeInterval) {
+        if (decentralized) {
+            LOGGER.fine("START SIMULATION");
+            double tF = clock.getTime() + timeInterval;
+            runDecentralized(tF, Long.MAX_VALUE);
+            clock.setTime(tF);
+            return;
+        }
+        if (!fusedStep) {
+            super.simulate(timeInterval);
+            return;
+        }
+        LOGGER.fine("START SIMULATION");
+        double tF = clock.getTime() + timeInterval;
+        while (tN < tF) {
+            step();
+        }
+        clock.setTime(tF);
     }
 
     @Override
@@ -109,10 +346,11 @@ public class CoordinatorDistributed extends Coordinator {
             String host = ((CoupledDistributed) model).getHost(component.getName());
             Integer mainPort = ((CoupledDistributed) model).getMainPort(component.getName());
             // Integer auxPort = ((CoupledDistributed) model).getAuxPort(component.getName());
-            md = new MessageDistributed(Constants.DS_EXIT, String.valueOf(clock.getTime()));
+            md = new MessageDistributed(Constants.DS_EXIT, clock.getTime());
             pm = new PingMessage(md, host, mainPort);
             pm.ping();
         }
+        ConnectionPool.closeAll();
         executor.shutdown();
     }
 
@@ -120,10 +358,10 @@ public class CoordinatorDistributed extends Coordinator {
     public double ta() {
         double tn = Constants.INFINITY;
         try {
-            List<Future<String>> tas = executor.invokeAll(executeTasksList(Constants.DS_TA));
-            for (Future<String> ta : tas) {
-                if (Double.valueOf(ta.get()) < tn) {
-                    tn = Double.valueOf(ta.get()); // simulator.getTN();
+            List<Future<MessageDistributed>> tas = executor.invokeAll(executeTasksList(Constants.DS_TA));
+            for (Future<MessageDistributed> ta : tas) {
+                if (ta.get().getTime() < tn) {
+                    tn = ta.get().getTime(); // simulator.getTN();
                 }
             }
         } catch (ExecutionException | InterruptedException e) {
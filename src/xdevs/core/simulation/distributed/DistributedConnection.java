@@ -0,0 +1,45 @@
+/*
+* File: DistributedConnection.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/17 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.IOException;
+
+/**
+ * Connection to a distributed node, opened by a {@link Transport}.
+ *
+ * Requests from different threads are serialized, so each connection has at most one
+ * request in flight.
+ */
+public interface DistributedConnection {
+
+    /**
+     * Sends a message and waits for the response.
+     * @param message Message to send
+     * @return The response
+     * @throws IOException If the connection fails
+     */
+    MessageDistributed request(MessageDistributed message) throws IOException;
+
+    /**
+     * Closes the connection.
+     */
+    void close();
+}
@@ -21,15 +21,18 @@
 package xdevs.core.simulation.distributed;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.InetSocketAddress;
-import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -37,9 +40,20 @@ import java.util.logging.Logger;
  *
  * This class implements a daemon for distributed simulation. It listens for
  * incoming connections and processes the messages received.
+ *
+ * A single thread multiplexes the accept, read and write operations of all the
+ * connections with a selector, and blocks while there is nothing to do. Complete
+ * frames are interpreted by a pool of workers, which can be shared with other daemons
+ * of the same node. The requests of each connection are interpreted in order, one
+ * after another.
  */
 public class DistributedDaemon {
     private static final Logger LOGGER = Logger.getLogger(DistributedDaemon.class.getName());
+    /**
+     * Maximum time blocked in the selector before checking if the simulation finished,
+     * in milliseconds.
+     */
+    protected static final long SELECT_TIMEOUT = 100;
     /**
      * Port for the daemon
      */
@@ -48,61 +62,241 @@ public class DistributedDaemon {
      * Simulator for the daemon
      */
     private SimulatorDistributed sd;
+    /**
+     * Workers that interpret the messages.
+     */
+    private ExecutorService workers;
+    private Selector selector;
+    /**
+     * Connections with responses ready to be written.
+     */
+    private final ConcurrentLinkedQueue<Connection> writable = new ConcurrentLinkedQueue<>();
     
     /**
      * Constructor for the distributed daemon.
      * @param port Port for the daemon
      * @param sd Simulator for the daemon
+     * @param workers Workers that interpret the messages
      */
-    public DistributedDaemon(int port, SimulatorDistributed sd){
+    public DistributedDaemon(int port, SimulatorDistributed sd, ExecutorService workers){
         this.port = port;
         this.sd = sd;
+        this.workers = workers;
+    }
+
+    /**
+     * Constructor for the distributed daemon, with its own worker.
+     * @param port Port for the daemon
+     * @param sd Simulator for the daemon
+     */
+    public DistributedDaemon(int port, SimulatorDistributed sd){
+        this(port, sd, Executors.newSingleThreadExecutor());
     }
     
     /**
      * Start the daemon
      */
     public void start() {
-        BlockingDeque<Socket> queue = new LinkedBlockingDeque<>();
+        try {
+            selector = Selector.open();
+            ServerSocketChannel ssc = ServerSocketChannel.open();
+            ssc.socket().bind(new InetSocketAddress(port));
+            ssc.configureBlocking(false);
+            ssc.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            LOGGER.severe(e.getLocalizedMessage());
+            return;
+        }
+        new Thread(this::loop).start();
+    }
 
-        Thread producer = new Thread(() -> {
+    /**
+     * Event loop of the daemon. It finishes when the simulation is over and all the
+     * responses have been sent.
+     */
+    protected void loop() {
+        try {
+            while (!sd.isGetOut() || hasPendingWrites()) {
+                selector.select(SELECT_TIMEOUT);
+                Connection connection;
+                while ((connection = writable.poll()) != null) {
+                    if (connection.key.isValid()) {
+                        connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept((ServerSocketChannel) key.channel());
+                        } else {
+                            if (key.isReadable()) {
+                                ((Connection) key.attachment()).read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                ((Connection) key.attachment()).write();
+                            }
+                        }
+                    } catch (IOException e) {
+                        // The connection was closed by the other side
+                        close(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.severe(e.getLocalizedMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
             try {
-                ServerSocketChannel ssc = ServerSocketChannel.open();
-                ssc.socket().bind(new InetSocketAddress(port));
-                ssc.configureBlocking(false);
+                selector.close();
+            } catch (IOException e) {
+                LOGGER.severe(e.getLocalizedMessage());
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel ssc) throws IOException {
+        SocketChannel sc = ssc.accept();
+        if (sc != null) {
+            sc.configureBlocking(false);
+            sc.socket().setTcpNoDelay(true);
+            SelectionKey key = sc.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(key, sc));
+        }
+    }
 
-                while (!sd.isGetOut()) {
+    private boolean hasPendingWrites() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() != null && ((Connection) key.attachment()).isPending()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            LOGGER.severe(e.getLocalizedMessage());
+        }
+    }
 
-                    SocketChannel sc = ssc.accept();
-                    if (sc != null) {
-                        queue.put(sc.socket());
+    /**
+     * State of a connection: the frame being read, the requests waiting to be
+     * interpreted and the responses waiting to be written.
+     */
+    private class Connection {
+        private final SelectionKey key;
+        private final SocketChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        private ByteBuffer body = ByteBuffer.allocate(1024);
+        private boolean inBody = false;
+        private final ArrayDeque<MessageDistributed> requests = new ArrayDeque<>();
+        private boolean busy = false;
+        private final ConcurrentLinkedQueue<ByteBuffer> responses = new ConcurrentLinkedQueue<>();
+
+        private Connection(SelectionKey key, SocketChannel channel) {
+            this.key = key;
+            this.channel = channel;
+        }
+
+        private void read() throws IOException {
+            while (true) {
+                ByteBuffer buffer = inBody ? body : header;
+                int count = channel.read(buffer);
+                if (count < 0) {
+                    throw new IOException("Connection closed");
+                }
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                if (!inBody) {
+                    header.flip();
+                    int length = header.getInt();
+                    header.clear();
+                    if (body.capacity() < length) {
+                        body = ByteBuffer.allocate(Math.max(length, 2 * body.capacity()));
                     }
+                    body.clear().limit(length);
+                    inBody = true;
+                } else {
+                    MessageDistributed request = MessageDistributed.fromFrame(body.array(), body.limit());
+                    inBody = false;
+                    submit(request);
                 }
-                ssc.close();
-            } catch (Exception e) {
-                LOGGER.severe(e.getLocalizedMessage());
             }
-        });
+        }
+
+        private void submit(MessageDistributed request) {
+            synchronized (requests) {
+                requests.add(request);
+                if (busy) {
+                    return;
+                }
+                busy = true;
+            }
+            workers.execute(this::interpret);
+        }
 
-        Thread consumer = new Thread(() -> {
+        private void interpret() {
+            boolean idle = false;
             try {
-                while(!sd.isGetOut()) {
-                    Socket socket = queue.poll(100, TimeUnit.MILLISECONDS);
-                    if(socket!=null) {
-                        ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
-                        MessageDistributed msg = (MessageDistributed) in.readObject();
-                        ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
-                        out.writeObject(sd.interpreter(msg));
-                        in.close();
-                        out.close();
-                        socket.close();
+                while (true) {
+                    MessageDistributed request;
+                    synchronized (requests) {
+                        request = requests.poll();
+                        if (request == null) {
+                            busy = false;
+                            idle = true;
+                            return;
+                        }
                     }
+                    ByteBuffer response;
+                    try {
+                        response = ByteBuffer.wrap(sd.interpreter(request).toFrame());
+                    } catch (IOException | RuntimeException e) {
+                        // The client is waiting for a response, so it receives the error
+                        LOGGER.log(Level.SEVERE, "Error interpreting command " + request.getCommand(), e);
+                        response = ByteBuffer.wrap(MessageDistributed.error(e).toFrame());
+                    }
+                    responses.add(response);
+                    writable.add(this);
+                    selector.wakeup();
                 }
-            } catch (InterruptedException | IOException | ClassNotFoundException e) {
+            } catch (IOException e) {
                 LOGGER.severe(e.getLocalizedMessage());
+            } finally {
+                // Otherwise, the connection would not interpret any other request
+                if (!idle) {
+                    synchronized (requests) {
+                        busy = false;
+                    }
+                }
             }
-        });
-        producer.start();
-        consumer.start();
-    }    
+        }
+
+        private void write() throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = responses.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                responses.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private boolean isPending() {
+            synchronized (requests) {
+                return busy || !responses.isEmpty();
+            }
+        }
+    }
 }
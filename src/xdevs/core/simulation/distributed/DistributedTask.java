@@ -20,6 +20,9 @@
 */
 package xdevs.core.simulation.distributed;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.concurrent.Callable;
 
 /**
@@ -28,7 +31,7 @@ import java.util.concurrent.Callable;
  * This class implements a task for distributed simulation. It extends the
  * Callable class and implements the call method to execute the task.
  */
-public class DistributedTask implements Callable<String> {
+public class DistributedTask implements Callable<MessageDistributed> {
     /**
      * Host for the task
      */
@@ -42,9 +45,13 @@ public class DistributedTask implements Callable<String> {
      */
     protected int command;
     /**
-     * Message for the task
+     * Simulation time for the task
      */
-    protected String message;
+    protected double time;
+    /**
+     * Values sent with the command
+     */
+    protected Collection<?> values = new ArrayList<>();
     
     /**
      * Constructor for the distributed task.
@@ -52,20 +59,31 @@ public class DistributedTask implements Callable<String> {
      * @param host Host for the task
      * @param port Port for the task
      * @param command Command for the task
-     * @param message Message for the task
+     * @param time Simulation time for the task
      */
-    public DistributedTask(String host, Integer port, int command, String message) {
+    public DistributedTask(String host, Integer port, int command, double time) {
         this.host = host;
         this.port = port;
         this.command = command;
-        this.message = message;        
+        this.time = time;
+    }
+    
+    /**
+     * Sets the values sent with the command.
+     * @param values Values for the task
+     */
+    public void setValues(Collection<?> values) {
+        this.values = values;
     }
     
     @Override
-    public String call() {
-        MessageDistributed md = new MessageDistributed(this.command, this.message);
+    public MessageDistributed call() throws IOException {
+        MessageDistributed md = new MessageDistributed(this.command, this.time, "", this.values);
         PingMessage pm = new PingMessage(md, host, port);
-        md = pm.ping();        
-        return md.getMessage();
+        md = pm.ping();
+        if (md == null) {
+            throw new IOException("No response from " + host + ":" + port);
+        }
+        return md;
     }
 }
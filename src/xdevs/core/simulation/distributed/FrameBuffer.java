@@ -0,0 +1,64 @@
+/*
+* File: FrameBuffer.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+
+/**
+ * Growable byte buffer where frames are encoded. It is reused from one frame to the
+ * next, so encoding a frame does not allocate memory once the buffer is big enough.
+ */
+public class FrameBuffer extends ByteArrayOutputStream {
+
+    /**
+     * Data view of the buffer.
+     */
+    protected final DataOutputStream data = new DataOutputStream(this);
+
+    public FrameBuffer() {
+        super(1024);
+    }
+
+    public DataOutputStream getData() {
+        return data;
+    }
+
+    /**
+     * Gets the internal array. Only the first {@link #size()} bytes are valid.
+     * @return The internal array.
+     */
+    public byte[] array() {
+        return buf;
+    }
+
+    /**
+     * Overwrites an integer already written.
+     * @param position Position of the integer
+     * @param value New value
+     */
+    public void setInt(int position, int value) {
+        buf[position] = (byte) (value >>> 24);
+        buf[position + 1] = (byte) (value >>> 16);
+        buf[position + 2] = (byte) (value >>> 8);
+        buf[position + 3] = (byte) value;
+    }
+}
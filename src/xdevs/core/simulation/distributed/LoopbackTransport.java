@@ -0,0 +1,187 @@
+/*
+* File: LoopbackTransport.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/17 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory transport, for a coordinator and all its nodes running in the same process.
+ *
+ * Each port of a node is an endpoint with a lock-free queue of requests, served by its
+ * own thread, and each connection receives its responses through another lock-free
+ * queue. Threads block with {@link LockSupport#park(Object)} instead of locks. Messages
+ * are still encoded as binary frames, so the values are copied as in the TCP transport
+ * and the cost of the protocol can be measured without the network.
+ *
+ * Endpoints are identified by host and port, so the deployment of the model does not
+ * change, but the nodes must be created in the same process before the coordinator.
+ */
+public class LoopbackTransport implements Transport {
+
+    private static final Logger LOGGER = Logger.getLogger(LoopbackTransport.class.getName());
+    /**
+     * Maximum time blocked before checking if the simulation finished or the endpoint
+     * was closed, in nanoseconds.
+     */
+    protected static final long PARK_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(DistributedDaemon.SELECT_TIMEOUT);
+
+    private static final ConcurrentHashMap<String, Endpoint> ENDPOINTS = new ConcurrentHashMap<>();
+
+    @Override
+    public DistributedConnection connect(String host, int port) throws IOException {
+        Endpoint endpoint = ENDPOINTS.get(host + ":" + port);
+        if (endpoint == null) {
+            throw new ConnectException("No node listening at " + host + ":" + port + " in this process");
+        }
+        return new LoopbackConnection(endpoint);
+    }
+
+    @Override
+    public void listen(String host, int port, SimulatorDistributed sd, ExecutorService workers) {
+        Endpoint endpoint = new Endpoint(host + ":" + port, sd);
+        ENDPOINTS.put(endpoint.key, endpoint);
+        endpoint.thread.start();
+    }
+
+    /**
+     * Request waiting to be served by an endpoint.
+     */
+    private static class Request {
+        private final byte[] frame;
+        private final LoopbackConnection connection;
+
+        private Request(byte[] frame, LoopbackConnection connection) {
+            this.frame = frame;
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Port of a node. Requests are interpreted in order of arrival by the thread of the
+     * endpoint.
+     */
+    private static class Endpoint {
+        private final String key;
+        private final SimulatorDistributed sd;
+        private final ConcurrentLinkedQueue<Request> requests = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private volatile boolean closed = false;
+
+        private Endpoint(String key, SimulatorDistributed sd) {
+            this.key = key;
+            this.sd = sd;
+            this.thread = new Thread(this::loop, "loopback-" + key);
+        }
+
+        private void submit(Request request) {
+            requests.add(request);
+            LockSupport.unpark(thread);
+        }
+
+        private void loop() {
+            try {
+                while (!sd.isGetOut() || !requests.isEmpty()) {
+                    Request request = requests.poll();
+                    if (request == null) {
+                        LockSupport.parkNanos(this, PARK_TIMEOUT);
+                        continue;
+                    }
+                    serve(request);
+                }
+            } finally {
+                // Otherwise, the clients would wait for the endpoint forever
+                closed = true;
+                ENDPOINTS.remove(key, this);
+            }
+        }
+
+        private void serve(Request request) {
+            try {
+                MessageDistributed message = MessageDistributed.fromFrame(request.frame, Integer.BYTES,
+                        request.frame.length - Integer.BYTES);
+                request.connection.complete(sd.interpreter(message).toFrame());
+            } catch (IOException | RuntimeException e) {
+                // The client is waiting for a response, so it receives the error
+                LOGGER.log(Level.SEVERE, "Error in " + key, e);
+                byte[] error = null;
+                try {
+                    error = MessageDistributed.error(e).toFrame();
+                } catch (IOException ee) {
+                    LOGGER.severe(ee.getLocalizedMessage());
+                }
+                request.connection.complete(error);
+            }
+        }
+    }
+
+    /**
+     * Connection to an endpoint.
+     */
+    private static class LoopbackConnection implements DistributedConnection {
+        private final Endpoint endpoint;
+        private final ConcurrentLinkedQueue<byte[]> responses = new ConcurrentLinkedQueue<>();
+        private volatile Thread waiter;
+
+        private LoopbackConnection(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public synchronized MessageDistributed request(MessageDistributed message) throws IOException {
+            waiter = Thread.currentThread();
+            endpoint.submit(new Request(message.toFrame(), this));
+            byte[] frame;
+            while ((frame = responses.poll()) == null) {
+                if (endpoint.closed && responses.isEmpty()) {
+                    throw new IOException("Connection closed by " + endpoint.key);
+                }
+                LockSupport.parkNanos(this, PARK_TIMEOUT);
+            }
+            if (frame.length == 0) {
+                throw new IOException("Bad request to " + endpoint.key);
+            }
+            return MessageDistributed.fromFrame(frame, Integer.BYTES, frame.length - Integer.BYTES);
+        }
+
+        private void complete(byte[] frame) {
+            responses.add(frame == null ? new byte[0] : frame);
+            LockSupport.unpark(waiter);
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release, a request in flight still receives its response
+        }
+
+        @Override
+        public String toString() {
+            return "loopback:" + endpoint.key;
+        }
+    }
+}
@@ -20,8 +20,13 @@
 */
 package xdevs.core.simulation.distributed;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import xdevs.core.util.Constants;
 
@@ -29,13 +34,29 @@ import xdevs.core.util.Constants;
  * Message for distributed simulation.
  * 
  * This class implements a message for distributed simulation. It contains a
- * command, a message and a collection of values.
+ * command, a simulation time, a message and a collection of values.
+ * 
+ * Messages are transmitted as length-prefixed binary frames (see {@link #toFrame()}):
+ * the length of the frame, a one-byte command, the time as a raw double, the message
+ * and the values of the port, encoded with {@link PortCodecs}, and a batch of values
+ * of named ports.
+ * 
+ * The batch is used to send all the output values of a node to another node in a
+ * single message (see {@link #addPortValues(String, Collection)}).
  */
 public class MessageDistributed implements Serializable{
+    /**
+     * Buffers to encode the frames, one per thread.
+     */
+    private static final ThreadLocal<FrameBuffer> BUFFERS = ThreadLocal.withInitial(FrameBuffer::new);
     /**
      * Command for the message
      */
     private int command;
+    /**
+     * Simulation time for the message
+     */
+    private double time;
     /**
      * Message for the message
      */
@@ -44,19 +65,50 @@ public class MessageDistributed implements Serializable{
      * Collection of values for the message
      */
     private Collection<?> valuesPort;
+    /**
+     * Names of the ports of the batch
+     */
+    private ArrayList<String> batchPorts = new ArrayList<>();
+    /**
+     * Values of the ports of the batch
+     */
+    private ArrayList<Collection<?>> batchValues = new ArrayList<>();
     
     /**
      * Constructor for the distributed message.
      * 
      * @param command Command for the message
+     * @param time Simulation time for the message
      * @param message Message for the message
      * @param valuesPort Collection of values for the message
      */
-    public MessageDistributed(int command, String message, Collection<?> valuesPort){
+    public MessageDistributed(int command, double time, String message, Collection<?> valuesPort){
         this.command = command;
+        this.time = time;
         this.message = message;
         this.valuesPort = valuesPort;
     }
+
+    /**
+     * Constructor for the distributed message.
+     * 
+     * @param command Command for the message
+     * @param time Simulation time for the message
+     */
+    public MessageDistributed(int command, double time){
+        this(command, time, "", new ArrayList<>());
+    }
+
+    /**
+     * Constructor for the distributed message.
+     * 
+     * @param command Command for the message
+     * @param message Message for the message
+     * @param valuesPort Collection of values for the message
+     */
+    public MessageDistributed(int command, String message, Collection<?> valuesPort){
+        this(command, 0, message, valuesPort);
+    }
     
     /**
      * Constructor for the distributed message.
@@ -83,6 +135,16 @@ public class MessageDistributed implements Serializable{
     public MessageDistributed(){
         this("");
     }
+
+    /**
+     * Creates the response to a request that failed in the node, so the sender does
+     * not wait for a response that will never arrive.
+     * @param cause The exception thrown while interpreting the request
+     * @return The response, with command {@link Constants#DS_ERROR}
+     */
+    public static MessageDistributed error(Throwable cause) {
+        return new MessageDistributed(Constants.DS_ERROR, String.valueOf(cause));
+    }
     
     /**
      * Get the command for the message.
@@ -100,6 +162,22 @@ public class MessageDistributed implements Serializable{
         this.command = command;
     }
 
+    /**
+     * Get the simulation time for the message.
+     * @return Simulation time for the message
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Set the simulation time for the message.
+     * @param time Simulation time for the message
+     */
+    public void setTime(double time) {
+        this.time = time;
+    }
+
     /**
      * Get the message for the message.
      * @return Message for the message
@@ -132,9 +210,132 @@ public class MessageDistributed implements Serializable{
         this.valuesPort = (Collection<?>) valuesPort;
     }
 
+    /**
+     * Adds the values of a port to the batch of the message.
+     * @param portName Name of the port
+     * @param values Values of the port
+     */
+    public void addPortValues(String portName, Collection<?> values) {
+        batchPorts.add(portName);
+        batchValues.add(values);
+    }
+
+    /**
+     * Get the names of the ports of the batch.
+     * @return Names of the ports, in the same order as {@link #getBatchValues()}
+     */
+    public ArrayList<String> getBatchPorts() {
+        return batchPorts;
+    }
+
+    /**
+     * Get the values of the ports of the batch.
+     * @return Values of each port, in the same order as {@link #getBatchPorts()}
+     */
+    public ArrayList<Collection<?>> getBatchValues() {
+        return batchValues;
+    }
+
+    /**
+     * Encodes the message as a binary frame, including its length. The values are
+     * encoded with {@link PortCodecs}.
+     * @param buffer Buffer where the frame is written, from its beginning.
+     * @throws IOException If the values cannot be encoded
+     */
+    public void encode(FrameBuffer buffer) throws IOException {
+        buffer.reset();
+        DataOutputStream out = buffer.getData();
+        out.writeInt(0);
+        out.writeByte(command);
+        out.writeDouble(time);
+        out.writeUTF(message);
+        PortCodecs.writeValues(valuesPort, out);
+        out.writeInt(batchPorts.size());
+        for (int i = 0; i < batchPorts.size(); ++i) {
+            out.writeUTF(batchPorts.get(i));
+            PortCodecs.writeValues(batchValues.get(i), out);
+        }
+        buffer.setInt(0, buffer.size() - Integer.BYTES);
+    }
+
+    /**
+     * Encodes the message as a binary frame, including its length.
+     * @return The frame
+     * @throws IOException If the values cannot be encoded
+     */
+    public byte[] toFrame() throws IOException {
+        FrameBuffer buffer = BUFFERS.get();
+        encode(buffer);
+        return Arrays.copyOf(buffer.array(), buffer.size());
+    }
+
+    /**
+     * Decodes a message from the body of a frame, without its length.
+     * @param body Array with the body of the frame
+     * @param length Length of the body
+     * @return The message
+     * @throws IOException If the frame is not valid
+     */
+    public static MessageDistributed fromFrame(byte[] body, int length) throws IOException {
+        return fromFrame(body, 0, length);
+    }
+
+    /**
+     * Decodes a message from the body of a frame, without its length.
+     * @param data Array with the body of the frame
+     * @param offset Position of the body in the array
+     * @param length Length of the body
+     * @return The message
+     * @throws IOException If the frame is not valid
+     */
+    public static MessageDistributed fromFrame(byte[] data, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+        int command = in.readByte();
+        double time = in.readDouble();
+        String message = in.readUTF();
+        MessageDistributed md = new MessageDistributed(command, time, message, PortCodecs.readValues(in));
+        int numPorts = in.readInt();
+        for (int i = 0; i < numPorts; ++i) {
+            String portName = in.readUTF();
+            md.addPortValues(portName, PortCodecs.readValues(in));
+        }
+        return md;
+    }
+
+    /**
+     * Decodes a message from the body of a frame, without its length.
+     * @param body The body of the frame
+     * @return The message
+     * @throws IOException If the frame is not valid
+     */
+    public static MessageDistributed fromFrame(byte[] body) throws IOException {
+        return fromFrame(body, body.length);
+    }
+
+    /**
+     * Writes the message as a binary frame (see {@link #toFrame()}).
+     * @param out Output stream
+     * @throws IOException If the message cannot be written
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.write(toFrame());
+    }
+
+    /**
+     * Reads a message written with {@link #write(DataOutputStream)}.
+     * @param in Input stream
+     * @return The message
+     * @throws IOException If the message cannot be read
+     */
+    public static MessageDistributed read(DataInputStream in) throws IOException {
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return fromFrame(body);
+    }
+
     @Override
     public String toString() {
-        return "MessageDistributed{" + "command=" + command + ", message=" + message + ", ports=" + valuesPort + '}';
+        return "MessageDistributed{" + "command=" + command + ", time=" + time + ", message=" + message + ", ports=" + valuesPort + ", batch=" + batchPorts + '}';
     }
         
 }
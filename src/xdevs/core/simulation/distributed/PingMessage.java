@@ -21,17 +21,18 @@
 
 package xdevs.core.simulation.distributed;
 
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.Socket;
+import java.io.IOException;
 import java.util.logging.Logger;
 
+import xdevs.core.util.Constants;
+
 /**
  * Class to transmit a message to a remote host and receive the response.
  * 
  * This class implements a message to be transmitted to a remote host. It
  * contains a message and a destination host and port. It also contains a method
- * to send the message and receive the response.
+ * to send the message and receive the response, through the connection to the
+ * destination kept in the {@link ConnectionPool}.
  */
 public class PingMessage {
     private static final Logger LOGGER = Logger.getLogger(PingMessage.class.getName());
@@ -81,23 +82,26 @@ public class PingMessage {
     
     /**
      * Send the message and receive the response.
-     * @return The response to the message
+     * @return The response to the message, or null if it could not be sent or it
+     * failed in the destination (see {@link MessageDistributed#error(Throwable)}).
      */
     public MessageDistributed ping() {
         MessageDistributed response = null;
+        DistributedConnection connection = null;
         try {
-            Socket sc = new Socket(this.destinationHost, this.destinationPort);            
-            ObjectOutputStream out = new ObjectOutputStream(sc.getOutputStream());
-            out.writeObject(this.message);
-            ObjectInputStream in =  new ObjectInputStream (sc.getInputStream());            
-            response = (MessageDistributed) in.readObject();
-            in.close();
-            out.close();
-            sc.close();
-        } catch (Exception e) {
+            connection = ConnectionPool.getConnection(this.destinationHost, this.destinationPort);
+            response = connection.request(this.message);
+        } catch (IOException e) {
+            if (connection != null) {
+                ConnectionPool.discard(connection);
+            }
             LOGGER.severe("Error connecting to " + this.destinationHost + ":" + this.destinationPort + "... (command: " + message.getCommand() + "-" + message.getMessage() +  ")");
             LOGGER.severe(e.getLocalizedMessage());
         } 
+        if (response != null && response.getCommand() == Constants.DS_ERROR) {
+            LOGGER.severe("Error in " + this.destinationHost + ":" + this.destinationPort + " (command: " + message.getCommand() + "): " + response.getMessage());
+            response = null;
+        }
         return response;
     }
 }
@@ -0,0 +1,50 @@
+/*
+* File: PortCodec.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary encoding of the values of a type transmitted through the ports of a
+ * distributed model. Codecs are registered in {@link PortCodecs}.
+ *
+ * @param <T> Type of the values
+ */
+public interface PortCodec<T> {
+
+    /**
+     * Writes a value.
+     * @param value The value, never null.
+     * @param out Output
+     * @throws IOException If the value cannot be written
+     */
+    void encode(T value, DataOutput out) throws IOException;
+
+    /**
+     * Reads a value written with {@link #encode(Object, DataOutput)}.
+     * @param in Input
+     * @return The value
+     * @throws IOException If the value cannot be read
+     */
+    T decode(DataInput in) throws IOException;
+}
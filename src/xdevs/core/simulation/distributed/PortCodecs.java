@@ -0,0 +1,398 @@
+/*
+* File: PortCodecs.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the codecs of the values transmitted between distributed nodes.
+ *
+ * Each value is written as a one-byte codec identifier followed by its encoding. There
+ * are built-in codecs for the boxed primitive types, strings and arrays of them. Values
+ * of other types are encoded with the codec registered for their class or, if there is
+ * none, with Java serialization, so they must be serializable.
+ *
+ * Identifiers below {@link #FIRST_USER_ID} are reserved. Codecs must be registered
+ * with the same identifiers in all the processes of a simulation.
+ */
+public class PortCodecs {
+
+    public static final byte NULL_ID = 0;
+    public static final byte SERIALIZABLE_ID = 1;
+    /**
+     * First identifier available for user codecs.
+     */
+    public static final int FIRST_USER_ID = 32;
+    public static final int MAX_ID = 127;
+
+    private static final PortCodec<?>[] CODECS = new PortCodec<?>[MAX_ID + 1];
+    private static final ConcurrentHashMap<Class<?>, Integer> IDS = new ConcurrentHashMap<>();
+
+    static {
+        define(2, Integer.class, new PortCodec<Integer>() {
+            @Override
+            public void encode(Integer value, DataOutput out) throws IOException {
+                out.writeInt(value);
+            }
+
+            @Override
+            public Integer decode(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        });
+        define(3, Long.class, new PortCodec<Long>() {
+            @Override
+            public void encode(Long value, DataOutput out) throws IOException {
+                out.writeLong(value);
+            }
+
+            @Override
+            public Long decode(DataInput in) throws IOException {
+                return in.readLong();
+            }
+        });
+        define(4, Double.class, new PortCodec<Double>() {
+            @Override
+            public void encode(Double value, DataOutput out) throws IOException {
+                out.writeDouble(value);
+            }
+
+            @Override
+            public Double decode(DataInput in) throws IOException {
+                return in.readDouble();
+            }
+        });
+        define(5, Float.class, new PortCodec<Float>() {
+            @Override
+            public void encode(Float value, DataOutput out) throws IOException {
+                out.writeFloat(value);
+            }
+
+            @Override
+            public Float decode(DataInput in) throws IOException {
+                return in.readFloat();
+            }
+        });
+        define(6, Short.class, new PortCodec<Short>() {
+            @Override
+            public void encode(Short value, DataOutput out) throws IOException {
+                out.writeShort(value);
+            }
+
+            @Override
+            public Short decode(DataInput in) throws IOException {
+                return in.readShort();
+            }
+        });
+        define(7, Byte.class, new PortCodec<Byte>() {
+            @Override
+            public void encode(Byte value, DataOutput out) throws IOException {
+                out.writeByte(value);
+            }
+
+            @Override
+            public Byte decode(DataInput in) throws IOException {
+                return in.readByte();
+            }
+        });
+        define(8, Boolean.class, new PortCodec<Boolean>() {
+            @Override
+            public void encode(Boolean value, DataOutput out) throws IOException {
+                out.writeBoolean(value);
+            }
+
+            @Override
+            public Boolean decode(DataInput in) throws IOException {
+                return in.readBoolean();
+            }
+        });
+        define(9, Character.class, new PortCodec<Character>() {
+            @Override
+            public void encode(Character value, DataOutput out) throws IOException {
+                out.writeChar(value);
+            }
+
+            @Override
+            public Character decode(DataInput in) throws IOException {
+                return in.readChar();
+            }
+        });
+        define(10, String.class, new PortCodec<String>() {
+            @Override
+            public void encode(String value, DataOutput out) throws IOException {
+                writeString(value, out);
+            }
+
+            @Override
+            public String decode(DataInput in) throws IOException {
+                return readString(in);
+            }
+        });
+        define(11, int[].class, new PortCodec<int[]>() {
+            @Override
+            public void encode(int[] value, DataOutput out) throws IOException {
+                out.writeInt(value.length);
+                for (int v : value) {
+                    out.writeInt(v);
+                }
+            }
+
+            @Override
+            public int[] decode(DataInput in) throws IOException {
+                int[] value = new int[in.readInt()];
+                for (int i = 0; i < value.length; ++i) {
+                    value[i] = in.readInt();
+                }
+                return value;
+            }
+        });
+        define(12, long[].class, new PortCodec<long[]>() {
+            @Override
+            public void encode(long[] value, DataOutput out) throws IOException {
+                out.writeInt(value.length);
+                for (long v : value) {
+                    out.writeLong(v);
+                }
+            }
+
+            @Override
+            public long[] decode(DataInput in) throws IOException {
+                long[] value = new long[in.readInt()];
+                for (int i = 0; i < value.length; ++i) {
+                    value[i] = in.readLong();
+                }
+                return value;
+            }
+        });
+        define(13, double[].class, new PortCodec<double[]>() {
+            @Override
+            public void encode(double[] value, DataOutput out) throws IOException {
+                out.writeInt(value.length);
+                for (double v : value) {
+                    out.writeDouble(v);
+                }
+            }
+
+            @Override
+            public double[] decode(DataInput in) throws IOException {
+                double[] value = new double[in.readInt()];
+                for (int i = 0; i < value.length; ++i) {
+                    value[i] = in.readDouble();
+                }
+                return value;
+            }
+        });
+        define(14, float[].class, new PortCodec<float[]>() {
+            @Override
+            public void encode(float[] value, DataOutput out) throws IOException {
+                out.writeInt(value.length);
+                for (float v : value) {
+                    out.writeFloat(v);
+                }
+            }
+
+            @Override
+            public float[] decode(DataInput in) throws IOException {
+                float[] value = new float[in.readInt()];
+                for (int i = 0; i < value.length; ++i) {
+                    value[i] = in.readFloat();
+                }
+                return value;
+            }
+        });
+        define(15, byte[].class, new PortCodec<byte[]>() {
+            @Override
+            public void encode(byte[] value, DataOutput out) throws IOException {
+                out.writeInt(value.length);
+                out.write(value);
+            }
+
+            @Override
+            public byte[] decode(DataInput in) throws IOException {
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                return value;
+            }
+        });
+        define(16, String[].class, new PortCodec<String[]>() {
+            @Override
+            public void encode(String[] value, DataOutput out) throws IOException {
+                out.writeInt(value.length);
+                for (String v : value) {
+                    writeString(v, out);
+                }
+            }
+
+            @Override
+            public String[] decode(DataInput in) throws IOException {
+                String[] value = new String[in.readInt()];
+                for (int i = 0; i < value.length; ++i) {
+                    value[i] = readString(in);
+                }
+                return value;
+            }
+        });
+    }
+
+    private PortCodecs() {
+    }
+
+    /**
+     * Writes a string as its length in bytes followed by its UTF-8 encoding. Unlike
+     * {@link DataOutput#writeUTF(String)}, it is not limited to 65535 bytes.
+     * @param value The string
+     * @param out Output
+     * @throws IOException If the string cannot be written
+     */
+    private static void writeString(String value, DataOutput out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written with {@link #writeString(String, DataOutput)}.
+     * @param in Input
+     * @return The string
+     * @throws IOException If the string cannot be read
+     */
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static <T> void define(int id, Class<T> type, PortCodec<T> codec) {
+        CODECS[id] = codec;
+        IDS.put(type, id);
+    }
+
+    /**
+     * Registers the codec of a type. Values whose class is exactly this type are
+     * encoded with it.
+     * @param <T> Type of the values
+     * @param id Identifier of the codec, between {@link #FIRST_USER_ID} and {@link #MAX_ID}
+     * @param type Class of the values
+     * @param codec The codec
+     */
+    public static synchronized <T> void register(int id, Class<T> type, PortCodec<T> codec) {
+        if (id < FIRST_USER_ID || id > MAX_ID) {
+            throw new IllegalArgumentException("Codec identifier out of range: " + id);
+        }
+        if (CODECS[id] != null && !Integer.valueOf(id).equals(IDS.get(type))) {
+            throw new IllegalArgumentException("Codec identifier already in use: " + id);
+        }
+        define(id, type, codec);
+    }
+
+    /**
+     * Writes a value with its codec.
+     * @param value The value
+     * @param out Output
+     * @throws IOException If the value cannot be written
+     */
+    @SuppressWarnings("unchecked")
+    public static void writeValue(Object value, DataOutput out) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_ID);
+            return;
+        }
+        Integer id = IDS.get(value.getClass());
+        if (id != null) {
+            out.writeByte(id);
+            ((PortCodec<Object>) CODECS[id]).encode(value, out);
+            return;
+        }
+        // Fallback to Java serialization
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+            objects.writeObject(value);
+        }
+        out.writeByte(SERIALIZABLE_ID);
+        out.writeInt(bytes.size());
+        out.write(bytes.toByteArray());
+    }
+
+    /**
+     * Reads a value written with {@link #writeValue(Object, DataOutput)}.
+     * @param in Input
+     * @return The value
+     * @throws IOException If the value cannot be read
+     */
+    public static Object readValue(DataInput in) throws IOException {
+        int id = in.readByte();
+        if (id == NULL_ID) {
+            return null;
+        }
+        if (id == SERIALIZABLE_ID) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                return objects.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+        }
+        PortCodec<?> codec = (id > 0) ? CODECS[id] : null;
+        if (codec == null) {
+            throw new IOException("Unknown codec: " + id);
+        }
+        return codec.decode(in);
+    }
+
+    /**
+     * Writes a collection of values, preceded by its size.
+     * @param values The values
+     * @param out Output
+     * @throws IOException If the values cannot be written
+     */
+    public static void writeValues(Collection<?> values, DataOutput out) throws IOException {
+        out.writeInt(values.size());
+        for (Object value : values) {
+            writeValue(value, out);
+        }
+    }
+
+    /**
+     * Reads a collection of values written with {@link #writeValues(Collection, DataOutput)}.
+     * @param in Input
+     * @return The values
+     * @throws IOException If the values cannot be read
+     */
+    public static ArrayList<Object> readValues(DataInput in) throws IOException {
+        int size = in.readInt();
+        ArrayList<Object> values = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            values.add(readValue(in));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+* File: SharedMemoryConnection.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/17 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.ConnectException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection to a node of the same host through shared memory.
+ *
+ * The connection is a memory-mapped file with three flags (accepted, closed by the
+ * client and closed by the server) followed by two {@link SharedMemoryRing}s, one for
+ * the requests and one for the responses. The client creates the file in the directory
+ * of the port of the node (see {@link SharedMemoryTransport}) and waits until the node
+ * accepts it. The node maps the file and removes it from the directory, so the memory
+ * is released when both processes unmap it, even if one of them fails.
+ */
+public class SharedMemoryConnection implements DistributedConnection {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    protected static final int ACCEPTED = 0;
+    protected static final int CLIENT_CLOSED = 8;
+    protected static final int SERVER_CLOSED = 16;
+    protected static final int REQUESTS = 64;
+    /**
+     * Capacity of each ring, in bytes.
+     */
+    protected static final int CAPACITY = 1 << 18;
+    protected static final int RESPONSES = REQUESTS + SharedMemoryRing.size(CAPACITY);
+    protected static final int FILE_SIZE = RESPONSES + SharedMemoryRing.size(CAPACITY);
+    /**
+     * Extension of the files of the connections waiting to be accepted.
+     */
+    protected static final String EXTENSION = ".ring";
+    /**
+     * Maximum time waiting for the node to accept the connection, in milliseconds.
+     */
+    protected static final long CONNECT_TIMEOUT = 5000;
+
+    protected final String name;
+    protected final MappedByteBuffer file;
+    protected final SharedMemoryRing requests;
+    protected final SharedMemoryRing responses;
+    protected final FrameBuffer frame = new FrameBuffer();
+
+    /**
+     * Opens a connection to the node that listens in a directory.
+     * @param directory Directory of the port of the node
+     * @throws IOException If the node does not accept the connection
+     */
+    public SharedMemoryConnection(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new ConnectException("No node listening at " + directory);
+        }
+        String id = UUID.randomUUID().toString();
+        Path temporary = directory.resolve(id + ".tmp");
+        Path path = directory.resolve(id + EXTENSION);
+        this.name = path.toString();
+        Files.createFile(temporary);
+        this.file = map(temporary);
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        this.requests = new SharedMemoryRing(file, REQUESTS, CAPACITY);
+        this.responses = new SharedMemoryRing(file, RESPONSES, CAPACITY);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT);
+        SharedMemoryRing.Backoff backoff = new SharedMemoryRing.Backoff();
+        while (!isSet(file, ACCEPTED)) {
+            if (System.nanoTime() > deadline) {
+                set(file, CLIENT_CLOSED);
+                Files.deleteIfExists(path);
+                throw new ConnectException("Connection not accepted at " + directory);
+            }
+            backoff.idle();
+        }
+    }
+
+    /**
+     * Maps the file of a connection. The file grows to its size if it is empty.
+     * @param path Path of the file
+     * @return The mapped file
+     * @throws IOException If the file cannot be mapped
+     */
+    protected static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping remains valid after closing the channel
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        }
+    }
+
+    protected static boolean isSet(MappedByteBuffer file, int flag) {
+        return (long) LONGS.getAcquire(file, flag) != 0;
+    }
+
+    protected static void set(MappedByteBuffer file, int flag) {
+        LONGS.setRelease(file, flag, 1L);
+    }
+
+    @Override
+    public synchronized MessageDistributed request(MessageDistributed message) throws IOException {
+        if (isSet(file, SERVER_CLOSED)) {
+            throw new IOException("Connection closed by " + name);
+        }
+        message.encode(frame);
+        requests.write(frame.array(), frame.size(), () -> isSet(file, SERVER_CLOSED));
+        int length = responses.read(() -> isSet(file, SERVER_CLOSED));
+        if (length < 0) {
+            throw new IOException("Connection closed by " + name);
+        }
+        return MessageDistributed.fromFrame(responses.getBody(), length);
+    }
+
+    @Override
+    public void close() {
+        set(file, CLIENT_CLOSED);
+    }
+
+    @Override
+    public String toString() {
+        return "shm:" + name;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+* File: SharedMemoryRing.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/17 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Single-producer, single-consumer ring buffer of frames in shared memory.
+ *
+ * The ring is a region of a memory-mapped file: the position of the consumer (head)
+ * and the position of the producer (tail), each one in its own cache line, followed by
+ * the data. Positions only grow, and each one is written by a single side with release
+ * semantics and read by the other one with acquire semantics, so the ring needs no
+ * locks and works between processes. Frames larger than the ring are transferred in
+ * pieces while the consumer reads them.
+ *
+ * A side that has to wait spins for a while, then yields and finally parks for
+ * increasing periods (see {@link Backoff}), so the latency is low while the simulation
+ * is running and the CPU is released while it is idle.
+ */
+public class SharedMemoryRing {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    protected static final int HEAD = 0;
+    protected static final int TAIL = 64;
+    protected static final int DATA = 128;
+
+    /**
+     * Region of the ring in the mapped file.
+     */
+    protected final ByteBuffer buffer;
+    /**
+     * View of the data, used by the only thread of this process that reads or writes it.
+     */
+    protected final ByteBuffer data;
+    protected final int capacity;
+    protected final int mask;
+    protected final Backoff backoff = new Backoff();
+    /**
+     * Reusable array with the body of the last frame read.
+     */
+    protected byte[] body = new byte[1024];
+    private final byte[] header = new byte[Integer.BYTES];
+
+    /**
+     * Creates a ring on a region of a mapped file.
+     * @param file The mapped file
+     * @param offset Offset of the ring in the file, multiple of 64
+     * @param capacity Capacity of the data, power of two
+     */
+    public SharedMemoryRing(ByteBuffer file, int offset, int capacity) {
+        ByteBuffer region = file.duplicate();
+        region.position(offset).limit(offset + size(capacity));
+        this.buffer = region.slice();
+        region.position(offset + DATA);
+        this.data = region.slice();
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Size of a ring in the mapped file.
+     * @param capacity Capacity of the data
+     * @return The size of the ring
+     */
+    public static int size(int capacity) {
+        return DATA + capacity;
+    }
+
+    /**
+     * Writes a frame, waiting for free space if needed.
+     * @param frame Array with the frame, including its length
+     * @param length Length of the frame
+     * @param closed Tells if the consumer has been closed
+     * @throws IOException If the consumer is closed while waiting
+     */
+    public void write(byte[] frame, int length, BooleanSupplier closed) throws IOException {
+        long tail = (long) LONGS.get(buffer, TAIL);
+        int written = 0;
+        backoff.reset();
+        while (written < length) {
+            long head = (long) LONGS.getAcquire(buffer, HEAD);
+            int free = capacity - (int) (tail - head);
+            if (free == 0) {
+                if (closed.getAsBoolean()) {
+                    throw new IOException("Ring closed");
+                }
+                backoff.idle();
+                continue;
+            }
+            int index = (int) (tail & mask);
+            int chunk = Math.min(length - written, Math.min(free, capacity - index));
+            data.position(index);
+            data.put(frame, written, chunk);
+            written += chunk;
+            tail += chunk;
+            LONGS.setRelease(buffer, TAIL, tail);
+        }
+    }
+
+    /**
+     * Reads the next frame, waiting for it if needed. The body is available with
+     * {@link #getBody()} until the next read.
+     * @param closed Tells if the producer has been closed. It is only checked while
+     * the ring is empty between frames.
+     * @return The length of the body, or -1 if the producer was closed.
+     * @throws IOException If the producer is closed in the middle of a frame
+     */
+    public int read(BooleanSupplier closed) throws IOException {
+        backoff.reset();
+        if (!read(header, Integer.BYTES, closed, true)) {
+            return -1;
+        }
+        int length = ((header[0] & 0xff) << 24) | ((header[1] & 0xff) << 16) | ((header[2] & 0xff) << 8) | (header[3] & 0xff);
+        if (body.length < length) {
+            body = new byte[Math.max(length, 2 * body.length)];
+        }
+        read(body, length, closed, false);
+        return length;
+    }
+
+    private boolean read(byte[] destination, int length, BooleanSupplier closed, boolean first) throws IOException {
+        long head = (long) LONGS.get(buffer, HEAD);
+        int read = 0;
+        while (read < length) {
+            long tail = (long) LONGS.getAcquire(buffer, TAIL);
+            int available = (int) (tail - head);
+            if (available == 0) {
+                if (closed.getAsBoolean()) {
+                    if (first && read == 0) {
+                        return false;
+                    }
+                    throw new IOException("Ring closed in the middle of a frame");
+                }
+                backoff.idle();
+                continue;
+            }
+            int index = (int) (head & mask);
+            int chunk = Math.min(length - read, Math.min(available, capacity - index));
+            data.position(index);
+            data.get(destination, read, chunk);
+            read += chunk;
+            head += chunk;
+            LONGS.setRelease(buffer, HEAD, head);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the body of the last frame read. Only the first bytes returned by
+     * {@link #read(BooleanSupplier)} are valid.
+     * @return The body of the frame.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Waiting strategy of the rings: busy spinning, then yielding, then parking for
+     * periods that double up to a maximum.
+     */
+    public static class Backoff {
+        protected static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 256 : 0;
+        protected static final int YIELDS = 64;
+        protected static final long MIN_PARK = 1000;
+        protected static final long MAX_PARK = 100000;
+        private int count = 0;
+        private long park = MIN_PARK;
+
+        public void reset() {
+            count = 0;
+            park = MIN_PARK;
+        }
+
+        public void idle() {
+            if (count < SPINS) {
+                Thread.onSpinWait();
+            } else if (count < SPINS + YIELDS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(park);
+                park = Math.min(2 * park, MAX_PARK);
+            }
+            count++;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+* File: SharedMemoryTransport.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/17 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.nio.MappedByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Transport through shared memory between the processes of the same host, and through
+ * TCP between different hosts.
+ *
+ * Each port of a node listens both with a {@link TcpTransport} and in a directory
+ * named after the port, under /dev/shm/xdevs (or the temporary directory if /dev/shm
+ * does not exist). A process that connects to a node of its own host creates a
+ * {@link SharedMemoryConnection} in that directory, and the node serves it with a
+ * dedicated thread that polls the ring of requests, so a request and its response do
+ * not go through the network stack or any system call while the simulation is busy.
+ * Connections to other hosts, or to nodes that do not listen in shared memory, use
+ * TCP.
+ */
+public class SharedMemoryTransport implements Transport {
+
+    private static final Logger LOGGER = Logger.getLogger(SharedMemoryTransport.class.getName());
+    /**
+     * Root of the directories of the ports.
+     */
+    protected static final Path ROOT = Files.isDirectory(Paths.get("/dev/shm")) ? Paths.get("/dev/shm", "xdevs")
+            : Paths.get(System.getProperty("java.io.tmpdir"), "xdevs");
+
+    private static final ConcurrentHashMap<String, Boolean> LOCAL_HOSTS = new ConcurrentHashMap<>();
+
+    protected final TcpTransport tcp = new TcpTransport();
+
+    @Override
+    public DistributedConnection connect(String host, int port) throws IOException {
+        Path directory = ROOT.resolve(String.valueOf(port));
+        if (isLocal(host) && Files.isDirectory(directory)) {
+            try {
+                return new SharedMemoryConnection(directory);
+            } catch (ConnectException e) {
+                LOGGER.fine(e.getLocalizedMessage() + ", using TCP");
+            }
+        }
+        return tcp.connect(host, port);
+    }
+
+    @Override
+    public void listen(String host, int port, SimulatorDistributed sd, ExecutorService workers) {
+        tcp.listen(host, port, sd, workers);
+        Path directory = ROOT.resolve(String.valueOf(port));
+        WatchService watcher;
+        try {
+            Files.createDirectories(directory);
+            // Connections left by a previous simulation
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            watcher = directory.getFileSystem().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            LOGGER.severe(e.getLocalizedMessage() + ", listening only with TCP");
+            return;
+        }
+        new Thread(() -> accept(directory, watcher, sd), "shm-" + port).start();
+    }
+
+    /**
+     * Tells if a host is this one.
+     * @param host Name or address of the host
+     * @return True if the host is one of the addresses of this host
+     */
+    protected static boolean isLocal(String host) {
+        return LOCAL_HOSTS.computeIfAbsent(host, (name) -> {
+            try {
+                InetAddress address = InetAddress.getByName(name);
+                return address.isLoopbackAddress() || address.isAnyLocalAddress()
+                        || NetworkInterface.getByInetAddress(address) != null;
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Accepts the connections created in the directory of a port until the simulation
+     * finishes, and then removes the directory. A connection found twice (by an event
+     * and by a scan of the directory) is only accepted the first time, since the file
+     * is removed when accepted.
+     * @param directory Directory of the port
+     * @param watcher Watcher of the directory
+     * @param sd Simulator that interprets the requests
+     */
+    protected void accept(Path directory, WatchService watcher, SimulatorDistributed sd) {
+        try (watcher) {
+            // Connections created before the directory was watched
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    accept(file, sd);
+                }
+            }
+            while (!sd.isGetOut()) {
+                WatchKey key = watcher.poll(DistributedDaemon.SELECT_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    continue;
+                }
+                boolean overflow = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        accept(directory.resolve((Path) event.context()), sd);
+                    }
+                }
+                if (overflow) {
+                    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                        for (Path file : files) {
+                            accept(file, sd);
+                        }
+                    }
+                }
+                key.reset();
+            }
+        } catch (IOException e) {
+            LOGGER.severe(e.getLocalizedMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            LOGGER.fine(e.getLocalizedMessage());
+        }
+    }
+
+    private void accept(Path path, SimulatorDistributed sd) {
+        if (!path.toString().endsWith(SharedMemoryConnection.EXTENSION)) {
+            return;
+        }
+        MappedByteBuffer file;
+        try {
+            file = SharedMemoryConnection.map(path);
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Already accepted, or abandoned by the client
+            return;
+        }
+        if (SharedMemoryConnection.isSet(file, SharedMemoryConnection.CLIENT_CLOSED)) {
+            return;
+        }
+        SharedMemoryConnection.set(file, SharedMemoryConnection.ACCEPTED);
+        new Thread(() -> serve(file, sd), "shm-" + path.getFileName()).start();
+    }
+
+    /**
+     * Interprets the requests of a connection, in order, until the simulation finishes
+     * or the client closes the connection.
+     * @param file Mapped file of the connection
+     * @param sd Simulator that interprets the requests
+     */
+    protected void serve(MappedByteBuffer file, SimulatorDistributed sd) {
+        SharedMemoryRing requests = new SharedMemoryRing(file, SharedMemoryConnection.REQUESTS,
+                SharedMemoryConnection.CAPACITY);
+        SharedMemoryRing responses = new SharedMemoryRing(file, SharedMemoryConnection.RESPONSES,
+                SharedMemoryConnection.CAPACITY);
+        FrameBuffer frame = new FrameBuffer();
+        try {
+            int length;
+            while ((length = requests.read(() -> sd.isGetOut()
+                    || SharedMemoryConnection.isSet(file, SharedMemoryConnection.CLIENT_CLOSED))) >= 0) {
+                try {
+                    MessageDistributed request = MessageDistributed.fromFrame(requests.getBody(), length);
+                    sd.interpreter(request).encode(frame);
+                } catch (IOException | RuntimeException e) {
+                    // The client is waiting for a response, so it receives the error
+                    LOGGER.log(Level.SEVERE, "Error interpreting a request", e);
+                    MessageDistributed.error(e).encode(frame);
+                }
+                responses.write(frame.array(), frame.size(),
+                        () -> SharedMemoryConnection.isSet(file, SharedMemoryConnection.CLIENT_CLOSED));
+            }
+        } catch (IOException e) {
+            LOGGER.severe(e.getLocalizedMessage());
+        } finally {
+            SharedMemoryConnection.set(file, SharedMemoryConnection.SERVER_CLOSED);
+        }
+    }
+}
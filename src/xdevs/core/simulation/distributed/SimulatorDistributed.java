@@ -22,15 +22,33 @@ package xdevs.core.simulation.distributed;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 import xdevs.core.modeling.Atomic;
+import xdevs.core.modeling.Component;
+import xdevs.core.modeling.Coupled;
 import xdevs.core.modeling.Coupling;
+import xdevs.core.modeling.Port;
 import xdevs.core.modeling.distributed.CoupledDistributed;
+import xdevs.core.simulation.AbstractSimulator;
+import xdevs.core.simulation.Coordinator;
 import xdevs.core.simulation.SimulationClock;
 import xdevs.core.simulation.Simulator;
+import xdevs.core.simulation.parallel.CoordinatorPartitioned;
 import xdevs.core.util.Constants;
 
 /**
@@ -38,18 +56,150 @@ import xdevs.core.util.Constants;
  * 
  * This class implements a simulator for distributed simulation. It contains a
  * coupled parent and a boolean to indicate if the simulation has finished.
+ * 
+ * The component simulated by the node can be an atomic model or a whole coupled
+ * model, which is simulated with a local coordinator (a parallel one if the component
+ * has more than one thread, see {@link CoupledDistributed#getThreads(String)}). The
+ * couplings inside the component are handled by the local coordinator, and only the
+ * couplings of the parent model go through the network.
+ * 
+ * In a decentralized simulation (see {@link CoordinatorDistributed#setDecentralized(boolean)}),
+ * the node is a logical process of the Chandy-Misra-Bryant algorithm, like
+ * {@link xdevs.core.simulation.parallel.LogicalProcess}: it advances with its own
+ * thread as long as its input channels guarantee that no earlier input can arrive, and
+ * sends null messages to the nodes connected to its outputs with the promises
+ * computed from the lookahead of the couplings.
  */
-public class SimulatorDistributed extends Simulator {
+public class SimulatorDistributed extends AbstractSimulator {
     private static final Logger LOGGER = Logger.getLogger(SimulatorDistributed.class.getName());
 
     /**
      * Parent coupled model for the simulator.
      */
     protected CoupledDistributed parent;
+    /**
+     * Model to simulate, child of the parent.
+     */
+    protected Component model;
+    /**
+     * Local simulator of the model: a simulator for atomic models, or a coordinator
+     * for coupled models.
+     */
+    protected AbstractSimulator simulator;
+    /**
+     * Transport of the messages, given by the parent.
+     */
+    protected Transport transport;
+    /**
+     * Number of workers that interpret the messages received by the node. One of them
+     * may be blocked in a command of the coordinator waiting for other nodes, so the
+     * messages of the other nodes need at least another one.
+     */
+    public static final int NUM_WORKERS = 2;
     /**
      * Boolean to indicate if the simulation has finished.
      */
-    protected boolean getOut = false;
+    protected volatile boolean getOut = false;
+    /**
+     * Workers shared by the daemons of the node.
+     */
+    protected ExecutorService workers;
+    /**
+     * Threads that send the outputs of the model to the other nodes in parallel.
+     */
+    protected ExecutorService senders;
+    /**
+     * Couplings of the parent model that leave the model.
+     */
+    protected ArrayList<Coupling<?>> outputCouplings = new ArrayList<>();
+    /**
+     * Names of the source components of the couplings that reach the model, without
+     * repetitions.
+     */
+    protected ArrayList<String> inputSources = new ArrayList<>();
+    /**
+     * Number of messages received from other nodes and not consumed by a step yet.
+     */
+    protected int numReceived = 0;
+    /**
+     * Values received from other nodes not added to the input ports yet, in order of
+     * time. They are added by the thread that executes the transition functions, so the
+     * local simulator is only used by one thread.
+     */
+    protected PriorityQueue<PendingInput> pendingInputs = new PriorityQueue<>();
+
+    // Decentralized simulation
+    /**
+     * Names of the nodes connected to the outputs of the model.
+     */
+    protected String[] outNeighbours;
+    /**
+     * Lookahead of the couplings to each output node, the minimum one if there are
+     * several couplings.
+     */
+    protected double[] outLookaheads;
+    /**
+     * Last promise sent to each output node.
+     */
+    protected double[] sentPromises;
+    /**
+     * Clock of each input channel: the sender has promised that no message with a
+     * smaller time will be sent through it.
+     */
+    protected HashMap<String, Double> channelClocks = new HashMap<>();
+    protected double finalTime = Constants.INFINITY;
+    protected long maxSteps = Long.MAX_VALUE;
+    protected long numSteps = 0;
+    /**
+     * True if the output function of the current step has been executed.
+     */
+    protected boolean outputDone = false;
+    /**
+     * Time of the last step executed.
+     */
+    protected double lastTime = 0;
+    /**
+     * True if the node has nothing to do in the current run unless it receives new inputs.
+     */
+    protected boolean idle = false;
+    /**
+     * True if a message has been received since the last check of the runner.
+     */
+    protected boolean news = false;
+    protected volatile boolean stopped = true;
+    /**
+     * Number of messages with values sent and received, to detect the end of the run.
+     */
+    protected long numMessagesSent = 0;
+    protected long numMessagesReceived = 0;
+    /**
+     * Thread that runs the current decentralized simulation.
+     */
+    protected Thread runner = null;
+    /**
+     * Exception that has stopped the runner, reported with the status of the node.
+     */
+    protected volatile RuntimeException failure = null;
+
+    /**
+     * Values received from another node for an input port.
+     */
+    protected static class PendingInput implements Comparable<PendingInput> {
+        protected final double time;
+        protected final Port<?> port;
+        protected final Collection<?> values;
+
+        protected PendingInput(double time, Port<?> port, Collection<?> values) {
+            this.time = time;
+            this.port = port;
+            this.values = values;
+        }
+
+        @Override
+        public int compareTo(PendingInput other) {
+            return Double.compare(time, other.time);
+        }
+    }
 
     /**
      * Constructor for the distributed simulator.
@@ -58,14 +208,105 @@ public class SimulatorDistributed extends Simulator {
      * @param name Name of the model to simulate, child of this parent.
      */
     public SimulatorDistributed(CoupledDistributed parent, String name) {
-        super(new SimulationClock(), (Atomic) parent.getComponentByName(name));
+        super(new SimulationClock());
         this.parent = parent;
-        this.model = (Atomic) parent.getComponentByName(name);
+        this.model = parent.getComponentByName(name);
+        this.simulator = createSimulator();
+        this.transport = Transport.forName(parent.getTransport());
+        ConnectionPool.setTransport(transport);
         System.out.println("I am: " + model.getName());
         System.out.println("Parent: " + parent.getName());
+        LinkedHashMap<String, Double> lookaheads = new LinkedHashMap<>();
+        for (Coupling<?> c : parent.getIC()) {
+            if (c.getPortTo().getParent() == model && !inputSources.contains(c.getPortFrom().getParent().getName())) {
+                inputSources.add(c.getPortFrom().getParent().getName());
+            }
+            if (c.getPortFrom().getParent() == model) {
+                outputCouplings.add(c);
+                lookaheads.merge(c.getPortTo().getParent().getName(), c.getLookahead(), Math::min);
+            }
+        }
+        outNeighbours = lookaheads.keySet().toArray(new String[0]);
+        outLookaheads = lookaheads.values().stream().mapToDouble(Double::doubleValue).toArray();
+        sentPromises = new double[outNeighbours.length];
+        senders = Executors.newFixedThreadPool(Math.max(1, outNeighbours.length - 1));
         this.run();
     }
 
+    /**
+     * Creates the local simulator of the model.
+     * @return The local simulator.
+     */
+    protected AbstractSimulator createSimulator() {
+        if (model instanceof Coupled) {
+            Coupled coupled = (Coupled) model;
+            // The subtree is simulated as a root model, so it must not be flattened into the parent
+            coupled.setParent(null);
+            int numberOfThreads = parent.getThreads(model.getName());
+            if (numberOfThreads > 1) {
+                return new CoordinatorPartitioned(clock, coupled, numberOfThreads);
+            }
+            return new Coordinator(clock, coupled);
+        }
+        return new Simulator(clock, (Atomic) model);
+    }
+
+    @Override
+    public void initialize() {
+        simulator.initialize();
+        tL = simulator.getTL();
+        tN = simulator.getTN();
+        lastTime = clock.getTime();
+        outputDone = false;
+    }
+
+    @Override
+    public void exit() {
+        simulator.exit();
+    }
+
+    @Override
+    public double ta() {
+        return simulator.ta();
+    }
+
+    @Override
+    public void lambda() {
+        simulator.lambda();
+    }
+
+    /**
+     * Adds the values received from other nodes up to the current time to the input
+     * ports, and executes the transition functions.
+     */
+    @Override
+    public void deltfcn() {
+        synchronized (this) {
+            while (!pendingInputs.isEmpty() && pendingInputs.peek().time <= clock.getTime()) {
+                PendingInput input = pendingInputs.poll();
+                addValues(input.port, input.values);
+            }
+        }
+        simulator.deltfcn();
+        tL = simulator.getTL();
+        tN = simulator.getTN();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> void addValues(Port<E> port, Collection<?> values) {
+        port.addValues((Collection<E>) values);
+    }
+
+    @Override
+    public void clear() {
+        simulator.clear();
+    }
+
+    @Override
+    public Component getModel() {
+        return model;
+    }
+
     /**
      * Gets the boolean to indicate if the simulation has finished.
      * @return Boolean to indicate if the simulation has finished.
@@ -78,24 +319,345 @@ public class SimulatorDistributed extends Simulator {
      * Propagates the output of the model to the input of the connected models.
      */
     public void propagateOutput() {
-        MessageDistributed md;
-        String nameModel = this.model.getName();
-        for (Coupling c : parent.getIC()) {
-            if (c.getPortFrom().getParent().getName().equals(nameModel) && c.getPortFrom().getValues().size() > 0) {
-                md = new MessageDistributed(Constants.DS_PROPAGATE_OUTPUT_N2N, c.getPortTo().getName(), c.getPortFrom().getValues());
-                PingMessage pm = new PingMessage(md, parent.getHost(c.getPortTo().getParent().getName()), parent.getAuxPort(c.getPortTo().getParent().getName()));
-                pm.ping();
+        propagateOutput(false);
+    }
+
+    /**
+     * Propagates the output of the model to the input of the connected models.
+     * 
+     * The values of all the couplings that reach the same node are sent in a single
+     * message, and the messages to different nodes are sent in parallel. The method
+     * returns when all of them have been received.
+     * @param all If true, a message is sent to every connected node, even without
+     * values, so the receivers know that no more values will arrive in this step.
+     */
+    protected void propagateOutput(boolean all) {
+        send(collectOutput(all));
+    }
+
+    /**
+     * Builds the messages with the output of the model, one per connected node.
+     * @param all If true, there is a message for every connected node, even without values.
+     * @return The messages, by name of the destination node.
+     */
+    protected LinkedHashMap<String, MessageDistributed> collectOutput(boolean all) {
+        LinkedHashMap<String, MessageDistributed> batches = new LinkedHashMap<>();
+        for (Coupling<?> c : outputCouplings) {
+            if (all || !c.getPortFrom().isEmpty()) {
+                String destination = c.getPortTo().getParent().getName();
+                MessageDistributed md = batches.get(destination);
+                if (md == null) {
+                    md = new MessageDistributed(Constants.DS_PROPAGATE_OUTPUT_N2N, clock.getTime(), model.getName(), new ArrayList<>());
+                    batches.put(destination, md);
+                }
+                if (!c.getPortFrom().isEmpty()) {
+                    md.addPortValues(c.getPortTo().getName(), c.getPortFrom().getValues());
+                }
             }
         }
+        return batches;
     }
 
     /**
-     * Propagates the output of the model to the input of the connected models.
-     * @param valuesPort Collection of values for the message.
-     * @param portName Name of the port for the message.
+     * Sends messages to other nodes, in parallel, and waits until all of them have been
+     * received.
+     * @param messages The messages, by name of the destination node.
+     * @throws IllegalStateException If a message is not received, so the simulation
+     * cannot continue: the destination would wait for it forever.
+     */
+    protected void send(LinkedHashMap<String, MessageDistributed> messages) {
+        // The last message is sent by this thread, and the rest by the senders
+        ArrayList<Future<MessageDistributed>> pending = new ArrayList<>();
+        ArrayList<String> destinations = new ArrayList<>();
+        PingMessage last = null;
+        for (Map.Entry<String, MessageDistributed> batch : messages.entrySet()) {
+            if (last != null) {
+                pending.add(senders.submit(last::ping));
+            }
+            last = new PingMessage(batch.getValue(), parent.getHost(batch.getKey()), parent.getAuxPort(batch.getKey()));
+            destinations.add(batch.getKey());
+        }
+        String failed = null;
+        if (last != null && last.ping() == null) {
+            failed = destinations.get(destinations.size() - 1);
+        }
+        try {
+            for (int i = 0; i < pending.size(); ++i) {
+                try {
+                    if (pending.get(i).get() == null && failed == null) {
+                        failed = destinations.get(i);
+                    }
+                } catch (ExecutionException e) {
+                    LOGGER.severe(e.getLocalizedMessage());
+                    if (failed == null) {
+                        failed = destinations.get(i);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending the output of " + model.getName(), e);
+        }
+        if (failed != null) {
+            throw new IllegalStateException("Output of " + model.getName() + " not received by " + failed);
+        }
+    }
+
+    /**
+     * Receives the output of another node, with the values of all its couplings to
+     * this model. Messages from several nodes may arrive at the same time, so the
+     * values are stored until the transition functions.
+     * @param md Message with the values of each input port.
+     */
+    public synchronized void propagateOutputN2N(MessageDistributed md) {
+        for (int i = 0; i < md.getBatchPorts().size(); ++i) {
+            pendingInputs.add(new PendingInput(md.getTime(), this.model.getInPort(md.getBatchPorts().get(i)), md.getBatchValues().get(i)));
+        }
+        numReceived++;
+        if (!md.getBatchPorts().isEmpty()) {
+            numMessagesReceived++;
+            idle = false;
+        }
+        advanceChannelClock(md.getMessage(), md.getTime());
+    }
+
+    /**
+     * Receives a null message from another node.
+     * @param source Name of the sender.
+     * @param promise Time promised by the sender: it will not send messages with a smaller time.
+     */
+    public synchronized void receivePromise(String source, double promise) {
+        advanceChannelClock(source, promise);
+    }
+
+    private void advanceChannelClock(String source, double time) {
+        Double channelClock = channelClocks.get(source);
+        if (channelClock == null || time > channelClock) {
+            channelClocks.put(source, time);
+        }
+        news = true;
+        notifyAll();
+    }
+
+    /**
+     * Prepares a decentralized run. No other node can be running.
+     * @param time Lower bound of the time of the messages that the node can receive.
+     * @param finalTime Steps at this time or later are not executed.
+     * @param maxSteps Maximum number of steps.
+     */
+    public synchronized void prepare(double time, double finalTime, long maxSteps) {
+        for (String source : inputSources) {
+            channelClocks.put(source, time);
+        }
+        Arrays.fill(sentPromises, Double.NEGATIVE_INFINITY);
+        this.finalTime = finalTime;
+        this.maxSteps = maxSteps;
+        numSteps = 0;
+        idle = false;
+        news = false;
+    }
+
+    /**
+     * Starts the decentralized run prepared with {@link #prepare(double, double, long)}
+     * in a new thread.
+     */
+    public void start() {
+        stopped = false;
+        runner = new Thread(this::runDecentralized, model.getName() + "-runner");
+        runner.start();
+    }
+
+    /**
+     * Stops the decentralized run, once the coordinator has detected its end.
+     * @throws InterruptedException If interrupted while waiting for the runner.
+     */
+    public void stop() throws InterruptedException {
+        synchronized (this) {
+            stopped = true;
+            notifyAll();
+        }
+        if (runner != null) {
+            runner.join();
+            runner = null;
+        }
+    }
+
+    /**
+     * Executes steps as the input channels allow, until the coordinator stops the run.
+     */
+    protected void runDecentralized() {
+        try {
+            while (!stopped) {
+                boolean progress = stepDecentralized();
+                sendPromises();
+                synchronized (this) {
+                    if (!progress && !news && !stopped) {
+                        idle = isIdle();
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            LOGGER.severe(e.getLocalizedMessage());
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    news = false;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Reported to the coordinator with the next status
+            LOGGER.severe(e.getLocalizedMessage());
+            failure = e;
+        }
+    }
+
+    /**
+     * Advances the simulation of the node as much as the input channels allow. The
+     * output function at time t only needs promises equal to t, since inputs at t do
+     * not change the output at t, while the transition functions need greater ones.
+     * @return true if the output or the transition functions were executed.
+     */
+    protected boolean stepDecentralized() {
+        boolean progress = false;
+        while (numSteps < maxSteps && !stopped) {
+            double t, eit;
+            synchronized (this) {
+                t = nextTime();
+                eit = eit();
+            }
+            if (t >= finalTime) {
+                break;
+            }
+            if (!outputDone && tN == t && eit >= t) {
+                clock.setTime(t);
+                lambda();
+                LinkedHashMap<String, MessageDistributed> batches = collectOutput(false);
+                synchronized (this) {
+                    numMessagesSent += batches.size();
+                }
+                send(batches);
+                outputDone = true;
+                progress = true;
+            }
+            if (eit <= t) {
+                break;
+            }
+            clock.setTime(t);
+            deltfcn();
+            clear();
+            outputDone = false;
+            lastTime = t;
+            numSteps++;
+            progress = true;
+            sendPromises();
+        }
+        return progress;
+    }
+
+    /**
+     * Time of the next step of the node, due to internal events or to received inputs.
+     * @return The time of the next step.
      */
-    public void propagateOutputN2N(Collection valuesPort, String portName) {
-        this.model.getInPort(portName).addValues(valuesPort);
+    protected synchronized double nextTime() {
+        PendingInput first = pendingInputs.peek();
+        return (first != null && first.time < tN) ? first.time : tN;
+    }
+
+    /**
+     * Earliest input time: lower bound of the times of the messages that can still be
+     * received.
+     * @return The earliest input time.
+     */
+    protected synchronized double eit() {
+        double eit = Constants.INFINITY;
+        for (String source : inputSources) {
+            eit = Math.min(eit, channelClocks.get(source));
+        }
+        return eit;
+    }
+
+    /**
+     * Tells if the node has nothing more to do in the current run unless it receives
+     * new inputs.
+     * @return true if the node is idle.
+     */
+    protected synchronized boolean isIdle() {
+        return numSteps >= maxSteps || nextTime() >= finalTime;
+    }
+
+    /**
+     * Sends a null message to every output node whose promise has grown.
+     */
+    protected void sendPromises() {
+        LinkedHashMap<String, MessageDistributed> promises = new LinkedHashMap<>();
+        synchronized (this) {
+            double earliest = Math.min(nextTime(), eit());
+            boolean exhausted = numSteps >= maxSteps;
+            for (int k = 0; k < outNeighbours.length; ++k) {
+                double promise = Constants.INFINITY;
+                if (!exhausted) {
+                    promise = earliest + outLookaheads[k];
+                    // If imminent, the values have already been sent in this step
+                    if (!(outputDone && tN == clock.getTime()) && tN < promise) {
+                        promise = tN;
+                    }
+                }
+                if (promise > sentPromises[k]) {
+                    sentPromises[k] = promise;
+                    promises.put(outNeighbours[k], new MessageDistributed(Constants.DS_NULL_MESSAGE, promise, model.getName(), new ArrayList<>()));
+                }
+            }
+        }
+        send(promises);
+    }
+
+    /**
+     * Gets the state of the node in the current decentralized run: whether it is idle
+     * and the number of messages with values sent and received.
+     * @return The state of the node.
+     * @throws IllegalStateException If the run has failed.
+     */
+    public synchronized List<Object> getStatus() {
+        if (failure != null) {
+            throw new IllegalStateException("Decentralized run of " + model.getName() + " failed", failure);
+        }
+        return Arrays.asList(idle, numMessagesSent, numMessagesReceived);
+    }
+
+    /**
+     * Executes a whole simulation step in a single command: the lambda function if the
+     * model is imminent, the exchange of output values with the other nodes, the
+     * transition functions and the clear of the ports.
+     * 
+     * Imminent nodes send a message to each of their connected nodes, so every node
+     * knows how many messages it must wait for before its transition functions.
+     * @param imminents Names of the imminent components of the parent model.
+     * @throws InterruptedException If interrupted while waiting for other nodes.
+     * @throws IllegalStateException If the simulation finishes while waiting for other
+     * nodes, after a failure in one of them.
+     */
+    public void step(Collection<?> imminents) throws InterruptedException {
+        int numExpected = 0;
+        for (String source : inputSources) {
+            if (imminents.contains(source)) {
+                numExpected++;
+            }
+        }
+        if (imminents.contains(model.getName())) {
+            this.lambda();
+            this.propagateOutput(true);
+        }
+        synchronized (this) {
+            while (numReceived < numExpected) {
+                if (getOut) {
+                    throw new IllegalStateException("Simulation finished while " + model.getName() + " was waiting for inputs");
+                }
+                wait();
+            }
+            numReceived -= numExpected;
+        }
+        this.deltfcn();
+        this.clear();
     }
 
     /**
@@ -107,58 +669,97 @@ public class SimulatorDistributed extends Simulator {
         MessageDistributed response = null;
         Date date = new Date();
         DateFormat now = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss.");
-        try {
-            switch (md.getCommand()) {
-                case Constants.DS_NONE:
-                    response = new MessageDistributed("NONE");
-                    break;
-                case Constants.DS_INITIALIZE:
-                    clock.setTime(Double.parseDouble(md.getMessage()));
-                    this.initialize();
-                    response = new MessageDistributed("INITIALIZE: OK At " + now.format(date));
-                    break;
-                case Constants.DS_TA:
-                    clock.setTime(Double.parseDouble(md.getMessage()));
-                    response = new MessageDistributed(String.valueOf(this.getTN()));
-                    break;
-                case Constants.DS_LAMBDA:
-                    clock.setTime(Double.parseDouble(md.getMessage()));
-                    this.lambda();
-                    response = new MessageDistributed("LAMBDA: OK At " + now.format(date));
-                    break;
-                case Constants.DS_PROPAGATE_OUTPUT:
-                    clock.setTime(Double.parseDouble(md.getMessage()));
-                    this.propagateOutput();
-                    response = new MessageDistributed("PROPAGATE_OUTPUT: OK At " + now.format(date));
-                    break;
-                case Constants.DS_PROPAGATE_OUTPUT_N2N:
-                    this.propagateOutputN2N(md.getValuesPort(), md.getMessage());
-                    response = new MessageDistributed("PROPAGATE_OUTPUT_N2N: OK At " + now.format(date));
-                    break;
-                case Constants.DS_DELTFCN:
-                    clock.setTime(Double.parseDouble(md.getMessage()));
-                    this.deltfcn();
-                    response = new MessageDistributed("DELTFCN: OK At " + now.format(date));
-                    break;
-                case Constants.DS_CLEAR:
-                    clock.setTime(Double.parseDouble(md.getMessage()));
-                    this.clear();
-                    response = new MessageDistributed("CLEAR: OK At " + now.format(date));
-                    break;
-                case Constants.DS_EXIT:
-                    clock.setTime(Double.parseDouble(md.getMessage()));
-                    this.exit();
-                    response = new MessageDistributed("EXIT: OK At " + now.format(date));
+        switch (md.getCommand()) {
+            case Constants.DS_NONE:
+                response = new MessageDistributed("NONE");
+                break;
+            case Constants.DS_INITIALIZE:
+                clock.setTime(md.getTime());
+                this.initialize();
+                response = new MessageDistributed(Constants.DS_INITIALIZE, this.getTN(), "INITIALIZE: OK At " + now.format(date), new ArrayList<>());
+                break;
+            case Constants.DS_TA:
+                clock.setTime(md.getTime());
+                response = new MessageDistributed(Constants.DS_TA, this.getTN());
+                break;
+            case Constants.DS_LAMBDA:
+                clock.setTime(md.getTime());
+                this.lambda();
+                response = new MessageDistributed("LAMBDA: OK At " + now.format(date));
+                break;
+            case Constants.DS_PROPAGATE_OUTPUT:
+                clock.setTime(md.getTime());
+                this.propagateOutput();
+                response = new MessageDistributed("PROPAGATE_OUTPUT: OK At " + now.format(date));
+                break;
+            case Constants.DS_PROPAGATE_OUTPUT_N2N:
+                this.propagateOutputN2N(md);
+                response = new MessageDistributed("PROPAGATE_OUTPUT_N2N: OK At " + now.format(date));
+                break;
+            case Constants.DS_DELTFCN:
+                clock.setTime(md.getTime());
+                this.deltfcn();
+                response = new MessageDistributed("DELTFCN: OK At " + now.format(date));
+                break;
+            case Constants.DS_CLEAR:
+                clock.setTime(md.getTime());
+                this.clear();
+                response = new MessageDistributed("CLEAR: OK At " + now.format(date));
+                break;
+            case Constants.DS_STEP:
+                clock.setTime(md.getTime());
+                try {
+                    this.step(new HashSet<>(md.getValuesPort()));
+                } catch (InterruptedException e) {
+                    LOGGER.severe(e.getLocalizedMessage());
+                    Thread.currentThread().interrupt();
+                }
+                response = new MessageDistributed(Constants.DS_STEP, this.getTN());
+                break;
+            case Constants.DS_NULL_MESSAGE:
+                this.receivePromise(md.getMessage(), md.getTime());
+                response = new MessageDistributed("NULL_MESSAGE: OK At " + now.format(date));
+                break;
+            case Constants.DS_PREPARE:
+                List<?> parameters = new ArrayList<>(md.getValuesPort());
+                this.prepare(md.getTime(), (Double) parameters.get(0), (Long) parameters.get(1));
+                response = new MessageDistributed("PREPARE: OK At " + now.format(date));
+                break;
+            case Constants.DS_RUN:
+                this.start();
+                response = new MessageDistributed("RUN: OK At " + now.format(date));
+                break;
+            case Constants.DS_STATUS:
+                response = new MessageDistributed(Constants.DS_STATUS, 0, "", this.getStatus());
+                break;
+            case Constants.DS_STOP:
+                try {
+                    this.stop();
+                } catch (InterruptedException e) {
+                    LOGGER.severe(e.getLocalizedMessage());
+                    Thread.currentThread().interrupt();
+                }
+                response = new MessageDistributed(Constants.DS_STOP, this.nextTime(), "", Arrays.asList(lastTime));
+                break;
+            case Constants.DS_EXIT:
+                clock.setTime(md.getTime());
+                this.exit();
+                response = new MessageDistributed("EXIT: OK At " + now.format(date));
+                ConnectionPool.closeAll();
+                synchronized (this) {
+                    // Releases a step or a run that waits for a node that has failed
                     this.getOut = true;
-                    break;
-                default:
-                    response = new MessageDistributed("BAD_COMMAND");
-                    break;
-            }
-
-        } catch (NumberFormatException ex) {
-            LOGGER.severe(ex.getLocalizedMessage());
+                    this.stopped = true;
+                    notifyAll();
+                }
+                workers.shutdown();
+                senders.shutdown();
+                break;
+            default:
+                response = new MessageDistributed("BAD_COMMAND");
+                break;
         }
+
         return response;
     }
 
@@ -166,12 +767,12 @@ public class SimulatorDistributed extends Simulator {
      * Run the simulator.
      */
     public void run() {
+        workers = Executors.newFixedThreadPool(NUM_WORKERS);
+        String host = parent.getHost(model.getName());
         // For to attend the communication with the coordinator
-        DistributedDaemon mainDaemon = new DistributedDaemon(parent.getMainPort(model.getName()), this);
-        mainDaemon.start();
+        transport.listen(host, parent.getMainPort(model.getName()), this, workers);
         // For to attend the communication with the workers (At this case to propagate)
-        DistributedDaemon auxDaemon = new DistributedDaemon(parent.getAuxPort(model.getName()), this);
-        auxDaemon.start();
+        transport.listen(host, parent.getAuxPort(model.getName()), this, workers);
     }
 
 }
@@ -0,0 +1,93 @@
+/*
+* File: SocketConnection.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Long-lived TCP connection to a distributed node.
+ *
+ * The connection is opened once and reused for all the requests sent to the node.
+ * Each request is a binary frame (see {@link MessageDistributed#encode(FrameBuffer)})
+ * followed by the frame of the response, both encoded in buffers reused by the
+ * connection. Requests from different threads are
+ * serialized, so each connection has at most one request in flight.
+ */
+public class SocketConnection implements DistributedConnection {
+
+    protected String host;
+    protected int port;
+    protected Socket socket;
+    protected DataInputStream in;
+    protected DataOutputStream out;
+    /**
+     * Reusable buffers for the request and the response.
+     */
+    protected FrameBuffer request = new FrameBuffer();
+    protected byte[] response = new byte[1024];
+
+    /**
+     * Opens a connection.
+     * @param host Host of the node
+     * @param port Port of the node
+     * @throws IOException If the connection cannot be opened
+     */
+    public SocketConnection(String host, int port) throws IOException {
+        this.host = host;
+        this.port = port;
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    @Override
+    public synchronized MessageDistributed request(MessageDistributed message) throws IOException {
+        message.encode(request);
+        out.write(request.array(), 0, request.size());
+        out.flush();
+        int length = in.readInt();
+        if (response.length < length) {
+            response = new byte[Math.max(length, 2 * response.length)];
+        }
+        in.readFully(response, 0, length);
+        return MessageDistributed.fromFrame(response, length);
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing to do, the connection is discarded
+        }
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + port;
+    }
+}
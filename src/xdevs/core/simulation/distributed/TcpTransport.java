@@ -0,0 +1,41 @@
+/*
+* File: TcpTransport.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/17 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Transport over TCP sockets: persistent connections ({@link SocketConnection}) and a
+ * selector-based daemon per port ({@link DistributedDaemon}).
+ */
+public class TcpTransport implements Transport {
+
+    @Override
+    public DistributedConnection connect(String host, int port) throws IOException {
+        return new SocketConnection(host, port);
+    }
+
+    @Override
+    public void listen(String host, int port, SimulatorDistributed sd, ExecutorService workers) {
+        new DistributedDaemon(port, sd, workers).start();
+    }
+}
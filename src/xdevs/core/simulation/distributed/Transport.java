@@ -0,0 +1,80 @@
+/*
+* File: Transport.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/17 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.distributed;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Transport of the messages of a distributed simulation.
+ *
+ * A transport opens the connections to the nodes (see {@link ConnectionPool}) and
+ * serves the requests received by a node. It is selected with the transport attribute
+ * of the root element of the model (see
+ * {@link xdevs.core.modeling.distributed.CoupledDistributed}):
+ * <ul>
+ * <li>auto (default): shared memory between the processes of the same host and
+ * sockets between different hosts, see {@link SharedMemoryTransport}.</li>
+ * <li>tcp: sockets, see {@link TcpTransport}.</li>
+ * <li>loopback: in-memory queues, with all the nodes in the same process, see
+ * {@link LoopbackTransport}.</li>
+ * </ul>
+ */
+public interface Transport {
+
+    /**
+     * Opens a connection to a node.
+     * @param host Host of the node
+     * @param port Port of the node
+     * @return The connection
+     * @throws IOException If the connection cannot be opened
+     */
+    DistributedConnection connect(String host, int port) throws IOException;
+
+    /**
+     * Serves the requests received by a node through one of its ports, until the
+     * simulation finishes.
+     * @param host Host of the node
+     * @param port Port of the node
+     * @param sd Simulator that interprets the requests
+     * @param workers Workers of the node
+     */
+    void listen(String host, int port, SimulatorDistributed sd, ExecutorService workers);
+
+    /**
+     * Gets a transport by name.
+     * @param name Name of the transport: auto, tcp or loopback. Empty for the default one.
+     * @return The transport
+     */
+    static Transport forName(String name) {
+        switch (name) {
+            case "":
+            case "auto":
+                return new SharedMemoryTransport();
+            case "tcp":
+                return new TcpTransport();
+            case "loopback":
+                return new LoopbackTransport();
+            default:
+                throw new IllegalArgumentException("Unknown transport: " + name);
+        }
+    }
+}
@@ -22,6 +22,7 @@ package xdevs.core.simulation.dynamic;
 
 import java.util.Collection;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import xdevs.core.examples.efp.Efp;
 import xdevs.core.modeling.Atomic;
@@ -40,6 +41,8 @@ import xdevs.core.util.DevsLogger;
  */
 public class CoordinatorDynamic extends Coordinator {
 
+    private static final Logger LOGGER = Logger.getLogger(CoordinatorDynamic.class.getName());
+
     /**
      * Constructor for the dynamic coordinator.
      *
@@ -48,6 +51,7 @@ public class CoordinatorDynamic extends Coordinator {
      */
     public CoordinatorDynamic(SimulationClock clock, Coupled model) {
         super(clock, model, false);
+        routingEnabled = false;
     }
 
     /**
@@ -57,8 +61,33 @@ public class CoordinatorDynamic extends Coordinator {
      */
     public CoordinatorDynamic(Coupled model) {
         super(model, false);
+        routingEnabled = false;
     }
     
+    /**
+     * The activity-driven mode is not supported by the dynamic coordinator, since the
+     * structure of the model may change at any transition.
+     * @param activityDriven ignored.
+     */
+    @Override
+    public void setActivityDriven(boolean activityDriven) {
+        if (activityDriven) {
+            LOGGER.warning("Activity-driven mode is not supported by " + CoordinatorDynamic.class.getSimpleName());
+        }
+    }
+
+    /**
+     * The routing table is not supported by the dynamic coordinator, since the
+     * couplings may change at any transition. Values are propagated level by level.
+     * @param routingEnabled ignored.
+     */
+    @Override
+    public void setRoutingEnabled(boolean routingEnabled) {
+        if (routingEnabled) {
+            LOGGER.fine("Routing table is not supported by " + CoordinatorDynamic.class.getSimpleName());
+        }
+    }
+
     @Override
     protected void buildHierarchy() {
           // Build hierarchy
@@ -80,6 +109,7 @@ public class CoordinatorDynamic extends Coordinator {
         for (AbstractSimulator simulator : simulators) {
             simulator.deltfcn();
         }
+        updateScheduler();
         this.structuralTransition();
         tL = clock.getTime();
         tN = tL + ta();
@@ -89,6 +119,7 @@ public class CoordinatorDynamic extends Coordinator {
      * Perform a structural transition in the model.
      * 
      * This method checks if the model has changed its structure, and updates the simulators accordingly.
+     * Since the list of simulators changes, the scheduler is rebuilt.
      */
     public void structuralTransition() {
         if(!model.structuralTransition())
@@ -101,17 +132,20 @@ public class CoordinatorDynamic extends Coordinator {
             if (component instanceof Coupled) {
                 if (simulators.stream().noneMatch(simulator -> simulator.getModel() == component)) {
                     CoordinatorDynamic coordinator = new CoordinatorDynamic(clock, (Coupled) component);
+                    attach(coordinator);
                     coordinator.initialize();
                     simulators.add(coordinator);
                 }
             } else if (component instanceof Atomic) {
                 if (simulators.stream().noneMatch(simulator -> simulator.getModel() == component)) {
                     Simulator simulator = new Simulator(clock, (Atomic) component);
+                    attach(simulator);
                     simulator.initialize();
                     simulators.add(simulator);
                 }
             }
         });
+        buildScheduler();
     }
 
     public static void main(String[] args) {
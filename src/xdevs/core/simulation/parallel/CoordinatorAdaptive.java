@@ -0,0 +1,216 @@
+/*
+* File: CoordinatorAdaptive.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.parallel;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import xdevs.core.examples.efp.Efp;
+import xdevs.core.modeling.Coupled;
+import xdevs.core.simulation.AbstractSimulator;
+import xdevs.core.simulation.SimulationClock;
+import xdevs.core.util.DevsLogger;
+
+/**
+ * Parallel coordinator that decides, in each phase of each step, whether the active
+ * simulators are executed in the fork/join pool or sequentially in the coordinator
+ * thread.
+ *
+ * The coordinator keeps, for the output and the transition functions, an estimation
+ * of the cost of executing one simulator (measured in sequential phases) and of the
+ * overhead of dispatching a phase to the pool (measured in parallel phases). A phase
+ * is executed in parallel only when the work saved by splitting the active
+ * simulators among the threads is larger than that overhead. Thus, steps with one or
+ * two imminent simulators are executed inline, and the pool is used again as soon
+ * as the active set grows. While the pool is used, a phase is executed sequentially
+ * from time to time to refresh the cost per simulator.
+ *
+ * The coordinator always works in activity-driven mode, since the size of the active
+ * set drives the decision.
+ */
+public class CoordinatorAdaptive extends CoordinatorForkJoin {
+
+    private static final Logger LOGGER = Logger.getLogger(CoordinatorAdaptive.class.getName());
+
+    /**
+     * Weight of the last measurement in the moving averages.
+     */
+    protected static final double SMOOTHING = 0.1;
+    /**
+     * Initial estimation of the overhead of a parallel phase, in nanoseconds.
+     */
+    protected static final double INITIAL_OVERHEAD = 20000;
+    /**
+     * Number of consecutive parallel phases after which a sequential phase is
+     * executed to measure the cost per simulator again.
+     */
+    protected static final int SAMPLING_PERIOD = 64;
+
+    /**
+     * Estimated cost of executing one simulator, in nanoseconds, for each phase.
+     */
+    protected double[] costPerSimulator = new double[] { 0, 0 };
+    /**
+     * Estimated overhead of executing a phase in the pool, in nanoseconds.
+     */
+    protected double[] parallelOverhead = new double[] { INITIAL_OVERHEAD, INITIAL_OVERHEAD };
+    /**
+     * Parallel phases executed since the last sequential one, for each phase.
+     */
+    protected int[] parallelRun = new int[] { 0, 0 };
+    protected long numSequentialPhases = 0;
+    protected long numParallelPhases = 0;
+
+    /**
+     * Constructor for the adaptive coordinator.
+     * @param clock Simulation clock
+     * @param model Coupled model
+     * @param numberOfThreads Number of threads
+     */
+    public CoordinatorAdaptive(SimulationClock clock, Coupled model, int numberOfThreads) {
+        super(clock, model, numberOfThreads);
+        super.setActivityDriven(true);
+    }
+
+    /**
+     * Constructor for the adaptive coordinator.
+     * @param model Coupled model
+     * @param numberOfThreads Number of threads
+     */
+    public CoordinatorAdaptive(Coupled model, int numberOfThreads) {
+        this(new SimulationClock(), model, numberOfThreads);
+    }
+
+    /**
+     * Constructor for the adaptive coordinator. It uses the number of available processors.
+     * @param model Coupled model
+     */
+    public CoordinatorAdaptive(Coupled model) {
+        this(new SimulationClock(), model, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for the adaptive coordinator. It uses the number of available processors.
+     * @param clock Simulation clock
+     * @param model Coupled model
+     */
+    public CoordinatorAdaptive(SimulationClock clock, Coupled model) {
+        this(clock, model, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The adaptive coordinator is always activity-driven.
+     * @param activityDriven ignored.
+     */
+    @Override
+    public void setActivityDriven(boolean activityDriven) {
+        if (!activityDriven) {
+            LOGGER.fine(CoordinatorAdaptive.class.getSimpleName() + " is always activity-driven");
+        }
+    }
+
+    /**
+     * Decides if a phase is executed in parallel.
+     * @param phase {@link TaskChunk#LAMBDA} or {@link TaskChunk#DELTFCN}
+     * @param numSimulators Number of active simulators
+     * @return true if the phase must be dispatched to the pool.
+     */
+    protected boolean isParallelWorthwhile(int phase, int numSimulators) {
+        if (numberOfThreads < 2 || numSimulators < 2 || costPerSimulator[phase] == 0) {
+            return false;
+        }
+        if (parallelRun[phase] >= SAMPLING_PERIOD) {
+            return false;
+        }
+        int numWorkers = Math.min(numberOfThreads, numSimulators);
+        double saved = numSimulators * costPerSimulator[phase] * (1.0 - 1.0 / numWorkers);
+        return saved > parallelOverhead[phase];
+    }
+
+    @Override
+    protected void execute(int phase, int[] handles, int numSimulators) {
+        if (numSimulators == 0) {
+            return;
+        }
+        boolean parallel = isParallelWorthwhile(phase, numSimulators);
+        long start = System.nanoTime();
+        if (parallel) {
+            super.execute(phase, handles, numSimulators);
+        } else {
+            for (int i = 0; i < numSimulators; ++i) {
+                AbstractSimulator simulator = simulators.get((handles != null) ? handles[i] : i);
+                if (phase == TaskChunk.LAMBDA) {
+                    simulator.lambda();
+                } else {
+                    simulator.deltfcn();
+                }
+            }
+        }
+        double elapsed = System.nanoTime() - start;
+        if (parallel) {
+            numParallelPhases++;
+            parallelRun[phase]++;
+            int numWorkers = Math.min(numberOfThreads, numSimulators);
+            double overhead = Math.max(0, elapsed - numSimulators * costPerSimulator[phase] / numWorkers);
+            parallelOverhead[phase] += SMOOTHING * (overhead - parallelOverhead[phase]);
+        } else {
+            numSequentialPhases++;
+            parallelRun[phase] = 0;
+            double cost = elapsed / numSimulators;
+            if (costPerSimulator[phase] == 0) {
+                costPerSimulator[phase] = cost;
+            } else {
+                costPerSimulator[phase] += SMOOTHING * (cost - costPerSimulator[phase]);
+            }
+        }
+    }
+
+    @Override
+    public void exit() {
+        super.exit();
+        LOGGER.fine("Sequential phases: " + numSequentialPhases + ", parallel phases: " + numParallelPhases);
+    }
+
+    /**
+     * Gets the number of phases executed in the coordinator thread.
+     * @return The number of sequential phases.
+     */
+    public long getNumSequentialPhases() {
+        return numSequentialPhases;
+    }
+
+    /**
+     * Gets the number of phases executed in the fork/join pool.
+     * @return The number of parallel phases.
+     */
+    public long getNumParallelPhases() {
+        return numParallelPhases;
+    }
+
+    public static void main(String[] args) {
+        DevsLogger.setup(Level.INFO);
+        Efp efp = new Efp("EFP", 1, 3, 1000000);
+        CoordinatorAdaptive coordinator = new CoordinatorAdaptive(efp);
+        coordinator.initialize();
+        coordinator.simulate(Long.MAX_VALUE);
+        coordinator.exit();
+    }
+}
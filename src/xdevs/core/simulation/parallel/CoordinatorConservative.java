@@ -0,0 +1,448 @@
+/*
+* File: CoordinatorConservative.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.parallel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import xdevs.core.examples.efp.Efp;
+import xdevs.core.modeling.Atomic;
+import xdevs.core.modeling.Component;
+import xdevs.core.modeling.Coupled;
+import xdevs.core.modeling.Coupling;
+import xdevs.core.simulation.Coordinator;
+import xdevs.core.simulation.SimulationClock;
+import xdevs.core.util.Constants;
+import xdevs.core.util.DevsLogger;
+
+/**
+ * Conservative parallel coordinator, based on the Chandy-Misra-Bryant algorithm.
+ *
+ * The model is flattened and its atomic models are partitioned in logical processes
+ * ({@link LogicalProcess}), each one with its own clock and event list, and executed by
+ * its own thread. Logical processes do not wait for the global minimum time of next
+ * event: they advance as long as their input channels guarantee that no earlier input
+ * can arrive, exchanging null messages computed from the lookahead declared on the
+ * couplings (see {@link Coupling#getLookahead()}).
+ *
+ * Atomic models connected by couplings without lookahead are always placed in the same
+ * logical process, so every coupling between logical processes has a positive
+ * lookahead and the simulation cannot deadlock. Thus, a model without lookahead runs in
+ * a single logical process, while independent subsystems (for instance, production
+ * lines that only share the simulation time) or subsystems connected through
+ * couplings with lookahead run concurrently. The groups of models are distributed among
+ * the logical processes balancing the number of atomic models.
+ *
+ * Some considerations:
+ * <ul>
+ * <li>The model is simulated as a closed model: couplings with the ports of the root
+ * model are ignored, and inputs cannot be injected.</li>
+ * <li>Values sent to other logical processes are copied in a new list, but the values
+ * themselves are shared. Models connected through couplings with lookahead must not use
+ * message pools (see {@link xdevs.core.modeling.MessagePool}).</li>
+ * <li>When the number of iterations is limited, each logical process counts its own
+ * steps.</li>
+ * <li>Small lookaheads compared to the time between events generate many null
+ * messages.</li>
+ * </ul>
+ */
+public class CoordinatorConservative extends Coordinator {
+
+    private static final Logger LOGGER = Logger.getLogger(CoordinatorConservative.class.getName());
+
+    protected int numberOfThreads;
+    protected LogicalProcess[] processes = new LogicalProcess[0];
+
+    // State of the current run
+    protected double finalTime = Constants.INFINITY;
+    protected long maxSteps = Long.MAX_VALUE;
+    protected volatile boolean finished = false;
+    protected int numIdle = 0;
+    protected final AtomicLong inFlight = new AtomicLong(0);
+
+    /**
+     * Constructor for the conservative coordinator.
+     * @param clock Simulation clock
+     * @param model Coupled model
+     * @param numberOfThreads Maximum number of logical processes
+     */
+    public CoordinatorConservative(SimulationClock clock, Coupled model, int numberOfThreads) {
+        super(clock, model, true);
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+    }
+
+    /**
+     * Constructor for the conservative coordinator.
+     * @param model Coupled model
+     * @param numberOfThreads Maximum number of logical processes
+     */
+    public CoordinatorConservative(Coupled model, int numberOfThreads) {
+        this(new SimulationClock(), model, numberOfThreads);
+    }
+
+    /**
+     * Constructor for the conservative coordinator. It uses the number of available processors.
+     * @param model Coupled model
+     */
+    public CoordinatorConservative(Coupled model) {
+        this(new SimulationClock(), model, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for the conservative coordinator. It uses the number of available processors.
+     * @param clock Simulation clock
+     * @param model Coupled model
+     */
+    public CoordinatorConservative(SimulationClock clock, Coupled model) {
+        this(clock, model, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void initialize() {
+        simulators.clear();
+        if (!model.getEIC().isEmpty() || !model.getEOC().isEmpty()) {
+            LOGGER.warning("Couplings with the ports of " + model.getName() + " are ignored");
+        }
+        // Groups of atomic models connected without lookahead
+        ArrayList<Atomic> atomics = new ArrayList<>();
+        HashMap<Component, Integer> atomicIndex = new HashMap<>();
+        for (Component component : model.getComponents()) {
+            atomicIndex.put(component, atomics.size());
+            atomics.add((Atomic) component);
+        }
+        int[] groups = new int[atomics.size()];
+        for (int i = 0; i < groups.length; ++i) {
+            groups[i] = i;
+        }
+        for (Coupling<?> c : model.getIC()) {
+            if (c.getLookahead() <= 0) {
+                int a = find(groups, atomicIndex.get(c.getPortFrom().getParent()));
+                int b = find(groups, atomicIndex.get(c.getPortTo().getParent()));
+                groups[a] = b;
+            }
+        }
+        ArrayList<Integer> roots = new ArrayList<>();
+        int[] groupSizes = new int[groups.length];
+        for (int i = 0; i < groups.length; ++i) {
+            int root = find(groups, i);
+            if (groupSizes[root]++ == 0) {
+                roots.add(root);
+            }
+        }
+        // Largest groups first, each one to the least loaded logical process
+        roots.sort((a, b) -> Integer.compare(groupSizes[b], groupSizes[a]));
+        int numProcesses = Math.max(1, Math.min(numberOfThreads, roots.size()));
+        processes = new LogicalProcess[numProcesses];
+        int[] loads = new int[numProcesses];
+        int[] groupProcess = new int[groups.length];
+        for (int i = 0; i < numProcesses; ++i) {
+            processes[i] = new LogicalProcess(i, this, clock.getTime());
+        }
+        for (int root : roots) {
+            int target = 0;
+            for (int i = 1; i < numProcesses; ++i) {
+                if (loads[i] < loads[target]) {
+                    target = i;
+                }
+            }
+            groupProcess[root] = target;
+            loads[target] += groupSizes[root];
+        }
+        int[] processOf = new int[atomics.size()];
+        int[] handleOf = new int[atomics.size()];
+        for (int i = 0; i < atomics.size(); ++i) {
+            processOf[i] = groupProcess[find(groups, i)];
+            handleOf[i] = processes[processOf[i]].addAtomic(atomics.get(i));
+        }
+        buildChannels(atomicIndex, processOf, handleOf);
+        for (LogicalProcess process : processes) {
+            process.initialize();
+            simulators.addAll(process.simulators);
+        }
+        LOGGER.fine(atomics.size() + " atomic models in " + roots.size() + " groups and " + numProcesses
+                + " logical processes");
+        tL = clock.getTime();
+        tN = nextTime();
+    }
+
+    private static int find(int[] groups, int i) {
+        while (groups[i] != i) {
+            groups[i] = groups[groups[i]];
+            i = groups[i];
+        }
+        return i;
+    }
+
+    /**
+     * Distributes the couplings among the logical processes and builds the channels
+     * between them.
+     * @param atomicIndex Index of each atomic model
+     * @param processOf Logical process of each atomic model
+     * @param handleOf Handle of each atomic model in its logical process
+     */
+    protected void buildChannels(HashMap<Component, Integer> atomicIndex, int[] processOf, int[] handleOf) {
+        int numProcesses = processes.length;
+        List<List<ArrayList<Coupling<?>>>> local = new ArrayList<>();
+        List<List<ArrayList<Coupling<?>>>> remote = new ArrayList<>();
+        for (LogicalProcess process : processes) {
+            List<ArrayList<Coupling<?>>> l = new ArrayList<>();
+            List<ArrayList<Coupling<?>>> r = new ArrayList<>();
+            for (int h = 0; h < process.simulators.size(); ++h) {
+                l.add(new ArrayList<>());
+                r.add(new ArrayList<>());
+            }
+            local.add(l);
+            remote.add(r);
+        }
+        double[][] lookaheads = new double[numProcesses][numProcesses];
+        for (double[] row : lookaheads) {
+            Arrays.fill(row, Double.NaN);
+        }
+        for (Coupling<?> c : model.getIC()) {
+            int from = atomicIndex.get(c.getPortFrom().getParent());
+            int to = atomicIndex.get(c.getPortTo().getParent());
+            if (processOf[from] == processOf[to]) {
+                local.get(processOf[from]).get(handleOf[from]).add(c);
+            } else {
+                remote.get(processOf[from]).get(handleOf[from]).add(c);
+                double current = lookaheads[processOf[from]][processOf[to]];
+                if (Double.isNaN(current) || c.getLookahead() < current) {
+                    lookaheads[processOf[from]][processOf[to]] = c.getLookahead();
+                }
+            }
+        }
+        for (int p = 0; p < numProcesses; ++p) {
+            LogicalProcess process = processes[p];
+            // Input channels and slots for the ports that receive remote values
+            ArrayList<Integer> inNeighbours = new ArrayList<>();
+            for (int q = 0; q < numProcesses; ++q) {
+                if (!Double.isNaN(lookaheads[q][p])) {
+                    inNeighbours.add(q);
+                }
+            }
+            process.inNeighbours = inNeighbours.stream().mapToInt(Integer::intValue).toArray();
+            process.channelClocks = new double[numProcesses];
+            Arrays.fill(process.channelClocks, Constants.INFINITY);
+            // Output channels
+            ArrayList<Integer> outNeighbours = new ArrayList<>();
+            for (int q = 0; q < numProcesses; ++q) {
+                if (!Double.isNaN(lookaheads[p][q])) {
+                    outNeighbours.add(q);
+                }
+            }
+            int numOut = outNeighbours.size();
+            process.outNeighbours = new LogicalProcess[numOut];
+            process.outLookaheads = new double[numOut];
+            process.sentPromises = new double[numOut];
+            int[] channelOf = new int[numProcesses];
+            for (int k = 0; k < numOut; ++k) {
+                int q = outNeighbours.get(k);
+                process.outNeighbours[k] = processes[q];
+                process.outLookaheads[k] = lookaheads[p][q];
+                channelOf[q] = k;
+            }
+            int numSimulators = process.simulators.size();
+            process.localCouplings = new Coupling<?>[numSimulators][];
+            process.localTargets = new int[numSimulators][];
+            process.remoteCouplings = new Coupling<?>[numSimulators][];
+            process.remoteChannels = new int[numSimulators][];
+            process.remoteSlots = new int[numSimulators][];
+            List<ArrayList<Integer>> sources = new ArrayList<>();
+            for (int k = 0; k < numOut; ++k) {
+                sources.add(new ArrayList<>());
+            }
+            for (int h = 0; h < numSimulators; ++h) {
+                ArrayList<Coupling<?>> l = local.get(p).get(h);
+                process.localCouplings[h] = l.toArray(new Coupling<?>[0]);
+                process.localTargets[h] = new int[l.size()];
+                for (int j = 0; j < l.size(); ++j) {
+                    process.localTargets[h][j] = handleOf[atomicIndex.get(l.get(j).getPortTo().getParent())];
+                }
+                ArrayList<Coupling<?>> r = remote.get(p).get(h);
+                process.remoteCouplings[h] = r.toArray(new Coupling<?>[0]);
+                process.remoteChannels[h] = new int[r.size()];
+                process.remoteSlots[h] = new int[r.size()];
+                for (int j = 0; j < r.size(); ++j) {
+                    int to = atomicIndex.get(r.get(j).getPortTo().getParent());
+                    int k = channelOf[processOf[to]];
+                    process.remoteChannels[h][j] = k;
+                    process.remoteSlots[h][j] = processes[processOf[to]].addInputPort(r.get(j).getPortTo(), handleOf[to]);
+                    if (!sources.get(k).contains(h)) {
+                        sources.get(k).add(h);
+                    }
+                }
+            }
+            process.outSources = new int[numOut][];
+            for (int k = 0; k < numOut; ++k) {
+                process.outSources[k] = sources.get(k).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+
+    /**
+     * Time of the next event of the whole model.
+     * @return The minimum time of next event of the logical processes.
+     */
+    protected double nextTime() {
+        double next = Constants.INFINITY;
+        for (LogicalProcess process : processes) {
+            next = Math.min(next, process.nextTime());
+        }
+        return next;
+    }
+
+    @Override
+    public double ta() {
+        return nextTime() - clock.getTime();
+    }
+
+    /**
+     * Runs the logical processes until all of them are idle.
+     * @param finalTime Steps at this time or later are not executed.
+     * @param maxSteps Maximum number of steps of each logical process.
+     */
+    protected void run(double finalTime, long maxSteps) {
+        this.finalTime = finalTime;
+        this.maxSteps = maxSteps;
+        finished = false;
+        numIdle = 0;
+        for (LogicalProcess process : processes) {
+            process.reset(processes);
+        }
+        Thread[] threads = new Thread[processes.length - 1];
+        for (int i = 1; i < processes.length; ++i) {
+            threads[i - 1] = new Thread(processes[i], model.getName() + "-lp-" + i);
+            threads[i - 1].start();
+        }
+        processes[0].run();
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException ee) {
+                LOGGER.severe(ee.getLocalizedMessage());
+                Thread.currentThread().interrupt();
+            }
+        }
+        double lastTime = clock.getTime();
+        for (LogicalProcess process : processes) {
+            lastTime = Math.max(lastTime, process.lastTime);
+        }
+        clock.setTime(lastTime);
+        tL = lastTime;
+        tN = nextTime();
+    }
+
+    /**
+     * Called by a logical process when it has nothing to do. The simulation finishes
+     * when all the logical processes are idle and there are no messages in transit.
+     * @param process The logical process.
+     */
+    protected synchronized void notifyIdle(LogicalProcess process) {
+        if (!process.idle) {
+            process.idle = true;
+            numIdle++;
+        }
+        if (numIdle == processes.length && inFlight.get() == 0) {
+            finished = true;
+            for (LogicalProcess other : processes) {
+                other.wakeUp();
+            }
+        }
+    }
+
+    /**
+     * Called by a logical process when it receives messages with values.
+     * @param process The logical process.
+     * @param numMessages Number of messages received.
+     */
+    protected synchronized void notifyReceived(LogicalProcess process, int numMessages) {
+        inFlight.addAndGet(-numMessages);
+        if (process.idle) {
+            process.idle = false;
+            numIdle--;
+        }
+    }
+
+    /**
+     * Called by a logical process before sending a message with values.
+     */
+    protected void notifySent() {
+        inFlight.incrementAndGet();
+    }
+
+    protected boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void simulate(long numIterations) {
+        LOGGER.fine("START SIMULATION");
+        run(Constants.INFINITY, numIterations);
+    }
+
+    @Override
+    public void simulate(double timeInterval) {
+        LOGGER.fine("START SIMULATION");
+        double tF = clock.getTime() + timeInterval;
+        run(tF, Long.MAX_VALUE);
+        clock.setTime(tF);
+    }
+
+    @Override
+    public void lambda() {
+        LOGGER.warning(CoordinatorConservative.class.getSimpleName() + " must be the root coordinator");
+    }
+
+    @Override
+    public void deltfcn() {
+        LOGGER.warning(CoordinatorConservative.class.getSimpleName() + " must be the root coordinator");
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    /**
+     * Gets the logical processes.
+     * @return The logical processes.
+     */
+    public LogicalProcess[] getLogicalProcesses() {
+        return processes;
+    }
+
+    public static void main(String[] args) {
+        DevsLogger.setup(Level.INFO);
+        // Independent production lines
+        Coupled lines = new Coupled("lines");
+        for (int i = 0; i < 4; ++i) {
+            lines.addComponent(new Efp("EFP" + i, 1, 3, 1000000));
+        }
+        CoordinatorConservative coordinator = new CoordinatorConservative(lines);
+        coordinator.initialize();
+        coordinator.simulate(Long.MAX_VALUE);
+        coordinator.exit();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+* File: CoordinatorForkJoin.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.parallel;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+
+import xdevs.core.examples.efp.Efp;
+import xdevs.core.modeling.Coupled;
+import xdevs.core.simulation.Coordinator;
+import xdevs.core.simulation.SimulationClock;
+import xdevs.core.util.DevsLogger;
+
+/**
+ * Parallel coordinator based on a fork/join pool.
+ *
+ * The model is flattened, and in each phase (output and transition functions) the
+ * simulators are split in chunks that are executed by a work-stealing pool. Chunks
+ * are split on demand, so workers that finish early steal the pending work of the
+ * busy ones, which balances steps where the transition functions have different
+ * costs. Unlike {@link CoordinatorParallel}, no task or future is created per
+ * simulator.
+ *
+ * In activity-driven mode, only the active simulators are dispatched in each phase.
+ */
+public class CoordinatorForkJoin extends Coordinator {
+
+    /**
+     * Target number of chunks per thread when the simulators are split.
+     */
+    protected static final int CHUNKS_PER_THREAD = 8;
+
+    protected int numberOfThreads;
+    protected ForkJoinPool pool;
+
+    /**
+     * Constructor for the fork/join coordinator.
+     * @param clock Simulation clock
+     * @param model Coupled model
+     * @param numberOfThreads Number of threads
+     */
+    public CoordinatorForkJoin(SimulationClock clock, Coupled model, int numberOfThreads) {
+        super(clock, model, true);
+        this.numberOfThreads = numberOfThreads;
+        pool = new ForkJoinPool(numberOfThreads);
+    }
+
+    /**
+     * Constructor for the fork/join coordinator.
+     * @param model Coupled model
+     * @param numberOfThreads Number of threads
+     */
+    public CoordinatorForkJoin(Coupled model, int numberOfThreads) {
+        this(new SimulationClock(), model, numberOfThreads);
+    }
+
+    /**
+     * Constructor for the fork/join coordinator. It uses the number of available processors.
+     * @param model Coupled model
+     */
+    public CoordinatorForkJoin(Coupled model) {
+        this(new SimulationClock(), model, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for the fork/join coordinator. It uses the number of available processors.
+     * @param clock Simulation clock
+     * @param model Coupled model
+     */
+    public CoordinatorForkJoin(SimulationClock clock, Coupled model) {
+        this(clock, model, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Executes a phase over a set of simulators in the fork/join pool.
+     * @param phase {@link TaskChunk#LAMBDA} or {@link TaskChunk#DELTFCN}
+     * @param handles Positions of the simulators, or null to execute all of them
+     * @param numSimulators Number of simulators to execute
+     */
+    protected void execute(int phase, int[] handles, int numSimulators) {
+        if (numSimulators == 0) {
+            return;
+        }
+        int minChunkSize = Math.max(1, numSimulators / (CHUNKS_PER_THREAD * numberOfThreads));
+        pool.invoke(new TaskChunk(phase, simulators, handles, 0, numSimulators, minChunkSize));
+    }
+
+    @Override
+    public void lambda() {
+        if (activityDriven) {
+            activateImminents();
+            execute(TaskChunk.LAMBDA, activeHandles, numActiveHandles);
+        } else {
+            execute(TaskChunk.LAMBDA, null, simulators.size());
+        }
+        propagateOutput();
+    }
+
+    @Override
+    public void deltfcn() {
+        if (activityDriven) {
+            activateImminents();
+            propagateInput();
+            execute(TaskChunk.DELTFCN, activeHandles, numActiveHandles);
+            for (int i = 0; i < numActiveHandles; ++i) {
+                int handle = activeHandles[i];
+                scheduler.schedule(handle, simulators.get(handle).getTN());
+            }
+        } else {
+            propagateInput();
+            execute(TaskChunk.DELTFCN, null, simulators.size());
+            updateScheduler();
+        }
+        tL = clock.getTime();
+        tN = tL + ta();
+    }
+
+    @Override
+    public void exit() {
+        super.exit();
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) {
+        DevsLogger.setup(Level.INFO);
+        Efp efp = new Efp("EFP", 1, 3, 1000000);
+        CoordinatorForkJoin coordinator = new CoordinatorForkJoin(efp);
+        coordinator.initialize();
+        coordinator.simulate(Long.MAX_VALUE);
+        coordinator.exit();
+    }
+}
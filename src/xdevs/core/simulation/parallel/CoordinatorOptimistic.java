@@ -0,0 +1,378 @@
+/*
+* File: CoordinatorOptimistic.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.parallel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import xdevs.core.examples.efp.Efp;
+import xdevs.core.modeling.Atomic;
+import xdevs.core.modeling.Component;
+import xdevs.core.modeling.Coupled;
+import xdevs.core.modeling.Coupling;
+import xdevs.core.simulation.Coordinator;
+import xdevs.core.simulation.SimulationClock;
+import xdevs.core.simulation.partition.GraphPartitioner;
+import xdevs.core.util.Constants;
+import xdevs.core.util.DevsLogger;
+
+/**
+ * Optimistic parallel coordinator, based on the Time Warp algorithm.
+ *
+ * The model is flattened and its atomic models are split in logical processes
+ * ({@link OptimisticProcess}), each one executed by its own thread. Logical processes
+ * do not need lookahead: they execute their events speculatively, and undo them when a
+ * message arrives in their past, restoring the states saved with
+ * {@link Atomic#saveState()} and cancelling the messages sent with anti-messages.
+ * Periodically, the coordinator thread pauses the logical processes to compute the
+ * global virtual time (GVT), the earliest time that can still be rolled back, and the
+ * logical processes discard the states saved before it. The simulation finishes when
+ * the GVT reaches the end of the simulation.
+ *
+ * Some considerations:
+ * <ul>
+ * <li>Models with state variables besides the phase and sigma must override
+ * {@link Atomic#saveState()} and {@link Atomic#restoreState(Object)}, and must not
+ * modify the values they receive.</li>
+ * <li>Effects of the transition functions other than the state of the model (logging,
+ * for instance) can be repeated if the transition is rolled back.</li>
+ * <li>The model is simulated as a closed model: couplings with the ports of the root
+ * model are ignored, and inputs cannot be injected.</li>
+ * <li>Values sent to other logical processes are copied in a new list, but the values
+ * themselves are shared. Models must not use message pools (see
+ * {@link xdevs.core.modeling.MessagePool}) for values sent to other logical
+ * processes.</li>
+ * <li>By default, each logical process takes a contiguous block of atomic models. A
+ * {@link GraphPartitioner} reduces the couplings between logical processes, and so the
+ * messages that can trigger rollbacks.</li>
+ * <li>The number of iterations is not supported, simulations run until there are no
+ * more events or until the given time.</li>
+ * </ul>
+ */
+public class CoordinatorOptimistic extends Coordinator {
+
+    private static final Logger LOGGER = Logger.getLogger(CoordinatorOptimistic.class.getName());
+
+    /**
+     * Time between two computations of the GVT, in nanoseconds.
+     */
+    protected static final long GVT_PERIOD = 1000000;
+
+    protected int numberOfThreads;
+    protected OptimisticProcess[] processes = new OptimisticProcess[0];
+    protected PhaseBarrier barrier;
+    protected GraphPartitioner partitioner = null;
+
+    // State of the current run
+    protected double finalTime = Constants.INFINITY;
+    protected volatile boolean finished = false;
+    protected volatile boolean gvtRequested = false;
+    protected volatile double gvt = 0;
+
+    /**
+     * Constructor for the optimistic coordinator.
+     * @param clock Simulation clock
+     * @param model Coupled model
+     * @param numberOfThreads Number of logical processes
+     */
+    public CoordinatorOptimistic(SimulationClock clock, Coupled model, int numberOfThreads) {
+        super(clock, model, true);
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+    }
+
+    /**
+     * Constructor for the optimistic coordinator.
+     * @param model Coupled model
+     * @param numberOfThreads Number of logical processes
+     */
+    public CoordinatorOptimistic(Coupled model, int numberOfThreads) {
+        this(new SimulationClock(), model, numberOfThreads);
+    }
+
+    /**
+     * Constructor for the optimistic coordinator. It uses the number of available processors.
+     * @param model Coupled model
+     */
+    public CoordinatorOptimistic(Coupled model) {
+        this(new SimulationClock(), model, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for the optimistic coordinator. It uses the number of available processors.
+     * @param clock Simulation clock
+     * @param model Coupled model
+     */
+    public CoordinatorOptimistic(SimulationClock clock, Coupled model) {
+        this(clock, model, Runtime.getRuntime().availableProcessors());
+    }
+
+    public GraphPartitioner getPartitioner() {
+        return partitioner;
+    }
+
+    /**
+     * Sets the partitioner used to distribute the atomic models among the logical
+     * processes. It must be called before {@link #initialize()}.
+     * @param partitioner The graph partitioner, or null to use contiguous blocks.
+     */
+    public void setPartitioner(GraphPartitioner partitioner) {
+        this.partitioner = partitioner;
+    }
+
+    @Override
+    public void initialize() {
+        simulators.clear();
+        if (!model.getEIC().isEmpty() || !model.getEOC().isEmpty()) {
+            LOGGER.warning("Couplings with the ports of " + model.getName() + " are ignored");
+        }
+        ArrayList<Atomic> atomics = new ArrayList<>();
+        HashMap<Component, Integer> atomicIndex = new HashMap<>();
+        for (Component component : model.getComponents()) {
+            atomicIndex.put(component, atomics.size());
+            atomics.add((Atomic) component);
+        }
+        int numProcesses = Math.max(1, Math.min(numberOfThreads, atomics.size()));
+        processes = new OptimisticProcess[numProcesses];
+        for (int i = 0; i < numProcesses; ++i) {
+            processes[i] = new OptimisticProcess(i, this, clock.getTime());
+        }
+        int[] processOf;
+        if (partitioner != null) {
+            processOf = partitioner.partition(model, numProcesses);
+        } else {
+            // Contiguous blocks of atomic models, since neighbours are usually added together
+            processOf = new int[atomics.size()];
+            for (int i = 0; i < atomics.size(); ++i) {
+                processOf[i] = (int) ((long) i * numProcesses / atomics.size());
+            }
+        }
+        int[] handleOf = new int[atomics.size()];
+        for (int i = 0; i < atomics.size(); ++i) {
+            handleOf[i] = processes[processOf[i]].addAtomic(atomics.get(i));
+        }
+        buildCouplings(atomicIndex, processOf, handleOf);
+        for (OptimisticProcess process : processes) {
+            process.initialize();
+            simulators.addAll(process.simulators);
+        }
+        barrier = new PhaseBarrier(numProcesses + 1);
+        tL = clock.getTime();
+        tN = nextTime();
+    }
+
+    /**
+     * Distributes the couplings among the logical processes.
+     * @param atomicIndex Index of each atomic model
+     * @param processOf Logical process of each atomic model
+     * @param handleOf Handle of each atomic model in its logical process
+     */
+    protected void buildCouplings(HashMap<Component, Integer> atomicIndex, int[] processOf, int[] handleOf) {
+        ArrayList<ArrayList<ArrayList<Coupling<?>>>> local = new ArrayList<>();
+        ArrayList<ArrayList<ArrayList<Coupling<?>>>> remote = new ArrayList<>();
+        for (OptimisticProcess process : processes) {
+            ArrayList<ArrayList<Coupling<?>>> l = new ArrayList<>();
+            ArrayList<ArrayList<Coupling<?>>> r = new ArrayList<>();
+            for (int h = 0; h < process.simulators.size(); ++h) {
+                l.add(new ArrayList<>());
+                r.add(new ArrayList<>());
+            }
+            local.add(l);
+            remote.add(r);
+        }
+        for (Coupling<?> c : model.getIC()) {
+            int from = atomicIndex.get(c.getPortFrom().getParent());
+            int to = atomicIndex.get(c.getPortTo().getParent());
+            if (processOf[from] == processOf[to]) {
+                local.get(processOf[from]).get(handleOf[from]).add(c);
+            } else {
+                remote.get(processOf[from]).get(handleOf[from]).add(c);
+            }
+        }
+        for (int p = 0; p < processes.length; ++p) {
+            OptimisticProcess process = processes[p];
+            int numSimulators = process.simulators.size();
+            process.localCouplings = new Coupling<?>[numSimulators][];
+            process.localTargets = new int[numSimulators][];
+            process.remoteCouplings = new Coupling<?>[numSimulators][];
+            process.remoteTargets = new OptimisticProcess[numSimulators][];
+            process.remoteSlots = new int[numSimulators][];
+            for (int h = 0; h < numSimulators; ++h) {
+                ArrayList<Coupling<?>> l = local.get(p).get(h);
+                process.localCouplings[h] = l.toArray(new Coupling<?>[0]);
+                process.localTargets[h] = new int[l.size()];
+                for (int j = 0; j < l.size(); ++j) {
+                    process.localTargets[h][j] = handleOf[atomicIndex.get(l.get(j).getPortTo().getParent())];
+                }
+                ArrayList<Coupling<?>> r = remote.get(p).get(h);
+                process.remoteCouplings[h] = r.toArray(new Coupling<?>[0]);
+                process.remoteTargets[h] = new OptimisticProcess[r.size()];
+                process.remoteSlots[h] = new int[r.size()];
+                for (int j = 0; j < r.size(); ++j) {
+                    int to = atomicIndex.get(r.get(j).getPortTo().getParent());
+                    OptimisticProcess target = processes[processOf[to]];
+                    process.remoteTargets[h][j] = target;
+                    process.remoteSlots[h][j] = target.addInputPort(r.get(j).getPortTo(), handleOf[to]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Time of the next event of the whole model.
+     * @return The minimum time of next event of the logical processes.
+     */
+    protected double nextTime() {
+        double next = Constants.INFINITY;
+        for (OptimisticProcess process : processes) {
+            next = Math.min(next, process.nextTime());
+        }
+        return next;
+    }
+
+    @Override
+    public double ta() {
+        return nextTime() - clock.getTime();
+    }
+
+    /**
+     * Runs the logical processes until the GVT reaches the final time.
+     * @param finalTime Steps at this time or later are not executed.
+     */
+    protected void run(double finalTime) {
+        this.finalTime = finalTime;
+        finished = false;
+        Thread[] threads = new Thread[processes.length];
+        for (int i = 0; i < processes.length; ++i) {
+            threads[i] = new Thread(processes[i], model.getName() + "-lp-" + i);
+            threads[i].start();
+        }
+        while (!finished) {
+            LockSupport.parkNanos(this, GVT_PERIOD);
+            computeGvt();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException ee) {
+                LOGGER.severe(ee.getLocalizedMessage());
+                Thread.currentThread().interrupt();
+            }
+        }
+        long numRolledBack = 0;
+        for (OptimisticProcess process : processes) {
+            process.collectFossils(Constants.INFINITY);
+            numRolledBack += process.numRolledBack;
+        }
+        LOGGER.fine("Steps rolled back: " + numRolledBack);
+        tL = clock.getTime();
+        tN = nextTime();
+    }
+
+    /**
+     * Pauses the logical processes and computes the GVT: the minimum of the earliest
+     * unprocessed time of each logical process and the timestamps of the messages that
+     * have not been received yet.
+     */
+    protected void computeGvt() {
+        gvtRequested = true;
+        for (OptimisticProcess process : processes) {
+            process.wakeUp();
+        }
+        barrier.await(0);
+        double minimum = Constants.INFINITY;
+        for (OptimisticProcess process : processes) {
+            minimum = Math.min(minimum, Math.min(process.localMinimum, process.inboxMinimum()));
+        }
+        gvt = minimum;
+        if (gvt >= finalTime) {
+            finished = true;
+        }
+        gvtRequested = false;
+        barrier.await(0);
+    }
+
+    protected boolean isFinished() {
+        return finished;
+    }
+
+    protected boolean isGvtRequested() {
+        return gvtRequested;
+    }
+
+    /**
+     * Gets the last GVT computed.
+     * @return The global virtual time.
+     */
+    public double getGvt() {
+        return gvt;
+    }
+
+    @Override
+    public void simulate(long numIterations) {
+        LOGGER.fine("START SIMULATION");
+        if (numIterations != Long.MAX_VALUE) {
+            LOGGER.warning("The number of iterations is ignored by " + CoordinatorOptimistic.class.getSimpleName());
+        }
+        run(Constants.INFINITY);
+    }
+
+    @Override
+    public void simulate(double timeInterval) {
+        LOGGER.fine("START SIMULATION");
+        double tF = clock.getTime() + timeInterval;
+        run(tF);
+        clock.setTime(tF);
+    }
+
+    @Override
+    public void lambda() {
+        LOGGER.warning(CoordinatorOptimistic.class.getSimpleName() + " must be the root coordinator");
+    }
+
+    @Override
+    public void deltfcn() {
+        LOGGER.warning(CoordinatorOptimistic.class.getSimpleName() + " must be the root coordinator");
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    /**
+     * Gets the logical processes.
+     * @return The logical processes.
+     */
+    public OptimisticProcess[] getLogicalProcesses() {
+        return processes;
+    }
+
+    public static void main(String[] args) {
+        DevsLogger.setup(Level.INFO);
+        Efp efp = new Efp("EFP", 1, 3, 1000000);
+        CoordinatorOptimistic coordinator = new CoordinatorOptimistic(efp);
+        coordinator.initialize();
+        coordinator.simulate(Long.MAX_VALUE);
+        coordinator.exit();
+    }
+}
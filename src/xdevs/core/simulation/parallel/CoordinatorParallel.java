@@ -86,6 +86,18 @@ public class CoordinatorParallel extends Coordinator {
         this(clock, model, Runtime.getRuntime().availableProcessors());
     }
     
+    /**
+     * The activity-driven mode is not supported by the parallel coordinator, which
+     * always dispatches all the simulators to the thread pool.
+     * @param activityDriven ignored.
+     */
+    @Override
+    public void setActivityDriven(boolean activityDriven) {
+        if (activityDriven) {
+            LOGGER.warning("Activity-driven mode is not supported by " + CoordinatorParallel.class.getSimpleName());
+        }
+    }
+
     @Override
     public void buildHierarchy() {
         super.buildHierarchy();
@@ -115,6 +127,7 @@ public class CoordinatorParallel extends Coordinator {
         } catch (InterruptedException ee) {
             LOGGER.severe(ee.getLocalizedMessage());
         }
+        updateScheduler();
         tL = clock.getTime();
         tN = tL + ta();
     }
@@ -0,0 +1,305 @@
+/*
+* File: CoordinatorPartitioned.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.parallel;
+
+import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import xdevs.core.examples.efp.Efp;
+import xdevs.core.modeling.Coupled;
+import xdevs.core.simulation.AbstractSimulator;
+import xdevs.core.simulation.Coordinator;
+import xdevs.core.simulation.SimulationClock;
+import xdevs.core.simulation.partition.GraphPartitioner;
+import xdevs.core.util.DevsLogger;
+
+/**
+ * Parallel coordinator with persistent worker threads.
+ *
+ * The model is flattened and the simulators are split in static partitions, one per
+ * thread. The coordinator thread owns the first partition, and each of the rest of
+ * partitions is owned by a worker thread that lives until {@link #exit()}. The
+ * threads synchronize through a {@link PhaseBarrier} before and after the output and
+ * transition functions, while the propagation of values is done by the coordinator
+ * thread between them. Since no task is submitted to an executor, the overhead per
+ * phase is just the barrier, which suits models with very short transitions.
+ *
+ * By default, each partition is a contiguous block of simulators. If a
+ * {@link GraphPartitioner} is set, the partitions are balanced by weight and the
+ * simulators coupled to each other are kept in the same partition, so each thread
+ * mostly touches its own ports.
+ *
+ * Unlike {@link CoordinatorParallel}, the coordinator can be simulated several times
+ * until it exits.
+ *
+ * If an output or transition function throws an exception, the rest of threads still
+ * finish the phase, and the first exception is thrown again by the coordinator thread,
+ * as the sequential coordinator would do.
+ */
+public class CoordinatorPartitioned extends Coordinator {
+
+    private static final Logger LOGGER = Logger.getLogger(CoordinatorPartitioned.class.getName());
+
+    protected static final int PHASE_LAMBDA = 0;
+    protected static final int PHASE_DELTFCN = 1;
+    protected static final int PHASE_EXIT = 2;
+
+    protected int numberOfThreads;
+    protected int[] partitionStarts;
+    protected PhaseBarrier barrier;
+    protected Thread[] workers = new Thread[0];
+    protected volatile int phase = PHASE_LAMBDA;
+    protected GraphPartitioner partitioner = null;
+    /**
+     * First exception thrown in the current phase, if any.
+     */
+    protected volatile Throwable failure = null;
+
+    /**
+     * Constructor for the partitioned coordinator.
+     * @param clock Simulation clock
+     * @param model Coupled model
+     * @param numberOfThreads Number of threads, including the coordinator thread
+     */
+    public CoordinatorPartitioned(SimulationClock clock, Coupled model, int numberOfThreads) {
+        super(clock, model, true);
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+    }
+
+    /**
+     * Constructor for the partitioned coordinator.
+     * @param model Coupled model
+     * @param numberOfThreads Number of threads, including the coordinator thread
+     */
+    public CoordinatorPartitioned(Coupled model, int numberOfThreads) {
+        this(new SimulationClock(), model, numberOfThreads);
+    }
+
+    /**
+     * Constructor for the partitioned coordinator. It uses the number of available processors.
+     * @param model Coupled model
+     */
+    public CoordinatorPartitioned(Coupled model) {
+        this(new SimulationClock(), model, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for the partitioned coordinator. It uses the number of available processors.
+     * @param clock Simulation clock
+     * @param model Coupled model
+     */
+    public CoordinatorPartitioned(SimulationClock clock, Coupled model) {
+        this(clock, model, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The activity-driven mode is not supported by the partitioned coordinator, since
+     * each thread always visits its whole partition.
+     * @param activityDriven ignored.
+     */
+    @Override
+    public void setActivityDriven(boolean activityDriven) {
+        if (activityDriven) {
+            LOGGER.warning("Activity-driven mode is not supported by " + CoordinatorPartitioned.class.getSimpleName());
+        }
+    }
+
+    public GraphPartitioner getPartitioner() {
+        return partitioner;
+    }
+
+    /**
+     * Sets the partitioner used to split the simulators among the threads. It must be
+     * called before {@link #initialize()}.
+     * @param partitioner The graph partitioner, or null to use contiguous blocks.
+     */
+    public void setPartitioner(GraphPartitioner partitioner) {
+        this.partitioner = partitioner;
+    }
+
+    /**
+     * Builds the simulators and sorts them by partition, so each partition is a
+     * contiguous range of handles.
+     */
+    @Override
+    protected void buildHierarchy() {
+        super.buildHierarchy();
+        int numPartitions = Math.min(numberOfThreads, Math.max(1, simulators.size()));
+        partitionStarts = new int[numPartitions + 1];
+        if (partitioner == null || numPartitions == 1) {
+            for (int i = 0; i <= numPartitions; ++i) {
+                partitionStarts[i] = (int) ((long) i * simulators.size() / numPartitions);
+            }
+            return;
+        }
+        // The simulators follow the order of the components of the flattened model
+        int[] parts = partitioner.partition(model, numPartitions);
+        for (int handle = 0; handle < parts.length; ++handle) {
+            partitionStarts[parts[handle] + 1]++;
+        }
+        for (int i = 0; i < numPartitions; ++i) {
+            partitionStarts[i + 1] += partitionStarts[i];
+        }
+        int[] next = partitionStarts.clone();
+        ArrayList<AbstractSimulator> sorted = new ArrayList<>(simulators);
+        for (int handle = 0; handle < parts.length; ++handle) {
+            sorted.set(next[parts[handle]]++, simulators.get(handle));
+        }
+        simulators.clear();
+        simulators.addAll(sorted);
+    }
+
+    @Override
+    public void initialize() {
+        stopWorkers();
+        super.initialize();
+        int numPartitions = partitionStarts.length - 1;
+        barrier = new PhaseBarrier(numPartitions);
+        workers = new Thread[numPartitions - 1];
+        for (int i = 1; i < numPartitions; ++i) {
+            final int partition = i;
+            workers[i - 1] = new Thread(() -> work(partition), model.getName() + "-worker-" + i);
+            workers[i - 1].setDaemon(true);
+            workers[i - 1].start();
+        }
+    }
+
+    /**
+     * Main loop of the worker threads.
+     * @param partition Partition owned by the worker.
+     */
+    protected void work(int partition) {
+        while (true) {
+            barrier.await(partition);
+            if (phase == PHASE_EXIT) {
+                return;
+            }
+            execute(partition);
+            barrier.await(partition);
+        }
+    }
+
+    /**
+     * Executes the current phase over the simulators of a partition.
+     * @param partition Index of the partition.
+     */
+    protected void execute(int partition) {
+        int currentPhase = phase;
+        for (int handle = partitionStarts[partition]; handle < partitionStarts[partition + 1]; ++handle) {
+            AbstractSimulator simulator = simulators.get(handle);
+            try {
+                if (currentPhase == PHASE_LAMBDA) {
+                    simulator.lambda();
+                } else {
+                    simulator.deltfcn();
+                }
+            } catch (RuntimeException | Error ee) {
+                // The worker must reach the barrier anyway, or the rest of threads would hang
+                fail(ee);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records an exception thrown in the current phase, unless another one was already
+     * recorded.
+     * @param ee The exception.
+     */
+    protected synchronized void fail(Throwable ee) {
+        if (failure == null) {
+            failure = ee;
+        }
+    }
+
+    /**
+     * Runs a phase in all the partitions and waits until all of them have finished.
+     * @param nextPhase The phase to run.
+     * @throws RuntimeException If an output or transition function threw it.
+     * @throws Error If an output or transition function threw it.
+     */
+    protected void runPhase(int nextPhase) {
+        phase = nextPhase;
+        barrier.await(0);
+        if (nextPhase != PHASE_EXIT) {
+            execute(0);
+            barrier.await(0);
+        }
+        Throwable ee = failure;
+        if (ee != null) {
+            failure = null;
+            if (ee instanceof Error) {
+                throw (Error) ee;
+            }
+            throw (RuntimeException) ee;
+        }
+    }
+
+    @Override
+    public void lambda() {
+        runPhase(PHASE_LAMBDA);
+        propagateOutput();
+    }
+
+    @Override
+    public void deltfcn() {
+        propagateInput();
+        runPhase(PHASE_DELTFCN);
+        updateScheduler();
+        tL = clock.getTime();
+        tN = tL + ta();
+    }
+
+    @Override
+    public void exit() {
+        super.exit();
+        stopWorkers();
+    }
+
+    /**
+     * Finishes the worker threads, if they were started.
+     */
+    protected void stopWorkers() {
+        if (barrier == null) {
+            return;
+        }
+        runPhase(PHASE_EXIT);
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException ee) {
+                LOGGER.severe(ee.getLocalizedMessage());
+                Thread.currentThread().interrupt();
+            }
+        }
+        barrier = null;
+    }
+
+    public static void main(String[] args) {
+        DevsLogger.setup(Level.INFO);
+        Efp efp = new Efp("EFP", 1, 3, 1000000);
+        CoordinatorPartitioned coordinator = new CoordinatorPartitioned(efp);
+        coordinator.initialize();
+        coordinator.simulate(Long.MAX_VALUE);
+        coordinator.exit();
+    }
+}
@@ -0,0 +1,441 @@
+/*
+* File: LogicalProcess.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.parallel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import xdevs.core.modeling.Atomic;
+import xdevs.core.modeling.Coupling;
+import xdevs.core.modeling.Port;
+import xdevs.core.simulation.EventScheduler;
+import xdevs.core.simulation.SimulationClock;
+import xdevs.core.simulation.Simulator;
+import xdevs.core.util.Constants;
+
+/**
+ * Logical process of the conservative coordinator.
+ *
+ * A logical process simulates a subset of the atomic models of a flattened model with
+ * its own clock and event list. Values sent to atomic models of other logical
+ * processes travel as timestamped messages through FIFO channels, and each channel
+ * also carries null messages: promises that no message with a smaller timestamp will
+ * be sent through it in the future. A logical process only executes the transition
+ * functions at time t when every input channel has promised a time greater than t, so
+ * all the inputs at t have been received. Output functions only need promises equal to
+ * t, since inputs at t do not change the output at t.
+ *
+ * See {@link CoordinatorConservative}.
+ */
+public class LogicalProcess implements Runnable {
+
+    /**
+     * Message sent through a channel between two logical processes. Null messages have
+     * no values, and their time is the promise of the sender.
+     */
+    protected static class ChannelMessage implements Comparable<ChannelMessage> {
+        protected final int source;
+        protected final double time;
+        protected final int slot;
+        protected final List<Object> values;
+
+        protected ChannelMessage(int source, double time, int slot, List<Object> values) {
+            this.source = source;
+            this.time = time;
+            this.slot = slot;
+            this.values = values;
+        }
+
+        @Override
+        public int compareTo(ChannelMessage other) {
+            return Double.compare(time, other.time);
+        }
+    }
+
+    protected int id;
+    protected CoordinatorConservative coordinator;
+    protected SimulationClock clock;
+    protected ArrayList<Simulator> simulators = new ArrayList<>();
+    protected EventScheduler scheduler = new EventScheduler();
+    /**
+     * Thread that runs the logical process in the current simulation.
+     */
+    protected volatile Thread thread = null;
+
+    // Activity of the current step, as in the activity-driven mode of the Coordinator
+    protected int[] activeHandles;
+    protected int numActiveHandles = 0;
+    protected boolean[] activeFlags;
+    protected int[] imminentHandles;
+
+    // Couplings between atomic models of this logical process, indexed by source handle
+    protected Coupling<?>[][] localCouplings;
+    protected int[][] localTargets;
+    // Couplings towards other logical processes, indexed by source handle
+    protected Coupling<?>[][] remoteCouplings;
+    protected int[][] remoteChannels;
+    protected int[][] remoteSlots;
+
+    // Output channels
+    protected LogicalProcess[] outNeighbours;
+    protected double[] outLookaheads;
+    protected int[][] outSources;
+    protected double[] sentPromises;
+
+    // Input channels
+    protected int[] inNeighbours;
+    protected double[] channelClocks;
+    protected ArrayList<Port<?>> inputPorts = new ArrayList<>();
+    protected ArrayList<Integer> inputOwners = new ArrayList<>();
+    protected HashMap<Port<?>, Integer> inputSlots = new HashMap<>();
+    protected ConcurrentLinkedQueue<ChannelMessage> inbox = new ConcurrentLinkedQueue<>();
+    protected PriorityQueue<ChannelMessage> pending = new PriorityQueue<>();
+
+    /**
+     * True if the output functions of the current step have been executed.
+     */
+    protected boolean outputDone = false;
+    /**
+     * Time of the last step executed.
+     */
+    protected double lastTime;
+    protected long numSteps = 0;
+    protected boolean idle = false;
+
+    /**
+     * Creates a new logical process.
+     * @param id Index of the logical process.
+     * @param coordinator The coordinator that owns the logical process.
+     * @param time Initial simulation time.
+     */
+    public LogicalProcess(int id, CoordinatorConservative coordinator, double time) {
+        this.id = id;
+        this.coordinator = coordinator;
+        this.clock = new SimulationClock(time);
+        this.lastTime = time;
+    }
+
+    /**
+     * Adds an atomic model to the logical process.
+     * @param atomic The atomic model.
+     * @return The handle of the model in the logical process.
+     */
+    protected int addAtomic(Atomic atomic) {
+        simulators.add(new Simulator(clock, atomic));
+        return simulators.size() - 1;
+    }
+
+    /**
+     * Registers an input port that receives values from other logical processes.
+     * @param port The input port.
+     * @param owner Handle of the atomic model that owns the port.
+     * @return The slot of the port, used to address the messages.
+     */
+    protected int addInputPort(Port<?> port, int owner) {
+        Integer slot = inputSlots.get(port);
+        if (slot == null) {
+            slot = inputPorts.size();
+            inputSlots.put(port, slot);
+            inputPorts.add(port);
+            inputOwners.add(owner);
+        }
+        return slot;
+    }
+
+    /**
+     * Initializes the simulators and the event list.
+     */
+    protected void initialize() {
+        int n = simulators.size();
+        activeHandles = new int[n];
+        activeFlags = new boolean[n];
+        imminentHandles = new int[n];
+        scheduler.clear();
+        for (int handle = 0; handle < n; ++handle) {
+            Simulator simulator = simulators.get(handle);
+            simulator.initialize();
+            scheduler.schedule(handle, simulator.getTN());
+        }
+    }
+
+    /**
+     * Prepares the logical process for a new simulation run. Channel clocks are set to
+     * the time of the last step of each sender, which is always a valid promise.
+     * @param processes All the logical processes.
+     */
+    protected void reset(LogicalProcess[] processes) {
+        inbox.clear();
+        idle = false;
+        numSteps = 0;
+        for (int source : inNeighbours) {
+            channelClocks[source] = processes[source].lastTime;
+        }
+        Arrays.fill(sentPromises, Double.NEGATIVE_INFINITY);
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        while (!coordinator.isFinished()) {
+            boolean progress = receive();
+            progress |= step();
+            sendPromises();
+            if (!progress) {
+                if (!idle && isIdle()) {
+                    coordinator.notifyIdle(this);
+                }
+                if (inbox.isEmpty() && !coordinator.isFinished()) {
+                    LockSupport.park(this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the received messages to the list of pending inputs and updates the clocks
+     * of the input channels.
+     * @return true if any message with values was received.
+     */
+    protected boolean receive() {
+        int numReceived = 0;
+        ChannelMessage message;
+        while ((message = inbox.poll()) != null) {
+            if (message.time > channelClocks[message.source]) {
+                channelClocks[message.source] = message.time;
+            }
+            if (message.values != null) {
+                pending.add(message);
+                numReceived++;
+            }
+        }
+        if (numReceived > 0) {
+            coordinator.notifyReceived(this, numReceived);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Earliest input time: lower bound of the timestamps of the messages that can still
+     * be received.
+     * @return The earliest input time.
+     */
+    protected double eit() {
+        double eit = Constants.INFINITY;
+        for (int source : inNeighbours) {
+            if (channelClocks[source] < eit) {
+                eit = channelClocks[source];
+            }
+        }
+        return eit;
+    }
+
+    /**
+     * Time of the next step of the logical process, due to internal events or to
+     * received inputs.
+     * @return The time of the next step.
+     */
+    protected double nextTime() {
+        double tN = scheduler.nextTime();
+        ChannelMessage first = pending.peek();
+        return (first != null && first.time < tN) ? first.time : tN;
+    }
+
+    /**
+     * Tells if the logical process has nothing more to do in the current run unless it
+     * receives new inputs.
+     * @return true if the logical process is idle.
+     */
+    protected boolean isIdle() {
+        return numSteps >= coordinator.maxSteps || nextTime() >= coordinator.finalTime;
+    }
+
+    /**
+     * Advances the simulation of the logical process as much as the input channels allow.
+     * @return true if the output or the transition functions were executed.
+     */
+    protected boolean step() {
+        boolean progress = false;
+        while (numSteps < coordinator.maxSteps) {
+            double t = nextTime();
+            if (t >= coordinator.finalTime) {
+                break;
+            }
+            double eit = eit();
+            if (!outputDone && scheduler.nextTime() == t && eit >= t) {
+                clock.setTime(t);
+                lambda(t);
+                outputDone = true;
+                progress = true;
+            }
+            if (eit <= t) {
+                break;
+            }
+            clock.setTime(t);
+            deltfcn(t);
+            outputDone = false;
+            lastTime = t;
+            numSteps++;
+            progress = true;
+            sendPromises();
+        }
+        return progress;
+    }
+
+    protected void activate(int handle) {
+        if (!activeFlags[handle]) {
+            activeFlags[handle] = true;
+            activeHandles[numActiveHandles++] = handle;
+        }
+    }
+
+    /**
+     * Executes the output functions of the imminent models, and propagates their values
+     * to the local models or to the logical processes of the remote ones.
+     * @param t Current time.
+     */
+    protected void lambda(double t) {
+        int numImminents = scheduler.imminents(t, imminentHandles);
+        for (int i = 0; i < numImminents; ++i) {
+            int handle = imminentHandles[i];
+            activate(handle);
+            simulators.get(handle).lambda();
+        }
+        for (int i = 0; i < numImminents; ++i) {
+            int handle = imminentHandles[i];
+            Coupling<?>[] couplings = localCouplings[handle];
+            for (int j = 0; j < couplings.length; ++j) {
+                if (!couplings[j].getPortFrom().isEmpty()) {
+                    couplings[j].propagateValues();
+                    activate(localTargets[handle][j]);
+                }
+            }
+            couplings = remoteCouplings[handle];
+            for (int j = 0; j < couplings.length; ++j) {
+                Port<?> portFrom = couplings[j].getPortFrom();
+                if (!portFrom.isEmpty()) {
+                    LogicalProcess target = outNeighbours[remoteChannels[handle][j]];
+                    coordinator.notifySent();
+                    target.deliver(new ChannelMessage(id, t, remoteSlots[handle][j],
+                            new ArrayList<Object>(portFrom.getValues())));
+                }
+            }
+        }
+    }
+
+    /**
+     * Injects the inputs received for the current time and executes the transition
+     * functions of the active models.
+     * @param t Current time.
+     */
+    @SuppressWarnings("unchecked")
+    protected void deltfcn(double t) {
+        while (!pending.isEmpty() && pending.peek().time == t) {
+            ChannelMessage message = pending.poll();
+            ((Port<Object>) inputPorts.get(message.slot)).addValues((Collection<Object>) message.values);
+            activate(inputOwners.get(message.slot));
+        }
+        for (int i = 0; i < numActiveHandles; ++i) {
+            int handle = activeHandles[i];
+            Simulator simulator = simulators.get(handle);
+            simulator.deltfcn();
+            scheduler.schedule(handle, simulator.getTN());
+        }
+        for (int i = 0; i < numActiveHandles; ++i) {
+            int handle = activeHandles[i];
+            simulators.get(handle).clear();
+            activeFlags[handle] = false;
+        }
+        numActiveHandles = 0;
+    }
+
+    /**
+     * Sends a null message through every output channel whose promise has grown.
+     */
+    protected void sendPromises() {
+        double earliest = Math.min(nextTime(), eit());
+        boolean stopped = numSteps >= coordinator.maxSteps;
+        for (int k = 0; k < outNeighbours.length; ++k) {
+            double promise = Constants.INFINITY;
+            if (!stopped) {
+                promise = earliest + outLookaheads[k];
+                for (int handle : outSources[k]) {
+                    double tN = simulators.get(handle).getTN();
+                    // Imminent sources have already sent their values in this step
+                    if (outputDone && activeFlags[handle] && tN == clock.getTime()) {
+                        continue;
+                    }
+                    if (tN < promise) {
+                        promise = tN;
+                    }
+                }
+            }
+            if (promise > sentPromises[k]) {
+                sentPromises[k] = promise;
+                outNeighbours[k].deliver(new ChannelMessage(id, promise, -1, null));
+            }
+        }
+    }
+
+    /**
+     * Puts a message in the inbox of the logical process and wakes it up.
+     * @param message The message.
+     */
+    protected void deliver(ChannelMessage message) {
+        inbox.add(message);
+        Thread target = thread;
+        if (target != null) {
+            LockSupport.unpark(target);
+        }
+    }
+
+    /**
+     * Wakes up the logical process.
+     */
+    protected void wakeUp() {
+        Thread target = thread;
+        if (target != null) {
+            LockSupport.unpark(target);
+        }
+    }
+
+    /**
+     * Gets the simulators of the logical process.
+     * @return The simulators.
+     */
+    public List<Simulator> getSimulators() {
+        return simulators;
+    }
+
+    /**
+     * Gets the time of the last step executed by the logical process.
+     * @return The time of the last step.
+     */
+    public double getLastTime() {
+        return lastTime;
+    }
+}
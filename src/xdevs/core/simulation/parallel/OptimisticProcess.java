@@ -0,0 +1,488 @@
+/*
+* File: OptimisticProcess.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.parallel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import xdevs.core.modeling.Atomic;
+import xdevs.core.modeling.Coupling;
+import xdevs.core.modeling.Port;
+import xdevs.core.simulation.EventScheduler;
+import xdevs.core.simulation.SimulationClock;
+import xdevs.core.simulation.Simulator;
+import xdevs.core.util.Constants;
+
+/**
+ * Logical process of the optimistic (Time Warp) coordinator.
+ *
+ * The logical process executes the steps of its atomic models as soon as it knows
+ * them, without waiting for the rest of logical processes. Before a model executes a
+ * step, its state is saved with {@link Atomic#saveState()}. When a message arrives
+ * with a timestamp that is not later than the last step executed (a straggler), the
+ * steps from that timestamp on are undone: the states are restored, the messages
+ * consumed by those steps go back to the list of pending inputs, and anti-messages
+ * cancel the messages they sent. The saved states older than the global virtual time
+ * are discarded, since no message can roll them back.
+ *
+ * Timestamps are pairs (time, iteration): models that transition with ta = 0 execute
+ * the next step at the same time but in the next iteration, as the sequential
+ * coordinator does. So, outputs produced in response to an input at time t are not
+ * confused with inputs of the step that generated it.
+ *
+ * See {@link CoordinatorOptimistic}.
+ */
+public class OptimisticProcess implements Runnable {
+
+    /**
+     * Message sent between two logical processes. The anti-message of a message refers
+     * to it, so it can be found and annihilated.
+     */
+    protected static class TimeWarpMessage implements Comparable<TimeWarpMessage> {
+        protected final double time;
+        protected final int iteration;
+        protected final int slot;
+        protected final List<Object> values;
+        protected final TimeWarpMessage positive;
+        /**
+         * True if the message has been consumed by a step of the receiver.
+         */
+        protected boolean processed = false;
+
+        protected TimeWarpMessage(double time, int iteration, int slot, List<Object> values) {
+            this.time = time;
+            this.iteration = iteration;
+            this.slot = slot;
+            this.values = values;
+            this.positive = null;
+        }
+
+        protected TimeWarpMessage(TimeWarpMessage positive) {
+            this.time = positive.time;
+            this.iteration = positive.iteration;
+            this.slot = positive.slot;
+            this.values = null;
+            this.positive = positive;
+        }
+
+        @Override
+        public int compareTo(TimeWarpMessage other) {
+            return compare(time, iteration, other.time, other.iteration);
+        }
+    }
+
+    /**
+     * Saved information of a step, needed to undo it.
+     */
+    protected static class StepRecord {
+        protected final double time;
+        protected final int iteration;
+        protected int[] handles = new int[4];
+        protected Object[] states = new Object[4];
+        protected double[] tLs = new double[4];
+        protected double[] tNs = new double[4];
+        protected int[] iterations = new int[4];
+        protected int size = 0;
+        protected ArrayList<TimeWarpMessage> consumed = new ArrayList<>();
+        protected ArrayList<TimeWarpMessage> sent = new ArrayList<>();
+        protected ArrayList<OptimisticProcess> receivers = new ArrayList<>();
+
+        protected StepRecord(double time, int iteration) {
+            this.time = time;
+            this.iteration = iteration;
+        }
+
+        protected void save(int handle, Simulator simulator, int iteration) {
+            if (size == handles.length) {
+                handles = Arrays.copyOf(handles, 2 * size);
+                states = Arrays.copyOf(states, 2 * size);
+                tLs = Arrays.copyOf(tLs, 2 * size);
+                tNs = Arrays.copyOf(tNs, 2 * size);
+                iterations = Arrays.copyOf(iterations, 2 * size);
+            }
+            handles[size] = handle;
+            states[size] = simulator.getModel().saveState();
+            tLs[size] = simulator.getTL();
+            tNs[size] = simulator.getTN();
+            iterations[size] = iteration;
+            size++;
+        }
+    }
+
+    protected int id;
+    protected CoordinatorOptimistic coordinator;
+    protected SimulationClock clock;
+    protected ArrayList<Simulator> simulators = new ArrayList<>();
+    protected EventScheduler scheduler = new EventScheduler();
+    /**
+     * Iteration of the next event of each model, at time tN.
+     */
+    protected int[] nextIterations;
+    protected volatile Thread thread = null;
+
+    protected int[] activeHandles;
+    protected int numActiveHandles = 0;
+    protected boolean[] activeFlags;
+    protected int[] imminentHandles;
+
+    protected Coupling<?>[][] localCouplings;
+    protected int[][] localTargets;
+    protected Coupling<?>[][] remoteCouplings;
+    protected OptimisticProcess[][] remoteTargets;
+    protected int[][] remoteSlots;
+
+    protected ArrayList<Port<?>> inputPorts = new ArrayList<>();
+    protected ArrayList<Integer> inputOwners = new ArrayList<>();
+    protected HashMap<Port<?>, Integer> inputSlots = new HashMap<>();
+    protected ConcurrentLinkedQueue<TimeWarpMessage> inbox = new ConcurrentLinkedQueue<>();
+    protected PriorityQueue<TimeWarpMessage> pending = new PriorityQueue<>();
+    protected ArrayDeque<StepRecord> history = new ArrayDeque<>();
+    /**
+     * Undone step whose messages are still valid, since the output functions of a step
+     * only depend on the states before it. They are reused when the step is executed
+     * again, instead of being cancelled and sent twice.
+     */
+    protected StepRecord keptRecord = null;
+
+    /**
+     * Earliest unprocessed time, reported in the computation of the global virtual time.
+     */
+    protected double localMinimum;
+    protected long numSteps = 0;
+    protected long numRolledBack = 0;
+
+    /**
+     * Creates a new logical process.
+     * @param id Index of the logical process.
+     * @param coordinator The coordinator that owns the logical process.
+     * @param time Initial simulation time.
+     */
+    public OptimisticProcess(int id, CoordinatorOptimistic coordinator, double time) {
+        this.id = id;
+        this.coordinator = coordinator;
+        this.clock = new SimulationClock(time);
+    }
+
+    protected static int compare(double time1, int iteration1, double time2, int iteration2) {
+        if (time1 != time2) {
+            return (time1 < time2) ? -1 : 1;
+        }
+        return Integer.compare(iteration1, iteration2);
+    }
+
+    protected int addAtomic(Atomic atomic) {
+        simulators.add(new Simulator(clock, atomic));
+        return simulators.size() - 1;
+    }
+
+    protected int addInputPort(Port<?> port, int owner) {
+        Integer slot = inputSlots.get(port);
+        if (slot == null) {
+            slot = inputPorts.size();
+            inputSlots.put(port, slot);
+            inputPorts.add(port);
+            inputOwners.add(owner);
+        }
+        return slot;
+    }
+
+    protected void initialize() {
+        int n = simulators.size();
+        activeHandles = new int[n];
+        activeFlags = new boolean[n];
+        imminentHandles = new int[n];
+        nextIterations = new int[n];
+        scheduler.clear();
+        for (int handle = 0; handle < n; ++handle) {
+            Simulator simulator = simulators.get(handle);
+            simulator.initialize();
+            scheduler.schedule(handle, simulator.getTN());
+        }
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        int party = id + 1;
+        while (!coordinator.isFinished()) {
+            if (coordinator.isGvtRequested()) {
+                receive();
+                localMinimum = nextTime();
+                coordinator.barrier.await(party);
+                coordinator.barrier.await(party);
+                collectFossils(coordinator.getGvt());
+                continue;
+            }
+            receive();
+            if (nextTime() < coordinator.finalTime) {
+                step();
+            } else if (inbox.isEmpty() && !coordinator.isGvtRequested() && !coordinator.isFinished()) {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    /**
+     * Processes the received messages, rolling back if needed.
+     */
+    protected void receive() {
+        TimeWarpMessage message;
+        while ((message = inbox.poll()) != null) {
+            if (message.positive == null) {
+                if (isProcessed(message.time, message.iteration)) {
+                    rollback(message.time, message.iteration);
+                }
+                pending.add(message);
+            } else {
+                TimeWarpMessage positive = message.positive;
+                if (positive.processed) {
+                    rollback(positive.time, positive.iteration);
+                }
+                pending.remove(positive);
+            }
+        }
+    }
+
+    /**
+     * Tells if a step at the given timestamp or later has been executed.
+     * @param time Time of the timestamp.
+     * @param iteration Iteration of the timestamp.
+     * @return true if a step at the timestamp or later has been executed.
+     */
+    protected boolean isProcessed(double time, int iteration) {
+        StepRecord last = history.peekLast();
+        return last != null && compare(last.time, last.iteration, time, iteration) >= 0;
+    }
+
+    /**
+     * Undoes all the steps executed at the given timestamp or later. The messages sent
+     * by the steps after the timestamp are cancelled with anti-messages, whereas the
+     * messages sent by the step at the timestamp itself are kept.
+     * @param time Time of the timestamp.
+     * @param iteration Iteration of the timestamp.
+     */
+    protected void rollback(double time, int iteration) {
+        if (keptRecord != null && compare(keptRecord.time, keptRecord.iteration, time, iteration) > 0) {
+            cancel(keptRecord);
+            keptRecord = null;
+        }
+        StepRecord record;
+        while ((record = history.peekLast()) != null
+                && compare(record.time, record.iteration, time, iteration) >= 0) {
+            history.pollLast();
+            for (int i = record.size - 1; i >= 0; --i) {
+                int handle = record.handles[i];
+                Simulator simulator = simulators.get(handle);
+                simulator.getModel().restoreState(record.states[i]);
+                simulator.setTL(record.tLs[i]);
+                simulator.setTN(record.tNs[i]);
+                nextIterations[handle] = record.iterations[i];
+                scheduler.schedule(handle, record.tNs[i]);
+            }
+            for (TimeWarpMessage consumed : record.consumed) {
+                consumed.processed = false;
+                pending.add(consumed);
+            }
+            if (record.time == time && record.iteration == iteration) {
+                keptRecord = record;
+            } else {
+                cancel(record);
+            }
+            numSteps--;
+            numRolledBack++;
+        }
+    }
+
+    /**
+     * Sends the anti-messages of the messages sent in a step.
+     * @param record The undone step.
+     */
+    protected void cancel(StepRecord record) {
+        for (int i = 0; i < record.sent.size(); ++i) {
+            record.receivers.get(i).deliver(new TimeWarpMessage(record.sent.get(i)));
+        }
+    }
+
+    /**
+     * Time of the earliest unprocessed event of the logical process.
+     * @return The time of the next step.
+     */
+    protected double nextTime() {
+        double tN = scheduler.nextTime();
+        TimeWarpMessage first = pending.peek();
+        return (first != null && first.time < tN) ? first.time : tN;
+    }
+
+    protected void activate(int handle, StepRecord record) {
+        if (!activeFlags[handle]) {
+            activeFlags[handle] = true;
+            activeHandles[numActiveHandles++] = handle;
+            record.save(handle, simulators.get(handle), nextIterations[handle]);
+        }
+    }
+
+    /**
+     * Executes the next step of the logical process.
+     */
+    @SuppressWarnings("unchecked")
+    protected void step() {
+        // Timestamp of the step
+        double t = nextTime();
+        int k = Integer.MAX_VALUE;
+        int numImminents = 0;
+        if (scheduler.nextTime() == t) {
+            numImminents = scheduler.imminents(t, imminentHandles);
+            for (int i = 0; i < numImminents; ++i) {
+                k = Math.min(k, nextIterations[imminentHandles[i]]);
+            }
+        }
+        TimeWarpMessage first = pending.peek();
+        if (first != null && first.time == t) {
+            k = Math.min(k, first.iteration);
+        }
+        StepRecord record = new StepRecord(t, k);
+        boolean reuse = false;
+        if (keptRecord != null) {
+            reuse = keptRecord.time == t && keptRecord.iteration == k;
+            if (reuse) {
+                record.sent.addAll(keptRecord.sent);
+                record.receivers.addAll(keptRecord.receivers);
+            } else {
+                cancel(keptRecord);
+            }
+            keptRecord = null;
+        }
+        clock.setTime(t);
+        // Output functions
+        for (int i = 0; i < numImminents; ++i) {
+            int handle = imminentHandles[i];
+            if (nextIterations[handle] == k) {
+                activate(handle, record);
+                simulators.get(handle).lambda();
+            }
+        }
+        int numImminentsAtK = numActiveHandles;
+        for (int i = 0; i < numImminentsAtK; ++i) {
+            int handle = activeHandles[i];
+            Coupling<?>[] couplings = localCouplings[handle];
+            for (int j = 0; j < couplings.length; ++j) {
+                if (!couplings[j].getPortFrom().isEmpty()) {
+                    activate(localTargets[handle][j], record);
+                    couplings[j].propagateValues();
+                }
+            }
+            couplings = remoteCouplings[handle];
+            for (int j = 0; j < couplings.length; ++j) {
+                Port<?> portFrom = couplings[j].getPortFrom();
+                if (!reuse && !portFrom.isEmpty()) {
+                    OptimisticProcess target = remoteTargets[handle][j];
+                    TimeWarpMessage message = new TimeWarpMessage(t, k, remoteSlots[handle][j],
+                            new ArrayList<Object>(portFrom.getValues()));
+                    record.sent.add(message);
+                    record.receivers.add(target);
+                    target.deliver(message);
+                }
+            }
+        }
+        // Inputs from other logical processes
+        while (!pending.isEmpty() && pending.peek().time == t && pending.peek().iteration == k) {
+            TimeWarpMessage message = pending.poll();
+            int owner = inputOwners.get(message.slot);
+            activate(owner, record);
+            ((Port<Object>) inputPorts.get(message.slot)).addValues((Collection<Object>) message.values);
+            message.processed = true;
+            record.consumed.add(message);
+        }
+        // Transition functions
+        for (int i = 0; i < numActiveHandles; ++i) {
+            int handle = activeHandles[i];
+            Simulator simulator = simulators.get(handle);
+            simulator.deltfcn();
+            nextIterations[handle] = (simulator.getTN() == t) ? k + 1 : 0;
+            scheduler.schedule(handle, simulator.getTN());
+        }
+        for (int i = 0; i < numActiveHandles; ++i) {
+            int handle = activeHandles[i];
+            simulators.get(handle).clear();
+            activeFlags[handle] = false;
+        }
+        numActiveHandles = 0;
+        history.addLast(record);
+        numSteps++;
+    }
+
+    /**
+     * Discards the saved states of the steps executed before the global virtual time.
+     * @param gvt The global virtual time.
+     */
+    protected void collectFossils(double gvt) {
+        while (!history.isEmpty() && history.peekFirst().time < gvt) {
+            history.pollFirst();
+        }
+    }
+
+    /**
+     * Gets the earliest timestamp of the messages not received yet.
+     * @return The earliest timestamp in the inbox.
+     */
+    protected double inboxMinimum() {
+        double minimum = Constants.INFINITY;
+        for (TimeWarpMessage message : inbox) {
+            minimum = Math.min(minimum, message.time);
+        }
+        return minimum;
+    }
+
+    /**
+     * Puts a message in the inbox of the logical process and wakes it up.
+     * @param message The message.
+     */
+    protected void deliver(TimeWarpMessage message) {
+        inbox.add(message);
+        wakeUp();
+    }
+
+    protected void wakeUp() {
+        Thread target = thread;
+        if (target != null) {
+            LockSupport.unpark(target);
+        }
+    }
+
+    /**
+     * Gets the number of steps undone by rollbacks.
+     * @return The number of steps rolled back.
+     */
+    public long getNumRolledBack() {
+        return numRolledBack;
+    }
+
+    public List<Simulator> getSimulators() {
+        return simulators;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+* File: PhaseBarrier.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.parallel;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reusable barrier for a fixed set of threads, used to separate the phases of a
+ * simulation step.
+ *
+ * Each thread identifies itself with a party index. Threads that arrive before the
+ * last one spin for a while, which is enough when the phases are short, and then
+ * park until the last thread arrives. The barrier is reused in every phase without
+ * allocating memory.
+ */
+public class PhaseBarrier {
+
+    /**
+     * Number of spin iterations before parking.
+     */
+    protected static final int SPIN_LIMIT = 2000;
+
+    protected final int parties;
+    protected final Thread[] threads;
+    protected final AtomicInteger arrived = new AtomicInteger(0);
+    protected final AtomicInteger sleepers = new AtomicInteger(0);
+    protected volatile int generation = 0;
+
+    /**
+     * Creates a new barrier.
+     * @param parties Number of threads that must arrive to open the barrier.
+     */
+    public PhaseBarrier(int parties) {
+        this.parties = parties;
+        this.threads = new Thread[parties];
+    }
+
+    /**
+     * Waits until all the parties have arrived to the barrier.
+     * @param party Index of the calling thread, between 0 and parties - 1.
+     */
+    public void await(int party) {
+        threads[party] = Thread.currentThread();
+        int currentGeneration = generation;
+        if (arrived.incrementAndGet() == parties) {
+            arrived.set(0);
+            generation = currentGeneration + 1;
+            if (sleepers.get() > 0) {
+                for (int i = 0; i < parties; ++i) {
+                    if (i != party && threads[i] != null) {
+                        LockSupport.unpark(threads[i]);
+                    }
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < SPIN_LIMIT; ++i) {
+            if (generation != currentGeneration) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        sleepers.incrementAndGet();
+        while (generation == currentGeneration) {
+            LockSupport.park(this);
+        }
+        sleepers.decrementAndGet();
+    }
+
+    /**
+     * Gets the number of parties of the barrier.
+     * @return The number of parties.
+     */
+    public int getParties() {
+        return parties;
+    }
+}
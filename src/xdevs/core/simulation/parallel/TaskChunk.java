@@ -0,0 +1,92 @@
+/*
+* File: TaskChunk.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.parallel;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+import xdevs.core.simulation.AbstractSimulator;
+
+/**
+ * Fork/join task that executes a phase of the simulation (output or transition
+ * functions) over a chunk of simulators.
+ *
+ * The chunk is split in halves while it is larger than the minimum chunk size and
+ * the pool has no surplus of queued tasks, so idle workers can steal the pending
+ * halves. Once the chunk is small enough, or the rest of workers are already busy,
+ * the simulators are executed sequentially.
+ */
+public class TaskChunk extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Phase that executes the output functions.
+     */
+    public static final int LAMBDA = 0;
+    /**
+     * Phase that executes the transition functions.
+     */
+    public static final int DELTFCN = 1;
+
+    protected int phase;
+    protected List<AbstractSimulator> simulators;
+    protected int[] handles;
+    protected int from;
+    protected int to;
+    protected int minChunkSize;
+
+    /**
+     * Constructor for the task.
+     * @param phase Phase to execute, {@link #LAMBDA} or {@link #DELTFCN}
+     * @param simulators DEVS simulators
+     * @param handles Positions of the simulators to execute, or null to execute all of them
+     * @param from First position (inclusive) of the chunk
+     * @param to Last position (exclusive) of the chunk
+     * @param minChunkSize Chunks of this size or smaller are not split
+     */
+    public TaskChunk(int phase, List<AbstractSimulator> simulators, int[] handles, int from, int to, int minChunkSize) {
+        this.phase = phase;
+        this.simulators = simulators;
+        this.handles = handles;
+        this.from = from;
+        this.to = to;
+        this.minChunkSize = minChunkSize;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from > minChunkSize && getSurplusQueuedTaskCount() <= 2) {
+            int middle = (from + to) >>> 1;
+            invokeAll(new TaskChunk(phase, simulators, handles, from, middle, minChunkSize),
+                    new TaskChunk(phase, simulators, handles, middle, to, minChunkSize));
+            return;
+        }
+        for (int i = from; i < to; ++i) {
+            AbstractSimulator simulator = simulators.get((handles != null) ? handles[i] : i);
+            if (phase == LAMBDA) {
+                simulator.lambda();
+            } else {
+                simulator.deltfcn();
+            }
+        }
+    }
+}
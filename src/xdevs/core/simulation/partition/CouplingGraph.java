@@ -0,0 +1,258 @@
+/*
+* File: CouplingGraph.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.partition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import xdevs.core.modeling.Atomic;
+import xdevs.core.modeling.Component;
+import xdevs.core.modeling.Coupled;
+import xdevs.core.modeling.Coupling;
+
+/**
+ * Undirected weighted graph of the atomic models of a flattened coupled model.
+ *
+ * Each vertex is an atomic model, and two vertices are adjacent if there is at least
+ * one internal coupling between them, in any direction. The weight of an edge is the
+ * number of couplings between both models, and the weight of a vertex is the
+ * estimated cost of simulating the model (1 by default).
+ *
+ * The adjacency is stored in compressed form: the neighbours of vertex v are
+ * adjacency[adjacencyStarts[v]] to adjacency[adjacencyStarts[v + 1] - 1].
+ */
+public class CouplingGraph {
+
+    private static final Logger LOGGER = Logger.getLogger(CouplingGraph.class.getName());
+
+    protected String[] names;
+    protected HashMap<String, Integer> indices = new HashMap<>();
+    protected double[] vertexWeights;
+    protected int[] adjacencyStarts;
+    protected int[] adjacency;
+    protected double[] edgeWeights;
+
+    /**
+     * Builds the graph of a flattened coupled model. The vertices follow the order of
+     * the components of the model.
+     * @param model Flattened coupled model.
+     */
+    public CouplingGraph(Coupled model) {
+        ArrayList<String> vertexNames = new ArrayList<>();
+        HashMap<Component, Integer> componentIndices = new HashMap<>();
+        for (Component component : model.getComponents()) {
+            if (component instanceof Atomic) {
+                componentIndices.put(component, vertexNames.size());
+                vertexNames.add(component.getName());
+            } else {
+                LOGGER.warning(component.getName() + " is not atomic: " + model.getName() + " must be flattened");
+            }
+        }
+        ArrayList<HashMap<Integer, Double>> neighbours = createNeighbours(vertexNames.size());
+        for (Coupling<?> coupling : model.getIC()) {
+            Integer from = componentIndices.get(coupling.getPortFrom().getParent());
+            Integer to = componentIndices.get(coupling.getPortTo().getParent());
+            if (from != null && to != null) {
+                addEdge(neighbours, from, to);
+            }
+        }
+        build(vertexNames, neighbours);
+    }
+
+    /**
+     * Builds the graph of a coupled model defined in XML, as in
+     * {@link xdevs.core.modeling.distributed.CoupledDistributed}. The vertices are the
+     * atomic and coupled elements, in document order, and the edges are the
+     * connections among them.
+     * @param xmlCoupled XML element with the model definition.
+     */
+    public CouplingGraph(Element xmlCoupled) {
+        ArrayList<String> vertexNames = new ArrayList<>();
+        HashMap<String, Integer> nameIndices = new HashMap<>();
+        ArrayList<Element> xmlConnections = new ArrayList<>();
+        NodeList xmlChildList = xmlCoupled.getChildNodes();
+        for (int i = 0; i < xmlChildList.getLength(); ++i) {
+            Node xmlNode = xmlChildList.item(i);
+            if (xmlNode.getNodeName().equals("atomic") || xmlNode.getNodeName().equals("coupled")) {
+                nameIndices.put(((Element) xmlNode).getAttribute("name"), vertexNames.size());
+                vertexNames.add(((Element) xmlNode).getAttribute("name"));
+            } else if (xmlNode.getNodeName().equals("connection")) {
+                xmlConnections.add((Element) xmlNode);
+            }
+        }
+        ArrayList<HashMap<Integer, Double>> neighbours = createNeighbours(vertexNames.size());
+        for (Element xmlConnection : xmlConnections) {
+            Integer from = nameIndices.get(xmlConnection.getAttribute("componentFrom"));
+            Integer to = nameIndices.get(xmlConnection.getAttribute("componentTo"));
+            if (from != null && to != null) {
+                addEdge(neighbours, from, to);
+            }
+        }
+        build(vertexNames, neighbours);
+    }
+
+    /**
+     * Builds a graph from its vertex weights and symmetric adjacency. Used to build
+     * the coarse graphs of the multilevel partitioner.
+     * @param vertexWeights Weights of the vertices.
+     * @param neighbours Weight of the edge to each neighbour, for each vertex.
+     */
+    protected CouplingGraph(double[] vertexWeights, List<HashMap<Integer, Double>> neighbours) {
+        ArrayList<String> vertexNames = new ArrayList<>();
+        for (int v = 0; v < vertexWeights.length; ++v) {
+            vertexNames.add(String.valueOf(v));
+        }
+        build(vertexNames, neighbours);
+        this.vertexWeights = vertexWeights;
+    }
+
+    private static ArrayList<HashMap<Integer, Double>> createNeighbours(int numVertices) {
+        ArrayList<HashMap<Integer, Double>> neighbours = new ArrayList<>(numVertices);
+        for (int v = 0; v < numVertices; ++v) {
+            neighbours.add(new HashMap<>());
+        }
+        return neighbours;
+    }
+
+    private static void addEdge(List<HashMap<Integer, Double>> neighbours, int from, int to) {
+        if (from != to) {
+            neighbours.get(from).merge(to, 1.0, Double::sum);
+            neighbours.get(to).merge(from, 1.0, Double::sum);
+        }
+    }
+
+    private void build(List<String> vertexNames, List<HashMap<Integer, Double>> neighbours) {
+        int numVertices = vertexNames.size();
+        names = vertexNames.toArray(new String[numVertices]);
+        for (int v = 0; v < numVertices; ++v) {
+            indices.put(names[v], v);
+        }
+        vertexWeights = new double[numVertices];
+        Arrays.fill(vertexWeights, 1.0);
+        adjacencyStarts = new int[numVertices + 1];
+        for (int v = 0; v < numVertices; ++v) {
+            adjacencyStarts[v + 1] = adjacencyStarts[v] + neighbours.get(v).size();
+        }
+        adjacency = new int[adjacencyStarts[numVertices]];
+        edgeWeights = new double[adjacencyStarts[numVertices]];
+        for (int v = 0; v < numVertices; ++v) {
+            int e = adjacencyStarts[v];
+            for (Map.Entry<Integer, Double> entry : neighbours.get(v).entrySet()) {
+                adjacency[e] = entry.getKey();
+                edgeWeights[e] = entry.getValue();
+                e++;
+            }
+        }
+    }
+
+    /**
+     * Sets the weights of the vertices from measured costs, for instance the time used
+     * by the transition and output functions of each model in a
+     * {@link xdevs.core.simulation.profile.CoordinatorProfile} run. The weight of each
+     * vertex is 1 + cost / mean cost, so the fixed cost of scheduling a model is never
+     * ignored. Models without a measured cost get the mean cost.
+     * @param costs Measured cost of each model, by name.
+     */
+    public void setWeights(Map<String, Double> costs) {
+        double sum = 0;
+        int count = 0;
+        for (String name : names) {
+            Double cost = costs.get(name);
+            if (cost != null) {
+                sum += cost;
+                count++;
+            }
+        }
+        double mean = (count > 0) ? sum / count : 0;
+        for (int v = 0; v < names.length; ++v) {
+            Double cost = costs.get(names[v]);
+            vertexWeights[v] = (mean > 0) ? 1 + ((cost != null) ? cost : mean) / mean : 1;
+        }
+    }
+
+    public int getNumVertices() {
+        return names.length;
+    }
+
+    public String getName(int vertex) {
+        return names[vertex];
+    }
+
+    /**
+     * Gets the vertex of a model.
+     * @param name Name of the model.
+     * @return The index of the vertex, or null if the model is not in the graph.
+     */
+    public Integer getIndex(String name) {
+        return indices.get(name);
+    }
+
+    public double getVertexWeight(int vertex) {
+        return vertexWeights[vertex];
+    }
+
+    public double getTotalWeight() {
+        double total = 0;
+        for (double weight : vertexWeights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    /**
+     * Computes the weight of the edges whose vertices are in different parts.
+     * @param parts Part of each vertex.
+     * @return The weight of the cut edges.
+     */
+    public double cut(int[] parts) {
+        double cut = 0;
+        for (int v = 0; v < names.length; ++v) {
+            for (int e = adjacencyStarts[v]; e < adjacencyStarts[v + 1]; ++e) {
+                if (parts[adjacency[e]] != parts[v]) {
+                    cut += edgeWeights[e];
+                }
+            }
+        }
+        return cut / 2;
+    }
+
+    /**
+     * Computes the weight of each part.
+     * @param parts Part of each vertex.
+     * @param numParts Number of parts.
+     * @return The sum of the weights of the vertices of each part.
+     */
+    public double[] partWeights(int[] parts, int numParts) {
+        double[] weights = new double[numParts];
+        for (int v = 0; v < names.length; ++v) {
+            weights[parts[v]] += vertexWeights[v];
+        }
+        return weights;
+    }
+}
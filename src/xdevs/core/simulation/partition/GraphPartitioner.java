@@ -0,0 +1,460 @@
+/*
+* File: GraphPartitioner.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.partition;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.w3c.dom.Element;
+
+import xdevs.core.examples.devstone.DevStoneCoupledHOmod;
+import xdevs.core.modeling.Coupled;
+import xdevs.core.util.DevsLogger;
+
+/**
+ * Multilevel partitioner of coupling graphs.
+ *
+ * The partitioner splits the atomic models of a flattened coupled model in k parts of
+ * similar weight, trying to minimize the weight of the couplings between different
+ * parts. It follows the usual multilevel scheme:
+ * <ol>
+ * <li>Coarsening: the graph is contracted several times, matching each vertex with
+ * the unmatched neighbour joined by the heaviest edge, until it is small enough.</li>
+ * <li>Initial partition: the coarsest graph is split by growing each part from a
+ * seed, adding the vertex most connected to the part, several times from different
+ * seeds. The best partition is kept.</li>
+ * <li>Uncoarsening: the partition is projected back to each finer graph and refined
+ * by moving boundary vertices to the part where they have more neighbours, as long as
+ * the balance constraint holds.</li>
+ * </ol>
+ *
+ * The weights of the vertices can be taken from profiling data, see
+ * {@link #loadWeights(String)}.
+ */
+public class GraphPartitioner {
+
+    private static final Logger LOGGER = Logger.getLogger(GraphPartitioner.class.getName());
+
+    /**
+     * Coarsening stops when the graph has at most this number of vertices per part.
+     */
+    protected static final int COARSEST_VERTICES_PER_PART = 16;
+    /**
+     * Coarsening stops when a level removes less than this fraction of vertices.
+     */
+    protected static final double MIN_COARSENING_RATIO = 0.1;
+    protected static final int NUM_INITIAL_TRIALS = 4;
+    protected static final int MAX_REFINEMENT_PASSES = 8;
+    public static final long DEFAULT_SEED = 1234;
+
+    /**
+     * Allowed excess of the weight of a part over the average, as a fraction.
+     */
+    protected double imbalance = 0.03;
+    protected long seed;
+    protected Random random;
+    /**
+     * Measured cost of each model, by name, or null to use unit weights.
+     */
+    protected Map<String, Double> weights = null;
+
+    /**
+     * Creates a new partitioner.
+     * @param seed Seed of the random orders used by the partitioner, so the partitions
+     * are reproducible.
+     */
+    public GraphPartitioner(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Creates a new partitioner with the default seed.
+     */
+    public GraphPartitioner() {
+        this(DEFAULT_SEED);
+    }
+
+    public double getImbalance() {
+        return imbalance;
+    }
+
+    public void setImbalance(double imbalance) {
+        this.imbalance = imbalance;
+    }
+
+    /**
+     * Sets the measured cost of each model, used to weight the vertices.
+     * See {@link CouplingGraph#setWeights(Map)}.
+     * @param weights Cost of each model, by name, or null to use unit weights.
+     */
+    public void setWeights(Map<String, Double> weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Loads the cost of each model from the output of
+     * {@link xdevs.core.simulation.profile.CoordinatorProfile#toString()}. The cost of
+     * an atomic model is the time used by its transition and output functions.
+     * @param path Path of the profiling file.
+     * @throws IOException If the file cannot be read.
+     */
+    public void loadWeights(String path) throws IOException {
+        HashMap<String, Double> costs = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(";");
+                if (fields.length > 8 && fields[2].equals("Atomic")) {
+                    costs.put(fields[0], Double.parseDouble(fields[6]) + Double.parseDouble(fields[8]));
+                }
+            }
+        }
+        LOGGER.fine("Loaded the cost of " + costs.size() + " atomic models from " + path);
+        this.weights = costs;
+    }
+
+    /**
+     * Builds the coupling graph of a flattened coupled model and partitions it.
+     * @param model Flattened coupled model.
+     * @param numParts Number of parts.
+     * @return The part of each component, in the order of {@link Coupled#getComponents()}.
+     */
+    public int[] partition(Coupled model, int numParts) {
+        CouplingGraph graph = new CouplingGraph(model);
+        if (weights != null) {
+            graph.setWeights(weights);
+        }
+        return partition(graph, numParts);
+    }
+
+    /**
+     * Builds the coupling graph of a coupled model defined in XML and partitions it.
+     * @param xmlCoupled XML element with the model definition.
+     * @param numParts Number of parts.
+     * @return The part of each atomic element, in document order.
+     */
+    public int[] partition(Element xmlCoupled, int numParts) {
+        CouplingGraph graph = new CouplingGraph(xmlCoupled);
+        if (weights != null) {
+            graph.setWeights(weights);
+        }
+        return partition(graph, numParts);
+    }
+
+    /**
+     * Partitions a graph.
+     * @param graph The graph.
+     * @param numParts Number of parts.
+     * @return The part of each vertex, between 0 and numParts - 1.
+     */
+    public int[] partition(CouplingGraph graph, int numParts) {
+        random = new Random(seed);
+        int numVertices = graph.getNumVertices();
+        int[] parts = new int[numVertices];
+        if (numParts <= 1) {
+            return parts;
+        }
+        if (numVertices <= numParts) {
+            for (int v = 0; v < numVertices; ++v) {
+                parts[v] = v;
+            }
+            return parts;
+        }
+        // Coarsening
+        ArrayList<CouplingGraph> levels = new ArrayList<>();
+        ArrayList<int[]> maps = new ArrayList<>();
+        // Coarse vertices must stay small enough to balance the parts of the coarsest graph
+        double maxVertexWeight = 1.5 * graph.getTotalWeight() / (COARSEST_VERTICES_PER_PART * numParts);
+        CouplingGraph current = graph;
+        while (current.getNumVertices() > COARSEST_VERTICES_PER_PART * numParts) {
+            int[] map = new int[current.getNumVertices()];
+            CouplingGraph coarse = coarsen(current, map, maxVertexWeight);
+            if (coarse.getNumVertices() > (1 - MIN_COARSENING_RATIO) * current.getNumVertices()) {
+                break;
+            }
+            levels.add(current);
+            maps.add(map);
+            current = coarse;
+        }
+        // Initial partition
+        double bestCut = Double.POSITIVE_INFINITY;
+        for (int trial = 0; trial < NUM_INITIAL_TRIALS; ++trial) {
+            int[] trialParts = grow(current, numParts);
+            refine(current, trialParts, numParts);
+            double cut = current.cut(trialParts);
+            if (cut < bestCut) {
+                bestCut = cut;
+                parts = trialParts;
+            }
+        }
+        // Uncoarsening
+        for (int level = levels.size() - 1; level >= 0; --level) {
+            CouplingGraph fine = levels.get(level);
+            int[] map = maps.get(level);
+            int[] fineParts = new int[fine.getNumVertices()];
+            for (int v = 0; v < fineParts.length; ++v) {
+                fineParts[v] = parts[map[v]];
+            }
+            refine(fine, fineParts, numParts);
+            parts = fineParts;
+        }
+        LOGGER.fine(numVertices + " vertices in " + numParts + " parts through " + levels.size()
+                + " levels. Cut: " + graph.cut(parts) + ", weights: "
+                + Arrays.toString(graph.partWeights(parts, numParts)));
+        return parts;
+    }
+
+    private int[] randomOrder(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; ++i) {
+            order[i] = i;
+        }
+        for (int i = size - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int aux = order[i];
+            order[i] = order[j];
+            order[j] = aux;
+        }
+        return order;
+    }
+
+    /**
+     * Contracts the graph by heavy edge matching.
+     * @param graph The graph.
+     * @param map Output: coarse vertex of each vertex of the graph.
+     * @param maxVertexWeight Maximum weight of a coarse vertex.
+     * @return The coarse graph.
+     */
+    protected CouplingGraph coarsen(CouplingGraph graph, int[] map, double maxVertexWeight) {
+        int numVertices = graph.getNumVertices();
+        Arrays.fill(map, -1);
+        int numCoarse = 0;
+        for (int v : randomOrder(numVertices)) {
+            if (map[v] >= 0) {
+                continue;
+            }
+            int match = -1;
+            double matchWeight = 0;
+            for (int e = graph.adjacencyStarts[v]; e < graph.adjacencyStarts[v + 1]; ++e) {
+                int u = graph.adjacency[e];
+                if (map[u] < 0 && graph.edgeWeights[e] > matchWeight
+                        && graph.vertexWeights[v] + graph.vertexWeights[u] <= maxVertexWeight) {
+                    match = u;
+                    matchWeight = graph.edgeWeights[e];
+                }
+            }
+            map[v] = numCoarse;
+            if (match >= 0) {
+                map[match] = numCoarse;
+            }
+            numCoarse++;
+        }
+        double[] coarseWeights = new double[numCoarse];
+        ArrayList<HashMap<Integer, Double>> neighbours = new ArrayList<>(numCoarse);
+        for (int c = 0; c < numCoarse; ++c) {
+            neighbours.add(new HashMap<>());
+        }
+        for (int v = 0; v < numVertices; ++v) {
+            coarseWeights[map[v]] += graph.vertexWeights[v];
+            for (int e = graph.adjacencyStarts[v]; e < graph.adjacencyStarts[v + 1]; ++e) {
+                int c = map[graph.adjacency[e]];
+                if (c != map[v]) {
+                    neighbours.get(map[v]).merge(c, graph.edgeWeights[e], Double::sum);
+                }
+            }
+        }
+        return new CouplingGraph(coarseWeights, neighbours);
+    }
+
+    /**
+     * Builds a partition growing each part from a random seed. Each part takes the
+     * unassigned vertex most connected to it until it reaches the average weight. The
+     * last part takes the rest of vertices.
+     * @param graph The graph.
+     * @param numParts Number of parts.
+     * @return The part of each vertex.
+     */
+    protected int[] grow(CouplingGraph graph, int numParts) {
+        int numVertices = graph.getNumVertices();
+        int[] parts = new int[numVertices];
+        Arrays.fill(parts, numParts - 1);
+        boolean[] assigned = new boolean[numVertices];
+        double[] connectivity = new double[numVertices];
+        int[] seeds = randomOrder(numVertices);
+        int nextSeed = 0;
+        int numAssigned = 0;
+        double target = graph.getTotalWeight() / numParts;
+        for (int p = 0; p < numParts - 1; ++p) {
+            PriorityQueue<double[]> frontier = new PriorityQueue<>((a, b) -> Double.compare(b[0], a[0]));
+            ArrayList<Integer> touched = new ArrayList<>();
+            double weight = 0;
+            // Leave at least one vertex for each of the remaining parts
+            while (weight < target && numAssigned < numVertices - (numParts - 1 - p)) {
+                int v = -1;
+                while (!frontier.isEmpty()) {
+                    double[] top = frontier.poll();
+                    int u = (int) top[1];
+                    if (!assigned[u] && top[0] == connectivity[u]) {
+                        v = u;
+                        break;
+                    }
+                }
+                if (v < 0) {
+                    while (assigned[seeds[nextSeed]]) {
+                        nextSeed++;
+                    }
+                    v = seeds[nextSeed];
+                }
+                if (weight > 0 && weight + graph.vertexWeights[v] - target > target - weight) {
+                    break;
+                }
+                parts[v] = p;
+                assigned[v] = true;
+                numAssigned++;
+                weight += graph.vertexWeights[v];
+                for (int e = graph.adjacencyStarts[v]; e < graph.adjacencyStarts[v + 1]; ++e) {
+                    int u = graph.adjacency[e];
+                    if (!assigned[u]) {
+                        connectivity[u] += graph.edgeWeights[e];
+                        touched.add(u);
+                        frontier.add(new double[] { connectivity[u], u });
+                    }
+                }
+            }
+            for (int u : touched) {
+                connectivity[u] = 0;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Improves a partition moving vertices between parts. A vertex moves to the part
+     * where it has more neighbours if the part does not exceed the maximum weight.
+     * Moves that do not change the cut are done only if they improve the balance, and
+     * vertices of overweight parts are moved even if the cut grows.
+     * @param graph The graph.
+     * @param parts The part of each vertex, updated in place.
+     * @param numParts Number of parts.
+     */
+    protected void refine(CouplingGraph graph, int[] parts, int numParts) {
+        int numVertices = graph.getNumVertices();
+        double maxVertexWeight = 0;
+        for (int v = 0; v < numVertices; ++v) {
+            maxVertexWeight = Math.max(maxVertexWeight, graph.vertexWeights[v]);
+        }
+        double average = graph.getTotalWeight() / numParts;
+        double maxPartWeight = Math.max((1 + imbalance) * average, average + maxVertexWeight);
+        double[] partWeights = graph.partWeights(parts, numParts);
+        int[] partSizes = new int[numParts];
+        for (int v = 0; v < numVertices; ++v) {
+            partSizes[parts[v]]++;
+        }
+        double[] connectivity = new double[numParts];
+        int[] touched = new int[numParts];
+        for (int pass = 0; pass < MAX_REFINEMENT_PASSES; ++pass) {
+            int numMoves = 0;
+            for (int v : randomOrder(numVertices)) {
+                int from = parts[v];
+                if (partSizes[from] == 1) {
+                    continue;
+                }
+                double weight = graph.vertexWeights[v];
+                int numTouched = 0;
+                for (int e = graph.adjacencyStarts[v]; e < graph.adjacencyStarts[v + 1]; ++e) {
+                    int p = parts[graph.adjacency[e]];
+                    if (connectivity[p] == 0) {
+                        touched[numTouched++] = p;
+                    }
+                    connectivity[p] += graph.edgeWeights[e];
+                }
+                boolean overweight = partWeights[from] > maxPartWeight;
+                int to = -1;
+                double bestGain = 0;
+                for (int i = 0; i < numTouched; ++i) {
+                    int p = touched[i];
+                    if (p == from || partWeights[p] + weight > maxPartWeight) {
+                        continue;
+                    }
+                    double gain = connectivity[p] - connectivity[from];
+                    boolean better;
+                    if (to < 0) {
+                        better = gain > 0 || (gain == 0 && partWeights[p] + weight < partWeights[from]) || overweight;
+                    } else {
+                        better = gain > bestGain || (gain == bestGain && partWeights[p] < partWeights[to]);
+                    }
+                    if (better) {
+                        to = p;
+                        bestGain = gain;
+                    }
+                }
+                for (int i = 0; i < numTouched; ++i) {
+                    connectivity[touched[i]] = 0;
+                }
+                if (to < 0 && overweight) {
+                    // No neighbour part can take it, so it goes to the lightest one
+                    for (int p = 0; p < numParts; ++p) {
+                        if (p != from && partWeights[p] + weight <= maxPartWeight
+                                && (to < 0 || partWeights[p] < partWeights[to])) {
+                            to = p;
+                        }
+                    }
+                }
+                if (to >= 0) {
+                    parts[v] = to;
+                    partWeights[from] -= weight;
+                    partWeights[to] += weight;
+                    partSizes[from]--;
+                    partSizes[to]++;
+                    numMoves++;
+                }
+            }
+            if (numMoves == 0) {
+                break;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        DevsLogger.setup(Level.INFO);
+        Coupled model = new DevStoneCoupledHOmod("C", 20, 10, 0, 0, 0).flatten();
+        CouplingGraph graph = new CouplingGraph(model);
+        GraphPartitioner partitioner = new GraphPartitioner();
+        for (int numParts = 2; numParts <= 8; numParts *= 2) {
+            int[] parts = partitioner.partition(graph, numParts);
+            int[] contiguous = new int[parts.length];
+            for (int v = 0; v < parts.length; ++v) {
+                contiguous[v] = (int) ((long) v * numParts / parts.length);
+            }
+            LOGGER.info(numParts + " parts. Cut couplings: " + graph.cut(parts) + " (contiguous blocks: "
+                    + graph.cut(contiguous) + "), weights: " + Arrays.toString(graph.partWeights(parts, numParts)));
+        }
+    }
+}
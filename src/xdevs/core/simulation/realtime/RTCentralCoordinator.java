@@ -101,6 +101,7 @@ public class RTCentralCoordinator extends CoordinatorParallel implements Runnabl
         coordinator.initialize();
         coordinator.setTimeScale(0.1);
         coordinator.simulate(60.0);
+        coordinator.exit();
         double timeEnd = System.currentTimeMillis();
         System.out.println("Total execution time: " + (timeEnd - timeStart) + "ms");
     }
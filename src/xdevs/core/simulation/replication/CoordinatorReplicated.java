@@ -0,0 +1,381 @@
+/*
+* File: CoordinatorReplicated.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.replication;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import xdevs.core.examples.efp.Efp;
+import xdevs.core.examples.efp.Generator;
+import xdevs.core.modeling.Atomic;
+import xdevs.core.modeling.Component;
+import xdevs.core.modeling.Coupled;
+import xdevs.core.simulation.AbstractSimulator;
+import xdevs.core.simulation.Coordinator;
+import xdevs.core.simulation.EventScheduler;
+import xdevs.core.simulation.SimulationClock;
+import xdevs.core.util.Constants;
+import xdevs.core.util.DevsLogger;
+
+/**
+ * Coordinator that simulates several replicas of a model with a single model structure.
+ *
+ * The model is flattened and its simulators, couplings and routing table are built only
+ * once. Each replica keeps its own copy of the state of every atomic model (see
+ * {@link Atomic#saveState()}), the tL and tN of every simulator, and its own event
+ * scheduler, so the memory of an extra replica is only its state. In each step, the
+ * state of a replica is loaded into the shared models as the simulators are activated
+ * (imminent or receiving input), and saved back after the transition functions, so the
+ * cost of switching between replicas depends on the activity of the step instead of
+ * the size of the model.
+ *
+ * Replicas are simulated one after another by default. In lock-step mode (see
+ * {@link #setLockStep(boolean)}), each replica advances one step in turn.
+ *
+ * Everything that differs between replicas must be part of the saved state of the
+ * atomic models: model parameters and random number generators not included in
+ * {@link Atomic#saveState()} are shared by all the replicas. Initial conditions can be
+ * set per replica with a {@link ReplicaInitializer}.
+ */
+public class CoordinatorReplicated extends Coordinator {
+
+    private static final Logger LOGGER = Logger.getLogger(CoordinatorReplicated.class.getName());
+
+    protected int numReplicas;
+    protected ReplicaInitializer initializer = null;
+    protected boolean lockStep = false;
+    /**
+     * Replica loaded in the shared structure.
+     */
+    protected int replica = 0;
+    /**
+     * State of each atomic model, indexed by replica and handle.
+     */
+    protected Object[][] states;
+    /**
+     * Time of last event of each simulator, indexed by replica and handle.
+     */
+    protected double[][] tLs;
+    /**
+     * Time of next event of each simulator, indexed by replica and handle.
+     */
+    protected double[][] tNs;
+    protected EventScheduler[] schedulers;
+    protected double[] replicaTLs;
+    protected double[] replicaTNs;
+    /**
+     * Simulation time of each replica.
+     */
+    protected double[] replicaTimes;
+    protected long[] iterations;
+    protected long maxIterations = 0;
+
+    /**
+     * Constructor for the replicated coordinator.
+     * @param clock Simulation clock
+     * @param model Coupled model, flattened before simulation
+     * @param numReplicas Number of replicas
+     */
+    public CoordinatorReplicated(SimulationClock clock, Coupled model, int numReplicas) {
+        super(clock, model, true);
+        super.setActivityDriven(true);
+        this.numReplicas = Math.max(1, numReplicas);
+    }
+
+    /**
+     * Constructor for the replicated coordinator.
+     * @param model Coupled model, flattened before simulation
+     * @param numReplicas Number of replicas
+     */
+    public CoordinatorReplicated(Coupled model, int numReplicas) {
+        this(new SimulationClock(), model, numReplicas);
+    }
+
+    public int getNumReplicas() {
+        return numReplicas;
+    }
+
+    /**
+     * Sets the initializer of the replicas. It must be called before
+     * {@link #initialize()}.
+     * @param initializer The replica initializer.
+     */
+    public void setInitializer(ReplicaInitializer initializer) {
+        this.initializer = initializer;
+    }
+
+    /**
+     * Enables or disables the lock-step mode, where the replicas advance one step in
+     * turn instead of one after another.
+     * @param lockStep true to enable the lock-step mode.
+     */
+    public void setLockStep(boolean lockStep) {
+        this.lockStep = lockStep;
+    }
+
+    public boolean isLockStep() {
+        return lockStep;
+    }
+
+    /**
+     * The replicated coordinator only works in activity-driven mode.
+     * @param activityDriven ignored.
+     */
+    @Override
+    public void setActivityDriven(boolean activityDriven) {
+        if (!activityDriven) {
+            LOGGER.warning("The replicated coordinator is always activity-driven.");
+        }
+    }
+
+    @Override
+    public void initialize() {
+        super.initialize();
+        int numSimulators = simulators.size();
+        states = new Object[numReplicas][numSimulators];
+        tLs = new double[numReplicas][numSimulators];
+        tNs = new double[numReplicas][numSimulators];
+        schedulers = new EventScheduler[numReplicas];
+        replicaTLs = new double[numReplicas];
+        replicaTNs = new double[numReplicas];
+        replicaTimes = new double[numReplicas];
+        iterations = new long[numReplicas];
+        double time = clock.getTime();
+        for (int r = 0; r < numReplicas; ++r) {
+            if (r > 0) {
+                for (AbstractSimulator simulator : simulators) {
+                    simulator.initialize();
+                }
+            }
+            if (initializer != null) {
+                initializer.initialize(r, model);
+                // The initializer may have changed the time advance of the models
+                for (AbstractSimulator simulator : simulators) {
+                    simulator.setTN(simulator.getTL() + simulator.ta());
+                }
+            }
+            schedulers[r] = new EventScheduler(numSimulators);
+            for (int handle = 0; handle < numSimulators; ++handle) {
+                save(r, handle);
+                schedulers[r].schedule(handle, tNs[r][handle]);
+            }
+            replicaTLs[r] = time;
+            replicaTNs[r] = schedulers[r].nextTime();
+            replicaTimes[r] = time;
+        }
+        select(0);
+    }
+
+    /**
+     * Saves the state of a simulator in a replica.
+     * @param r Replica
+     * @param handle Handle of the simulator
+     */
+    protected void save(int r, int handle) {
+        AbstractSimulator simulator = simulators.get(handle);
+        states[r][handle] = ((Atomic) simulator.getModel()).saveState();
+        tLs[r][handle] = simulator.getTL();
+        tNs[r][handle] = simulator.getTN();
+    }
+
+    /**
+     * Loads the state of a simulator from a replica.
+     * @param r Replica
+     * @param handle Handle of the simulator
+     */
+    protected void load(int r, int handle) {
+        AbstractSimulator simulator = simulators.get(handle);
+        ((Atomic) simulator.getModel()).restoreState(states[r][handle]);
+        simulator.setTL(tLs[r][handle]);
+        simulator.setTN(tNs[r][handle]);
+    }
+
+    /**
+     * Makes a replica the current one, without loading the state of its models.
+     * @param r Replica
+     */
+    protected void select(int r) {
+        replica = r;
+        scheduler = schedulers[r];
+        tL = replicaTLs[r];
+        tN = replicaTNs[r];
+        clock.setTime(replicaTimes[r]);
+    }
+
+    /**
+     * Loads a whole replica into the model, so its state can be inspected through the
+     * model and the simulators.
+     * @param r Replica
+     */
+    public void selectReplica(int r) {
+        select(r);
+        for (int handle = 0; handle < simulators.size(); ++handle) {
+            load(r, handle);
+        }
+    }
+
+    /**
+     * Loads the state of the current replica into a simulator the first time it is
+     * activated in the step.
+     */
+    @Override
+    protected void activate(int handle) {
+        if (!activeFlags[handle]) {
+            load(replica, handle);
+        }
+        super.activate(handle);
+    }
+
+    /**
+     * Saves the state of the active simulators in the current replica after their
+     * transition functions.
+     */
+    @Override
+    public void deltfcn() {
+        super.deltfcn();
+        for (int i = 0; i < numActiveHandles; ++i) {
+            save(replica, activeHandles[i]);
+        }
+    }
+
+    /**
+     * Simulates one step of a replica.
+     * @param r Replica
+     */
+    protected void step(int r) {
+        select(r);
+        clock.setTime(tN);
+        lambda();
+        deltfcn();
+        clear();
+        replicaTLs[r] = tL;
+        replicaTNs[r] = tN;
+        replicaTimes[r] = tL;
+        iterations[r]++;
+    }
+
+    /**
+     * Simulates each replica for a given number of iterations.
+     * @param numIterations the number of iterations to simulate.
+     */
+    @Override
+    public void simulate(long numIterations) {
+        LOGGER.fine("START SIMULATION");
+        maxIterations += numIterations;
+        if (lockStep) {
+            boolean progress = true;
+            while (progress) {
+                progress = false;
+                for (int r = 0; r < numReplicas; ++r) {
+                    if (iterations[r] < maxIterations && replicaTNs[r] < Constants.INFINITY) {
+                        step(r);
+                        progress = true;
+                    }
+                }
+            }
+        } else {
+            for (int r = 0; r < numReplicas; ++r) {
+                while (iterations[r] < maxIterations && replicaTNs[r] < Constants.INFINITY) {
+                    step(r);
+                }
+            }
+        }
+    }
+
+    /**
+     * Simulates each replica for a given time interval.
+     * @param timeInterval the time interval to simulate.
+     */
+    @Override
+    public void simulate(double timeInterval) {
+        LOGGER.fine("START SIMULATION");
+        double[] tFs = new double[numReplicas];
+        for (int r = 0; r < numReplicas; ++r) {
+            tFs[r] = replicaTimes[r] + timeInterval;
+        }
+        if (lockStep) {
+            boolean progress = true;
+            while (progress) {
+                progress = false;
+                for (int r = 0; r < numReplicas; ++r) {
+                    if (replicaTNs[r] < tFs[r]) {
+                        step(r);
+                        progress = true;
+                    }
+                }
+            }
+        } else {
+            for (int r = 0; r < numReplicas; ++r) {
+                while (replicaTNs[r] < tFs[r]) {
+                    step(r);
+                }
+            }
+        }
+        for (int r = 0; r < numReplicas; ++r) {
+            replicaTimes[r] = tFs[r];
+        }
+        select(replica);
+    }
+
+    /**
+     * Calls the exit function of the models once per replica, with its state loaded.
+     */
+    @Override
+    public void exit() {
+        for (int r = 0; r < numReplicas; ++r) {
+            selectReplica(r);
+            super.exit();
+        }
+    }
+
+    /**
+     * Gets the number of iterations simulated by a replica.
+     * @param r Replica
+     * @return The number of iterations.
+     */
+    public long getIterations(int r) {
+        return iterations[r];
+    }
+
+    public static void main(String[] args) {
+        DevsLogger.setup(Level.INFO);
+        // Each replica delays the first job of the generator one more time unit
+        Efp efp = new Efp("EFP", 1, 3, 100);
+        CoordinatorReplicated coordinator = new CoordinatorReplicated(efp, 4);
+        coordinator.setInitializer((replica, model) -> {
+            for (Component component : model.getComponents()) {
+                if (component instanceof Generator) {
+                    Generator generator = (Generator) component;
+                    generator.setSigma(generator.getSigma() + replica);
+                }
+            }
+        });
+        coordinator.initialize();
+        long start = System.currentTimeMillis();
+        coordinator.simulate(Long.MAX_VALUE);
+        long end = System.currentTimeMillis();
+        coordinator.exit();
+        for (int r = 0; r < coordinator.getNumReplicas(); ++r) {
+            LOGGER.info("Replica " + r + ": " + coordinator.getIterations(r) + " iterations");
+        }
+        LOGGER.info("Simulation time (s) = " + ((end - start) / 1e3));
+    }
+}
@@ -0,0 +1,39 @@
+/*
+* File: ReplicaInitializer.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.replication;
+
+import xdevs.core.modeling.Coupled;
+
+/**
+ * Sets up the initial state of each replica of a {@link CoordinatorReplicated}.
+ */
+public interface ReplicaInitializer {
+
+    /**
+     * Called once per replica, after the atomic models have been initialized and
+     * before their state is saved. It can modify the state of the models, for instance
+     * to give each replica different initial conditions. Only the state returned by
+     * {@link xdevs.core.modeling.Atomic#saveState()} is kept per replica.
+     * @param replica Index of the replica.
+     * @param model The flattened model, shared by all the replicas.
+     */
+    void initialize(int replica, Coupled model);
+}
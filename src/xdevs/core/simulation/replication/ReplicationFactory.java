@@ -0,0 +1,57 @@
+/*
+* File: ReplicationFactory.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.replication;
+
+import xdevs.core.modeling.Coupled;
+import xdevs.core.simulation.Coordinator;
+
+/**
+ * Builds the model instances of a batch of replications and extracts their results.
+ *
+ * Replications are executed concurrently, so each call to
+ * {@link #createModel(int, long)} must return an independent model: random number
+ * generators, distributions and any other mutable object must not be shared between
+ * instances.
+ */
+public interface ReplicationFactory {
+
+    /**
+     * Creates the model of a replication.
+     * @param replication Index of the replication.
+     * @param seed Seed for the random number generators of the model.
+     * @return A new model instance.
+     */
+    Coupled createModel(int replication, long seed);
+
+    /**
+     * Gets the names of the metrics returned by {@link #getMetrics(Coupled, Coordinator)}.
+     * @return The names of the metrics.
+     */
+    String[] getMetricNames();
+
+    /**
+     * Extracts the results of a replication once it has been simulated.
+     * @param model The model of the replication.
+     * @param coordinator The coordinator that simulated it.
+     * @return The value of each metric.
+     */
+    double[] getMetrics(Coupled model, Coordinator coordinator);
+}
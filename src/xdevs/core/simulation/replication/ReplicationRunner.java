@@ -0,0 +1,256 @@
+/*
+* File: ReplicationRunner.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.simulation.replication;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.math3.distribution.RealDistribution;
+import org.apache.commons.math3.distribution.UniformRealDistribution;
+
+import xdevs.core.examples.devstone.DevStone;
+import xdevs.core.examples.devstone.DevStoneCoupledLI;
+import xdevs.core.examples.devstone.DevStoneGenerator;
+import xdevs.core.modeling.Component;
+import xdevs.core.modeling.Coupled;
+import xdevs.core.simulation.Coordinator;
+import xdevs.core.util.DevsLogger;
+import xdevs.core.util.StreamingStatistics;
+
+/**
+ * Runs independent replications of a model in parallel.
+ *
+ * Each replication builds its own model instance with a {@link ReplicationFactory} and
+ * simulates it with its own sequential coordinator in a thread of a fixed pool, so
+ * replications share no mutable state and the batch scales with the number of cores.
+ * The seeds of the replications are derived from the seed of the batch, so results are
+ * reproducible regardless of the number of threads.
+ *
+ * The metrics of each replication, plus its wall-clock time ({@link #WALL_TIME}), are
+ * merged into {@link StreamingStatistics} by the calling thread, and then discarded.
+ * Replications are merged in the order of their indexes, not in the order they
+ * finish, since the quantiles and the last bits of the mean and variance depend on
+ * the order of the observations. So, the statistics of the metrics (not the
+ * wall-clock time) are also reproducible regardless of the number of threads. The
+ * number of replications submitted but not merged yet is bounded, so the memory does
+ * not grow with the size of the batch.
+ */
+public class ReplicationRunner {
+
+    private static final Logger LOGGER = Logger.getLogger(ReplicationRunner.class.getName());
+
+    /**
+     * Replications submitted per thread and not merged yet.
+     */
+    protected static final int QUEUED_PER_THREAD = 2;
+    /**
+     * Name of the metric with the wall-clock time of each replication, in seconds. It
+     * is always the last one.
+     */
+    public static final String WALL_TIME = "WALL_TIME";
+
+    protected ReplicationFactory factory;
+    protected int numberOfThreads;
+    protected double[] probabilities = StreamingStatistics.DEFAULT_PROBABILITIES;
+    protected long numFailures = 0;
+
+    /**
+     * Creates a new replication runner.
+     * @param factory Factory of the models and metrics.
+     * @param numberOfThreads Number of threads
+     */
+    public ReplicationRunner(ReplicationFactory factory, int numberOfThreads) {
+        this.factory = factory;
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+    }
+
+    /**
+     * Creates a new replication runner. It uses the number of available processors.
+     * @param factory Factory of the models and metrics.
+     */
+    public ReplicationRunner(ReplicationFactory factory) {
+        this(factory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Sets the probabilities of the quantiles computed for each metric.
+     * @param probabilities Probabilities of the quantiles.
+     */
+    public void setProbabilities(double... probabilities) {
+        this.probabilities = probabilities;
+    }
+
+    /**
+     * Gets the number of replications that failed in the last batch.
+     * @return The number of failed replications.
+     */
+    public long getNumFailures() {
+        return numFailures;
+    }
+
+    /**
+     * Creates the coordinator of a replication. By default, a sequential coordinator.
+     * @param model The model of the replication.
+     * @return The coordinator.
+     */
+    protected Coordinator createCoordinator(Coupled model) {
+        return new Coordinator(model);
+    }
+
+    /**
+     * Runs a batch of replications, each one until there are no more events or
+     * the given number of iterations.
+     * @param numReplications Number of replications.
+     * @param seed Seed of the batch.
+     * @param numIterations Number of iterations of each replication.
+     * @return The statistics of each metric, and the wall-clock time.
+     */
+    public StreamingStatistics[] run(int numReplications, long seed, long numIterations) {
+        return run(numReplications, seed, (coordinator) -> coordinator.simulate(numIterations));
+    }
+
+    /**
+     * Runs a batch of replications, each one during the given simulation time.
+     * @param numReplications Number of replications.
+     * @param seed Seed of the batch.
+     * @param timeInterval Simulation time of each replication.
+     * @return The statistics of each metric, and the wall-clock time.
+     */
+    public StreamingStatistics[] run(int numReplications, long seed, double timeInterval) {
+        return run(numReplications, seed, (coordinator) -> coordinator.simulate(timeInterval));
+    }
+
+    protected StreamingStatistics[] run(int numReplications, long seed, Consumer<Coordinator> simulation) {
+        String[] names = factory.getMetricNames();
+        StreamingStatistics[] statistics = new StreamingStatistics[names.length + 1];
+        for (int i = 0; i < names.length; ++i) {
+            statistics[i] = new StreamingStatistics(names[i], probabilities);
+        }
+        statistics[names.length] = new StreamingStatistics(WALL_TIME, probabilities);
+        numFailures = 0;
+        SplittableRandom seeds = new SplittableRandom(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        // Replications not merged yet, by index modulo the capacity
+        @SuppressWarnings("unchecked")
+        Future<double[]>[] pending = new Future[QUEUED_PER_THREAD * numberOfThreads];
+        long start = System.currentTimeMillis();
+        int numSubmitted = 0;
+        int numMerged = 0;
+        try {
+            while (numMerged < numReplications) {
+                while (numSubmitted < numReplications && numSubmitted - numMerged < pending.length) {
+                    final int replication = numSubmitted++;
+                    final long replicationSeed = seeds.nextLong();
+                    pending[replication % pending.length] = executor
+                            .submit(() -> replicate(replication, replicationSeed, simulation));
+                }
+                // The next replication in order; the ones after it keep running meanwhile
+                Future<double[]> next = pending[numMerged % pending.length];
+                pending[numMerged % pending.length] = null;
+                try {
+                    double[] metrics = next.get();
+                    for (int i = 0; i < statistics.length; ++i) {
+                        statistics[i].add(metrics[i]);
+                    }
+                } catch (ExecutionException ee) {
+                    numFailures++;
+                    LOGGER.severe("Replication failed: " + ee.getCause());
+                }
+                numMerged++;
+            }
+        } catch (InterruptedException ie) {
+            LOGGER.severe(ie.getLocalizedMessage());
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        long end = System.currentTimeMillis();
+        LOGGER.fine(numReplications + " replications in " + ((end - start) / 1e3) + " s with " + numberOfThreads
+                + " threads");
+        return statistics;
+    }
+
+    /**
+     * Builds, simulates and measures a replication.
+     * @param replication Index of the replication.
+     * @param seed Seed of the replication.
+     * @param simulation Simulation of the coordinator.
+     * @return The metrics of the replication, and its wall-clock time.
+     */
+    protected double[] replicate(int replication, long seed, Consumer<Coordinator> simulation) {
+        long start = System.nanoTime();
+        Coupled model = factory.createModel(replication, seed);
+        Coordinator coordinator = createCoordinator(model);
+        coordinator.initialize();
+        simulation.accept(coordinator);
+        coordinator.exit();
+        double[] metrics = factory.getMetrics(model, coordinator);
+        double[] result = Arrays.copyOf(metrics, metrics.length + 1);
+        result[metrics.length] = (System.nanoTime() - start) / 1e9;
+        return result;
+    }
+
+    public static void main(String[] args) {
+        DevsLogger.setup(Level.INFO);
+        // DEVStone LI with random transition delays (in CPU seconds)
+        ReplicationFactory factory = new ReplicationFactory() {
+            @Override
+            public Coupled createModel(int replication, long seed) {
+                RealDistribution distribution = new UniformRealDistribution(0, 0.0002);
+                distribution.reseedRandomGenerator(seed);
+                Coupled framework = new Coupled("DevStoneLI");
+                DevStoneGenerator generator = new DevStoneGenerator("Generator", 0, 1, 1);
+                DevStoneCoupledLI stone = new DevStoneCoupledLI("C", 10, 10, 0, distribution);
+                framework.addComponent(generator);
+                framework.addComponent(stone);
+                framework.addCoupling(generator.oOut, stone.iIn);
+                return framework;
+            }
+
+            @Override
+            public String[] getMetricNames() {
+                return new String[] { "NUM_OF_EVENTS" };
+            }
+
+            @Override
+            public double[] getMetrics(Coupled model, Coordinator coordinator) {
+                long numEvents = 0;
+                for (Component component : model.getComponents()) {
+                    if (component instanceof DevStone) {
+                        numEvents += ((DevStone) component).numEventsInPractice();
+                    }
+                }
+                return new double[] { numEvents };
+            }
+        };
+        ReplicationRunner runner = new ReplicationRunner(factory);
+        for (StreamingStatistics statistics : runner.run(200, 1234, Long.MAX_VALUE)) {
+            LOGGER.info(statistics.toString());
+        }
+    }
+}
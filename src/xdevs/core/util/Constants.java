@@ -38,5 +38,12 @@ public class Constants {
     public static final int DS_PROPAGATE_OUTPUT_N2N = 6; // Distrituted simulation: it allows propagate the outputs of node to node.    
     public static final int DS_DELTFCN = 7; // Distrituted simulation: it allows to execute the delta methods.    
     public static final int DS_CLEAR = 8; // Distrituted simulation: it allows to refresh ports.    
+    public static final int DS_STEP = 9; // Distributed simulation: lambda, output exchange, delta methods and clear in a single command.
+    public static final int DS_PREPARE = 10; // Distributed simulation: it prepares a decentralized run.
+    public static final int DS_RUN = 11; // Distributed simulation: it starts a decentralized run.
+    public static final int DS_NULL_MESSAGE = 12; // Distributed simulation: it sends the promise of a node to another one.
+    public static final int DS_STATUS = 13; // Distributed simulation: it asks a node for its state, to detect the end of a decentralized run.
+    public static final int DS_STOP = 14; // Distributed simulation: it finishes a decentralized run.
     public static final int DS_EXIT = 15; // Distrituted simulation: it allows to exit of each simulator.    
+    public static final int DS_ERROR = 16; // Distributed simulation: response to a request that failed in the node.
 }
@@ -0,0 +1,140 @@
+/*
+* File: P2Quantile.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.util;
+
+import java.util.Arrays;
+
+/**
+ * Streaming estimation of a quantile with the P-square algorithm (Jain and Chlamtac,
+ * 1985).
+ *
+ * The estimator keeps five markers: the minimum, the maximum, the desired quantile and
+ * two intermediate quantiles. Each observation moves the positions of the markers,
+ * and their heights are adjusted with a piecewise-parabolic interpolation. So, the
+ * memory is constant and the observations are not stored.
+ */
+public class P2Quantile {
+
+    protected final double probability;
+    protected final double[] heights = new double[5];
+    protected final double[] positions = new double[5];
+    protected final double[] desiredPositions = new double[5];
+    protected final double[] increments;
+    protected long count = 0;
+
+    /**
+     * Creates a new estimator.
+     * @param probability Probability of the quantile, between 0 and 1 (0.5 for the median).
+     */
+    public P2Quantile(double probability) {
+        this.probability = probability;
+        this.increments = new double[] { 0, probability / 2, probability, (1 + probability) / 2, 1 };
+    }
+
+    public double getProbability() {
+        return probability;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Adds an observation.
+     * @param value The observation.
+     */
+    public void add(double value) {
+        if (count < 5) {
+            heights[(int) count++] = value;
+            if (count == 5) {
+                Arrays.sort(heights);
+                for (int i = 0; i < 5; ++i) {
+                    positions[i] = i + 1;
+                }
+                desiredPositions[0] = 1;
+                desiredPositions[1] = 1 + 2 * probability;
+                desiredPositions[2] = 1 + 4 * probability;
+                desiredPositions[3] = 3 + 2 * probability;
+                desiredPositions[4] = 5;
+            }
+            return;
+        }
+        count++;
+        // Cell of the observation
+        int k;
+        if (value < heights[0]) {
+            heights[0] = value;
+            k = 0;
+        } else if (value >= heights[4]) {
+            heights[4] = value;
+            k = 3;
+        } else {
+            k = 0;
+            while (value >= heights[k + 1]) {
+                k++;
+            }
+        }
+        for (int i = k + 1; i < 5; ++i) {
+            positions[i]++;
+        }
+        for (int i = 0; i < 5; ++i) {
+            desiredPositions[i] += increments[i];
+        }
+        // Adjust the heights of the intermediate markers
+        for (int i = 1; i < 4; ++i) {
+            double d = desiredPositions[i] - positions[i];
+            if ((d >= 1 && positions[i + 1] - positions[i] > 1) || (d <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int s = (d > 0) ? 1 : -1;
+                double height = parabolic(i, s);
+                if (heights[i - 1] < height && height < heights[i + 1]) {
+                    heights[i] = height;
+                } else {
+                    heights[i] = heights[i] + s * (heights[i + s] - heights[i]) / (positions[i + s] - positions[i]);
+                }
+                positions[i] += s;
+            }
+        }
+    }
+
+    private double parabolic(int i, int s) {
+        return heights[i] + s / (positions[i + 1] - positions[i - 1])
+                * ((positions[i] - positions[i - 1] + s) * (heights[i + 1] - heights[i]) / (positions[i + 1] - positions[i])
+                        + (positions[i + 1] - positions[i] - s) * (heights[i] - heights[i - 1]) / (positions[i] - positions[i - 1]));
+    }
+
+    /**
+     * Gets the estimation of the quantile. With less than five observations, the
+     * quantile of the observations is returned.
+     * @return The quantile, or NaN if there are no observations.
+     */
+    public double getQuantile() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count < 5) {
+            double[] values = Arrays.copyOf(heights, (int) count);
+            Arrays.sort(values);
+            int index = (int) Math.ceil(probability * count) - 1;
+            return values[Math.max(0, Math.min((int) count - 1, index))];
+        }
+        return heights[2];
+    }
+}
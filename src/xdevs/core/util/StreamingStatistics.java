@@ -0,0 +1,158 @@
+/*
+* File: StreamingStatistics.java
+* Author: José Luis Risco Martín <jlrisco@ucm.es>
+* Created: 2026/10/16 (YYYY/MM/DD)
+*
+* Copyright (C) 2026
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package xdevs.core.util;
+
+import org.apache.commons.math3.distribution.TDistribution;
+
+/**
+ * Statistics of a stream of observations, computed without storing them: count, mean
+ * and variance (Welford's algorithm), minimum, maximum, confidence interval of the
+ * mean and quantiles (see {@link P2Quantile}).
+ */
+public class StreamingStatistics {
+
+    /**
+     * Probabilities of the quantiles computed by default.
+     */
+    public static final double[] DEFAULT_PROBABILITIES = new double[] { 0.05, 0.5, 0.95 };
+
+    protected String name;
+    protected long count = 0;
+    protected double mean = 0;
+    /**
+     * Sum of the squared differences from the mean.
+     */
+    protected double m2 = 0;
+    protected double min = Double.POSITIVE_INFINITY;
+    protected double max = Double.NEGATIVE_INFINITY;
+    protected P2Quantile[] quantiles;
+
+    /**
+     * Creates a new set of statistics.
+     * @param name Name of the observed variable.
+     * @param probabilities Probabilities of the quantiles to estimate.
+     */
+    public StreamingStatistics(String name, double... probabilities) {
+        this.name = name;
+        quantiles = new P2Quantile[probabilities.length];
+        for (int i = 0; i < probabilities.length; ++i) {
+            quantiles[i] = new P2Quantile(probabilities[i]);
+        }
+    }
+
+    /**
+     * Creates a new set of statistics with the default quantiles.
+     * @param name Name of the observed variable.
+     */
+    public StreamingStatistics(String name) {
+        this(name, DEFAULT_PROBABILITIES);
+    }
+
+    /**
+     * Adds an observation.
+     * @param value The observation.
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        for (P2Quantile quantile : quantiles) {
+            quantile.add(value);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return (count > 0) ? mean : Double.NaN;
+    }
+
+    /**
+     * Gets the sample variance.
+     * @return The variance, or NaN with less than two observations.
+     */
+    public double getVariance() {
+        return (count > 1) ? m2 / (count - 1) : Double.NaN;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the half width of the confidence interval of the mean, based on the
+     * Student's t distribution.
+     * @param level Confidence level, for instance 0.95.
+     * @return The half width, or NaN with less than two observations.
+     */
+    public double getConfidenceHalfWidth(double level) {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double t = new TDistribution(count - 1).inverseCumulativeProbability(0.5 + level / 2);
+        return t * getStandardDeviation() / Math.sqrt(count);
+    }
+
+    /**
+     * Gets the estimation of a quantile.
+     * @param probability Probability of the quantile. It must be one of the
+     * probabilities given in the constructor.
+     * @return The quantile, or NaN if it is not estimated.
+     */
+    public double getQuantile(double probability) {
+        for (P2Quantile quantile : quantiles) {
+            if (quantile.getProbability() == probability) {
+                return quantile.getQuantile();
+            }
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(name).append(": n=").append(count);
+        builder.append(", mean=").append(getMean());
+        builder.append(" +/- ").append(getConfidenceHalfWidth(0.95)).append(" (95% CI)");
+        builder.append(", min=").append(min).append(", max=").append(max);
+        for (P2Quantile quantile : quantiles) {
+            builder.append(", q").append(quantile.getProbability()).append("=").append(quantile.getQuantile());
+        }
+        return builder.toString();
+    }
+}